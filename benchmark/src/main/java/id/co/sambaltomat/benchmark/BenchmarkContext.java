@@ -0,0 +1,191 @@
+package id.co.sambaltomat.benchmark;
+
+import id.co.sambaltomat.benchmark.model.BenchmarkItem;
+import id.co.sambaltomat.benchmark.model.BenchmarkItemDetail;
+import id.co.sambaltomat.benchmark.model.IdentityModel;
+import id.co.sambaltomat.core.dao.BulkDao;
+import id.co.sambaltomat.core.service.GenericManager;
+import id.co.sambaltomat.model.TestModel;
+import org.hibernate.SessionFactory;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.support.ClassPathXmlApplicationContext;
+import org.springframework.orm.hibernate3.LocalSessionFactoryBean;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallbackWithoutResult;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Context Spring aplikasi (Resources, dao, Service) di atas H2 in-memory, dibuat sekali per trial dan
+ * dipakai bersama semua thread benchmark. Database diisi <code>rows</code> TestModel, satu BenchmarkItem per
+ * TestModel (dibagi ke <code>categories</code> kategori) dan <code>detailsPerItem</code> detail per item.
+ * <pre>
+ *      java -jar target/benchmarks.jar -p rows=100000 -p detailsPerItem=5
+ * </pre>
+ */
+@State(Scope.Benchmark)
+public class BenchmarkContext {
+    public static final String[] CONFIG_LOCATIONS = {
+            "classpath:applicationContext-benchmark.xml",
+            "classpath:applicationContext-Resources.xml",
+            "classpath:applicationContext-dao.xml",
+            "classpath:applicationContext-Service.xml"
+    };
+
+    private static final int SEED_CHUNK_SIZE = 1000;
+
+    @Param("10000")
+    public int rows;
+
+    @Param("3")
+    public int detailsPerItem;
+
+    @Param("10")
+    public int categories;
+
+    public ClassPathXmlApplicationContext context;
+    public SessionFactory sessionFactory;
+    public TransactionTemplate readOnlyTransaction;
+    public TransactionTemplate readWriteTransaction;
+
+    /**
+     * Manager dengan near cache dan query cache (applicationContext-Service.xml)
+     */
+    public GenericManager<TestModel, Long> testModelManager;
+
+    /**
+     * Manager tanpa cache, mengukur GenericDaoHibernate langsung
+     */
+    public GenericManager<TestModel, Long> testModelDaoManager;
+
+    /**
+     * Manager dengan OffHeapEntityCache di DAO
+     */
+    public GenericManager<TestModel, Long> offHeapTestModelManager;
+
+    public GenericManager<BenchmarkItem, Long> benchmarkItemManager;
+    public BenchmarkItemDao benchmarkItemDao;
+    public GenericManager<IdentityModel, Long> identityModelManager;
+    public BulkDao<TestModel, Long> testModelBulkDao;
+
+    private long[] testModelIds;
+    private long maxSeededTestModelId;
+
+    @Setup(Level.Trial)
+    @SuppressWarnings("unchecked")
+    public void start() {
+        context = new ClassPathXmlApplicationContext(CONFIG_LOCATIONS);
+        ((LocalSessionFactoryBean) context.getBean("&sessionFactory")).createDatabaseSchema();
+
+        sessionFactory = (SessionFactory) context.getBean("sessionFactory");
+        PlatformTransactionManager transactionManager = (PlatformTransactionManager) context.getBean("transactionManager");
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+        readWriteTransaction = new TransactionTemplate(transactionManager);
+
+        testModelManager = (GenericManager<TestModel, Long>) context.getBean("testModelManager");
+        testModelDaoManager = (GenericManager<TestModel, Long>) context.getBean("testModelDaoManager");
+        offHeapTestModelManager = (GenericManager<TestModel, Long>) context.getBean("offHeapTestModelManager");
+        benchmarkItemManager = (GenericManager<BenchmarkItem, Long>) context.getBean("benchmarkItemManager");
+        benchmarkItemDao = (BenchmarkItemDao) context.getBean("benchmarkItemDao");
+        identityModelManager = (GenericManager<IdentityModel, Long>) context.getBean("identityModelManager");
+        testModelBulkDao = (BulkDao<TestModel, Long>) context.getBean("testModelBulkDao");
+
+        seed();
+    }
+
+    /**
+     * Isi database per chunk: TestModel lewat BulkDao (stateless), item dan detail lewat manager
+     */
+    @SuppressWarnings("unchecked")
+    private void seed() {
+        final GenericManager<BenchmarkItemDetail, Long> detailManager =
+                (GenericManager<BenchmarkItemDetail, Long>) context.getBean("benchmarkItemDetailManager");
+        testModelIds = new long[rows];
+        for (int start = 0; start < rows; start += SEED_CHUNK_SIZE) {
+            final int from = start;
+            final int to = Math.min(rows, start + SEED_CHUNK_SIZE);
+            readWriteTransaction.execute(new TransactionCallbackWithoutResult() {
+                protected void doInTransactionWithoutResult(TransactionStatus status) {
+                    List<TestModel> testModels = new ArrayList<TestModel>(to - from);
+                    for (int i = from; i < to; i++) {
+                        TestModel testModel = new TestModel();
+                        testModel.setHelloModel("seed-" + i);
+                        testModels.add(testModel);
+                    }
+                    testModelBulkDao.insert(testModels);
+
+                    List<BenchmarkItem> items = new ArrayList<BenchmarkItem>(to - from);
+                    for (int i = from; i < to; i++) {
+                        TestModel testModel = testModels.get(i - from);
+                        testModelIds[i] = testModel.getId();
+                        maxSeededTestModelId = Math.max(maxSeededTestModelId, testModel.getId());
+                        BenchmarkItem item = new BenchmarkItem();
+                        item.setName("item-" + i);
+                        item.setCategory(i % categories);
+                        item.setAmount((long) i);
+                        item.setTestModel(testModel);
+                        items.add(item);
+                    }
+                    benchmarkItemManager.insertAll(items);
+
+                    List<BenchmarkItemDetail> details = new ArrayList<BenchmarkItemDetail>(items.size() * detailsPerItem);
+                    for (BenchmarkItem item : items) {
+                        for (int d = 0; d < detailsPerItem; d++) {
+                            BenchmarkItemDetail detail = new BenchmarkItemDetail();
+                            detail.setItem(item);
+                            detail.setNote(item.getName() + "-" + d);
+                            details.add(detail);
+                        }
+                    }
+                    detailManager.insertAll(details);
+                }
+            });
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        if (context != null)
+            context.close();
+    }
+
+    /**
+     * @return id TestModel terbesar hasil seed, row dengan id lebih besar berasal dari benchmark tulis
+     */
+    public long getMaxSeededTestModelId() {
+        return maxSeededTestModelId;
+    }
+
+    public long randomTestModelId() {
+        return testModelIds[ThreadLocalRandom.current().nextInt(testModelIds.length)];
+    }
+
+    /**
+     * @param hotKeys jumlah id yang dibaca berulang, mensimulasikan working set yang muat di cache
+     */
+    public long randomHotTestModelId(int hotKeys) {
+        return testModelIds[ThreadLocalRandom.current().nextInt(Math.min(hotKeys, testModelIds.length))];
+    }
+
+    public int randomCategory() {
+        return ThreadLocalRandom.current().nextInt(categories);
+    }
+
+    /**
+     * @return offset halaman acak di dalam satu kategori
+     */
+    public int randomOffset(int pageSize) {
+        int rowsPerCategory = rows / categories;
+        return rowsPerCategory <= pageSize ? 0 : ThreadLocalRandom.current().nextInt(rowsPerCategory - pageSize);
+    }
+}
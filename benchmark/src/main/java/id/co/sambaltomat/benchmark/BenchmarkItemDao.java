@@ -0,0 +1,71 @@
+package id.co.sambaltomat.benchmark;
+
+import id.co.sambaltomat.benchmark.model.BenchmarkItem;
+import id.co.sambaltomat.core.dao.hibernate.GenericDaoHibernate;
+import ognl.OgnlException;
+import org.hibernate.Criteria;
+import org.hibernate.HibernateException;
+import org.hibernate.Session;
+import org.hibernate.criterion.Criterion;
+import org.hibernate.criterion.ProjectionList;
+import org.hibernate.criterion.Projections;
+import org.springframework.orm.hibernate3.HibernateCallback;
+
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * DAO {@link BenchmarkItem} yang membuka recursiveInitialize untuk diukur terpisah dari query halaman
+ */
+public class BenchmarkItemDao extends GenericDaoHibernate<BenchmarkItem, Long> {
+
+    public BenchmarkItemDao() {
+        super(BenchmarkItem.class);
+    }
+
+    /**
+     * Initialize join path FETCH_MODE_SELECT untuk entity yang sudah di-load di session aktif
+     */
+    public void initialize(final List<BenchmarkItem> items, final List<JoinPath> joinPaths) {
+        getHibernateTemplate().execute(new HibernateCallback() {
+            public Object doInHibernate(Session session) throws HibernateException, SQLException {
+                try {
+                    recursiveInitialize(session, joinPaths, items);
+                } catch (OgnlException e) {
+                    throw new RuntimeException(e.getMessage());
+                }
+                return null;
+            }
+        });
+    }
+
+    /**
+     * recursiveInitialize tanpa session, untuk entity yang relasinya sudah ter-initialize
+     * (hanya menelusuri join path, tanpa query)
+     */
+    public void initializeDetached(List<BenchmarkItem> items, List<JoinPath> joinPaths) {
+        try {
+            recursiveInitialize(null, joinPaths, items);
+        } catch (OgnlException e) {
+            throw new RuntimeException(e.getMessage());
+        }
+    }
+
+    /**
+     * getRowCount dengan GROUPING_FIELD memakai {@link ReflectiveCountQuery} (baseline sebelum CountQueryCompiler)
+     */
+    public int getGroupedRowCountReflective(final List<Criterion> params, final List<JoinPath> joinPaths) {
+        return (Integer) getHibernateTemplate().execute(new HibernateCallback() {
+            public Object doInHibernate(Session session) throws HibernateException, SQLException {
+                ProjectionList projectionList = Projections.projectionList();
+                Criteria criteria = session.createCriteria(persistentClass);
+                processJoinPath(criteria, joinPaths, projectionList);
+                for (Criterion criterion : params) {
+                    criteria.add(criterion);
+                }
+                criteria.setProjection(projectionList);
+                return ReflectiveCountQuery.count(session, criteria);
+            }
+        });
+    }
+}
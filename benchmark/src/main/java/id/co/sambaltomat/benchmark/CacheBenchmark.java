@@ -0,0 +1,67 @@
+package id.co.sambaltomat.benchmark;
+
+import id.co.sambaltomat.model.TestModel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * get(PK) TestModel untuk working set <code>hotKeys</code> id melalui tiga jalur cache:
+ * <ul>
+ * <li>secondLevelCache: GenericDaoHibernate tanpa cache tambahan, entity diambil dari region ehcache</li>
+ * <li>nearCache: testModelManager dengan NearCache (TinyLFU) di depan second-level cache</li>
+ * <li>offHeapCache: GenericDaoHibernate dengan OffHeapEntityCache (entity ter-serialize di direct buffer, hasil selalu detached)</li>
+ * </ul>
+ * secondLevelCache dan nearCache sama-sama menghasilkan entity managed di session transaksi get: near cache menyimpan
+ * state hasil disassemble dan memasangnya kembali ke session seperti hit second-level cache, sehingga selisih keduanya
+ * hanya biaya lookup region ehcache (lock, copy CacheEntry) dibanding lookup NearCache.
+ * Bandingkan keduanya saja dengan:
+ * <pre>
+ *      java -jar target/benchmarks.jar "CacheBenchmark.(secondLevelCache|nearCache)" -p hotKeys=100,1000 -prof gc
+ * </pre>
+ * Dijalankan dengan beberapa thread untuk melihat contention. Bandingkan juga gc.alloc.rate.norm dari <code>-prof gc</code>.
+ * Pause GC (off-heap vs on-heap) diukur dengan {@link GcPauseProfiler} pada working set besar dan heap terbatas,
+ * sehingga entity yang di-cache on-heap ikut ditelusuri setiap full GC.
+ * <pre>
+ *      java -jar target/benchmarks.jar CacheBenchmark -p hotKeys=100,1000,10000 -prof gc
+ *      java -jar target/benchmarks.jar CacheBenchmark -prof id.co.sambaltomat.benchmark.GcPauseProfiler \
+ *          -jvmArgsAppend "-Xmx512m -XX:+UseParallelGC" -p rows=200000 -p hotKeys=200000
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(4)
+@Fork(value = 1, jvmArgsAppend = "-Dlog4j.configuration=benchmark-log4j.xml")
+public class CacheBenchmark {
+
+    @Param("1000")
+    public int hotKeys;
+
+    @Benchmark
+    public TestModel secondLevelCache(BenchmarkContext context) {
+        return context.testModelDaoManager.get(context.randomHotTestModelId(hotKeys));
+    }
+
+    @Benchmark
+    public TestModel nearCache(BenchmarkContext context) {
+        return context.testModelManager.get(context.randomHotTestModelId(hotKeys));
+    }
+
+    @Benchmark
+    public TestModel offHeapCache(BenchmarkContext context) {
+        return context.offHeapTestModelManager.get(context.randomHotTestModelId(hotKeys));
+    }
+}
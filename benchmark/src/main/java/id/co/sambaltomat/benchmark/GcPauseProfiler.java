@@ -0,0 +1,83 @@
+package id.co.sambaltomat.benchmark;
+
+import com.sun.management.GarbageCollectionNotificationInfo;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.infra.IterationParams;
+import org.openjdk.jmh.profile.InternalProfiler;
+import org.openjdk.jmh.results.AggregationPolicy;
+import org.openjdk.jmh.results.IterationResult;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.ScalarResult;
+
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Profiler JMH untuk durasi pause GC per iterasi, pelengkap <code>-prof gc</code> yang hanya memberi
+ * allocation rate. Durasi diambil dari notifikasi GarbageCollectorMXBean (satu notifikasi per koleksi):
+ * <ul>
+ * <li>gc.pause.total : jumlah durasi koleksi selama iterasi (ms)</li>
+ * <li>gc.pause.max : koleksi terlama (ms)</li>
+ * <li>gc.pause.count : jumlah koleksi</li>
+ * </ul>
+ * Untuk Serial/Parallel GC durasi koleksi sama dengan pause. Fase concurrent CMS/G1 (remark, cleanup)
+ * tidak dilaporkan lewat MXBean; untuk collector tersebut tambahkan <code>-XX:+PrintGCApplicationStoppedTime</code>.
+ * <pre>
+ *      java -jar target/benchmarks.jar CacheBenchmark -prof id.co.sambaltomat.benchmark.GcPauseProfiler \
+ *          -jvmArgsAppend "-Xmx512m -XX:+UseParallelGC" -p rows=200000 -p hotKeys=200000
+ * </pre>
+ */
+public class GcPauseProfiler implements InternalProfiler {
+    private final AtomicLong totalMillis = new AtomicLong();
+    private final AtomicLong maxMillis = new AtomicLong();
+    private final AtomicLong count = new AtomicLong();
+    private boolean registered;
+
+    private final NotificationListener listener = new NotificationListener() {
+        public void handleNotification(Notification notification, Object handback) {
+            if (!GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION.equals(notification.getType()))
+                return;
+            GarbageCollectionNotificationInfo info =
+                    GarbageCollectionNotificationInfo.from((CompositeData) notification.getUserData());
+            long duration = info.getGcInfo().getDuration();
+            totalMillis.addAndGet(duration);
+            count.incrementAndGet();
+            long max;
+            while (duration > (max = maxMillis.get()) && !maxMillis.compareAndSet(max, duration)) {
+                //ulangi sampai max ter-update
+            }
+        }
+    };
+
+    public String getDescription() {
+        return "Durasi pause GC per iterasi (GarbageCollectorMXBean notification)";
+    }
+
+    public void beforeIteration(BenchmarkParams benchmarkParams, IterationParams iterationParams) {
+        if (!registered) {
+            for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+                if (gc instanceof NotificationEmitter)
+                    ((NotificationEmitter) gc).addNotificationListener(listener, null, null);
+            }
+            registered = true;
+        }
+        totalMillis.set(0);
+        maxMillis.set(0);
+        count.set(0);
+    }
+
+    public Collection<? extends Result> afterIteration(BenchmarkParams benchmarkParams, IterationParams iterationParams,
+                                                       IterationResult result) {
+        return Arrays.asList(
+                new ScalarResult("gc.pause.total", totalMillis.get(), "ms", AggregationPolicy.AVG),
+                new ScalarResult("gc.pause.max", maxMillis.get(), "ms", AggregationPolicy.MAX),
+                new ScalarResult("gc.pause.count", count.get(), "counts", AggregationPolicy.AVG));
+    }
+}
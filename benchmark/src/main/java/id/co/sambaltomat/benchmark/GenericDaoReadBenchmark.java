@@ -0,0 +1,138 @@
+package id.co.sambaltomat.benchmark;
+
+import id.co.sambaltomat.benchmark.model.BenchmarkItem;
+import id.co.sambaltomat.core.dao.GenericDao;
+import id.co.sambaltomat.core.model.SearchCriteria;
+import id.co.sambaltomat.model.TestModel;
+import org.hibernate.criterion.Criterion;
+import org.hibernate.criterion.Order;
+import org.hibernate.criterion.Restrictions;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Operasi baca GenericDaoHibernate lewat manager (transaksi read-only dari AOP, metrics interceptor dan
+ * RecordingDataSource ikut terukur, sama seperti di aplikasi).
+ * <pre>
+ *      java -jar target/benchmarks.jar GenericDaoReadBenchmark -prof gc
+ * </pre>
+ * Throughput dalam operasi/ms, SampleTime memberi distribusi latency (p50, p99, p99.99),
+ * profiler gc memberi allocation rate (gc.alloc.rate.norm = byte per operasi).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Dlog4j.configuration=benchmark-log4j.xml")
+public class GenericDaoReadBenchmark {
+
+    @Param("20")
+    public int pageSize;
+
+    private List<GenericDao.JoinPath> joinPaths;
+    private List<GenericDao.JoinPath> groupingJoinPaths;
+    private List<GenericDao.JoinPath> initializeJoinPaths;
+    private Order[] orders;
+
+    public GenericDaoReadBenchmark() {
+        joinPaths = Arrays.asList(
+                new GenericDao.JoinPath("testModel", "tm", GenericDao.JoinType.LEFT_JOIN),
+                new GenericDao.JoinPath("details", "details", GenericDao.JoinType.FETCH_MODE_SELECT));
+        groupingJoinPaths = Collections.singletonList(
+                new GenericDao.JoinPath(null, "category", GenericDao.JoinType.GROUPING_FIELD));
+        initializeJoinPaths = Arrays.asList(
+                new GenericDao.JoinPath("testModel", "tm", GenericDao.JoinType.FETCH_MODE_SELECT),
+                new GenericDao.JoinPath("details", "details", GenericDao.JoinType.FETCH_MODE_SELECT));
+        orders = new Order[]{Order.asc("id")};
+    }
+
+    @Benchmark
+    public TestModel get(BenchmarkContext context) {
+        return context.testModelDaoManager.get(context.randomTestModelId());
+    }
+
+    @Benchmark
+    public boolean exists(BenchmarkContext context) {
+        return context.testModelDaoManager.exists(context.randomTestModelId());
+    }
+
+    @Benchmark
+    public List<BenchmarkItem> getSinglePage(BenchmarkContext context) {
+        return context.benchmarkItemManager.getSinglePage(context.randomOffset(pageSize), pageSize,
+                categoryCriteria(context), orders);
+    }
+
+    /**
+     * Left join ke TestModel untuk filter, details di-initialize per halaman (FETCH_MODE_SELECT)
+     */
+    @Benchmark
+    public List<BenchmarkItem> getSinglePageWithJoinPaths(BenchmarkContext context) {
+        List<Criterion> params = categoryCriteria(context);
+        params.add(Restrictions.like("tm.helloModel", "seed%"));
+        return context.benchmarkItemManager.getSinglePage(context.randomOffset(pageSize), pageSize,
+                joinPaths, params, orders);
+    }
+
+    @Benchmark
+    public int getRowCount(BenchmarkContext context) {
+        return context.benchmarkItemManager.getRowCount(categoryCriteria(context));
+    }
+
+    /**
+     * Jumlah group (kategori) dengan amount di atas nilai acak
+     */
+    @Benchmark
+    public int getRowCountGrouped(BenchmarkContext context) {
+        List<Criterion> params = new ArrayList<Criterion>();
+        params.add(Restrictions.ge("amount", (long) ThreadLocalRandom.current().nextInt(context.rows)));
+        return context.benchmarkItemManager.getRowCount(params, groupingJoinPaths);
+    }
+
+    @Benchmark
+    public List<BenchmarkItem> searchByCriteria(BenchmarkContext context) {
+        SearchCriteria searchCriteria = SearchCriteria.createSearchCriteria("benchmarkItem.testModel");
+        searchCriteria.addCriterion(Restrictions.eq("category", context.randomCategory()));
+        searchCriteria.addCriterion(Restrictions.like("helloModel", "seed%"), "testModel");
+        searchCriteria.addOrder(Order.asc("id"));
+        return context.benchmarkItemManager.searchByCriteria(searchCriteria, context.randomOffset(pageSize), pageSize);
+    }
+
+    /**
+     * Load satu halaman lalu initialize testModel dan details (batch <code>in (...)</code> per level)
+     */
+    @Benchmark
+    public List<BenchmarkItem> recursiveInitialize(final BenchmarkContext context) {
+        return context.readOnlyTransaction.execute(new TransactionCallback<List<BenchmarkItem>>() {
+            public List<BenchmarkItem> doInTransaction(TransactionStatus status) {
+                List<BenchmarkItem> items = context.benchmarkItemDao.getSinglePage(context.randomOffset(pageSize),
+                        pageSize, categoryCriteria(context), orders);
+                context.benchmarkItemDao.initialize(items, initializeJoinPaths);
+                return items;
+            }
+        });
+    }
+
+    private static List<Criterion> categoryCriteria(BenchmarkContext context) {
+        List<Criterion> params = new ArrayList<Criterion>();
+        params.add(Restrictions.eq("category", context.randomCategory()));
+        return params;
+    }
+}
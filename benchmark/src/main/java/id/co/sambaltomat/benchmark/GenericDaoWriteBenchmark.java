@@ -0,0 +1,227 @@
+package id.co.sambaltomat.benchmark;
+
+import id.co.sambaltomat.benchmark.model.IdentityModel;
+import id.co.sambaltomat.core.dao.GenericDao;
+import id.co.sambaltomat.core.model.SearchCriteria;
+import id.co.sambaltomat.model.TestModel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionCallbackWithoutResult;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Operasi tulis GenericDaoHibernate, termasuk perbandingan:
+ * <ul>
+ * <li>id dari PooledTableIdGenerator (TestModel, bisa di-batch JDBC) vs IDENTITY (IdentityModel, insert satu per satu)</li>
+ * <li>insertAll stateful (session, first-level cache, flush per batchSize) vs BulkDao.insert (StatelessSession)</li>
+ * <li>update entity detached yang lengkap (row hasil seed): save (merge, select sebelum update) vs
+ * saveOrUpdate (reattach tanpa select)</li>
+ * <li>update, delete dan scroll stateful (saveAll, removeAll, stream) vs BulkDao (StatelessSession)</li>
+ * </ul>
+ * Row yang ditulis dihapus setiap akhir iterasi agar ukuran tabel tetap sama antar iterasi. deleteStateful dan
+ * deleteStateless terlebih dahulu meng-insert row yang akan didelete dengan BulkDao.insert (sama untuk keduanya),
+ * kurangi dengan hasil insertStateless untuk melihat biaya delete saja.
+ * Perbedaan alokasi per operasi (snapshot, EntityEntry, merge) terlihat di gc.alloc.rate.norm dari <code>-prof gc</code>.
+ * <pre>
+ *      java -jar target/benchmarks.jar GenericDaoWriteBenchmark -p batchSize=1,100,1000 -prof gc
+ *      java -jar target/benchmarks.jar "GenericDaoWriteBenchmark.update.*"
+ *      java -jar target/benchmarks.jar "GenericDaoWriteBenchmark.(update|delete|scroll)State.*" -p rows=100000 -prof gc
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Dlog4j.configuration=benchmark-log4j.xml")
+public class GenericDaoWriteBenchmark {
+
+    /**
+     * Jumlah object per pemanggilan saveAll/insertAll/insert
+     */
+    @Param("100")
+    public int batchSize;
+
+    @Benchmark
+    public TestModel save(BenchmarkContext context) {
+        return context.testModelDaoManager.save(newTestModel());
+    }
+
+    @Benchmark
+    public TestModel updateMerge(BenchmarkContext context) {
+        return context.testModelDaoManager.save(detachedTestModel(context));
+    }
+
+    @Benchmark
+    public TestModel updateSaveOrUpdate(BenchmarkContext context) {
+        return context.testModelDaoManager.saveOrUpdate(detachedTestModel(context));
+    }
+
+    @Benchmark
+    public List<TestModel> saveAll(BenchmarkContext context) {
+        return context.testModelDaoManager.saveAll(newTestModels());
+    }
+
+    @Benchmark
+    public List<TestModel> insertAllPooledId(BenchmarkContext context) {
+        return context.testModelDaoManager.insertAll(newTestModels());
+    }
+
+    @Benchmark
+    public List<IdentityModel> insertAllIdentityId(BenchmarkContext context) {
+        List<IdentityModel> objects = new ArrayList<IdentityModel>(batchSize);
+        for (int i = 0; i < batchSize; i++) {
+            IdentityModel object = new IdentityModel();
+            object.setHelloModel("identity-" + i);
+            objects.add(object);
+        }
+        return context.identityModelManager.insertAll(objects);
+    }
+
+    @Benchmark
+    public int insertStateless(final BenchmarkContext context) {
+        final List<TestModel> objects = newTestModels();
+        return context.readWriteTransaction.execute(new TransactionCallback<Integer>() {
+            public Integer doInTransaction(TransactionStatus status) {
+                return context.testModelBulkDao.insert(objects);
+            }
+        });
+    }
+
+    @Benchmark
+    public List<TestModel> updateStateful(BenchmarkContext context) {
+        return context.testModelDaoManager.saveAll(detachedTestModels(context));
+    }
+
+    @Benchmark
+    public int updateStateless(final BenchmarkContext context) {
+        final List<TestModel> objects = detachedTestModels(context);
+        return context.readWriteTransaction.execute(new TransactionCallback<Integer>() {
+            public Integer doInTransaction(TransactionStatus status) {
+                return context.testModelBulkDao.update(objects);
+            }
+        });
+    }
+
+    @Benchmark
+    public int deleteStateful(BenchmarkContext context) {
+        List<TestModel> objects = insertTestModels(context);
+        List<Long> ids = new ArrayList<Long>(objects.size());
+        for (TestModel object : objects) {
+            ids.add(object.getId());
+        }
+        return context.testModelDaoManager.removeAll(ids);
+    }
+
+    @Benchmark
+    public int deleteStateless(final BenchmarkContext context) {
+        final List<TestModel> objects = insertTestModels(context);
+        return context.readWriteTransaction.execute(new TransactionCallback<Integer>() {
+            public Integer doInTransaction(TransactionStatus status) {
+                return context.testModelBulkDao.delete(objects);
+            }
+        });
+    }
+
+    /**
+     * Baca semua row TestModel lewat session transaksi, entity di-evict setelah diproses
+     */
+    @Benchmark
+    public int scrollStateful(BenchmarkContext context, final Blackhole blackhole) {
+        return context.testModelDaoManager.stream(null, new GenericDao.RowHandler<TestModel>() {
+            public void handleRow(TestModel row) {
+                blackhole.consume(row);
+            }
+        });
+    }
+
+    @Benchmark
+    public int scrollStateless(final BenchmarkContext context, final Blackhole blackhole) {
+        return context.readOnlyTransaction.execute(new TransactionCallback<Integer>() {
+            public Integer doInTransaction(TransactionStatus status) {
+                return context.testModelBulkDao.scroll((SearchCriteria) null, new GenericDao.RowHandler<TestModel>() {
+                    public void handleRow(TestModel row) {
+                        blackhole.consume(row);
+                    }
+                });
+            }
+        });
+    }
+
+    @TearDown(Level.Iteration)
+    public void deleteWrittenRows(final BenchmarkContext context) {
+        context.readWriteTransaction.execute(new TransactionCallbackWithoutResult() {
+            protected void doInTransactionWithoutResult(TransactionStatus status) {
+                context.sessionFactory.getCurrentSession()
+                        .createQuery("delete from TestModel where id > :id")
+                        .setLong("id", context.getMaxSeededTestModelId())
+                        .executeUpdate();
+                context.sessionFactory.getCurrentSession()
+                        .createQuery("delete from IdentityModel")
+                        .executeUpdate();
+            }
+        });
+    }
+
+    /**
+     * Insert batchSize TestModel baru dengan BulkDao, id terisi setelah insert
+     */
+    private List<TestModel> insertTestModels(final BenchmarkContext context) {
+        final List<TestModel> objects = newTestModels();
+        context.readWriteTransaction.execute(new TransactionCallbackWithoutResult() {
+            protected void doInTransactionWithoutResult(TransactionStatus status) {
+                context.testModelBulkDao.insert(objects);
+            }
+        });
+        return objects;
+    }
+
+    private List<TestModel> detachedTestModels(BenchmarkContext context) {
+        List<TestModel> objects = new ArrayList<TestModel>(batchSize);
+        for (int i = 0; i < batchSize; i++) {
+            objects.add(detachedTestModel(context));
+        }
+        return objects;
+    }
+
+    private List<TestModel> newTestModels() {
+        List<TestModel> objects = new ArrayList<TestModel>(batchSize);
+        for (int i = 0; i < batchSize; i++) {
+            objects.add(newTestModel());
+        }
+        return objects;
+    }
+
+    /**
+     * Entity detached dengan semua kolom terisi untuk row hasil seed, nilai tetap berawalan "seed"
+     */
+    private static TestModel detachedTestModel(BenchmarkContext context) {
+        TestModel testModel = new TestModel();
+        testModel.setId(context.randomTestModelId());
+        testModel.setHelloModel("seed-updated-" + ThreadLocalRandom.current().nextInt(1000));
+        return testModel;
+    }
+
+    private static TestModel newTestModel() {
+        TestModel testModel = new TestModel();
+        testModel.setHelloModel("write");
+        return testModel;
+    }
+}
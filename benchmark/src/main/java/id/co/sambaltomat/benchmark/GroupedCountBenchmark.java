@@ -0,0 +1,68 @@
+package id.co.sambaltomat.benchmark;
+
+import id.co.sambaltomat.core.dao.GenericDao;
+import org.hibernate.criterion.Criterion;
+import org.hibernate.criterion.Restrictions;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency getRowCount dengan GROUPING_FIELD: SQL count di-cache per bentuk criteria (CountQueryCompiler, compiled)
+ * dibandingkan generate CriteriaLoader + reflection setiap pemanggilan ({@link ReflectiveCountQuery}, reflective).
+ * Keduanya langsung ke DAO di transaksi read-only yang sama.
+ * <pre>
+ *      java -jar target/benchmarks.jar GroupedCountBenchmark -prof gc
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Dlog4j.configuration=benchmark-log4j.xml")
+public class GroupedCountBenchmark {
+
+    private final List<GenericDao.JoinPath> groupingJoinPaths = Collections.singletonList(
+            new GenericDao.JoinPath(null, "category", GenericDao.JoinType.GROUPING_FIELD));
+
+    @Benchmark
+    public int compiled(final BenchmarkContext context) {
+        final List<Criterion> params = amountCriteria(context);
+        return context.readOnlyTransaction.execute(new TransactionCallback<Integer>() {
+            public Integer doInTransaction(TransactionStatus status) {
+                return context.benchmarkItemDao.getRowCount(params, groupingJoinPaths);
+            }
+        });
+    }
+
+    @Benchmark
+    public int reflective(final BenchmarkContext context) {
+        final List<Criterion> params = amountCriteria(context);
+        return context.readOnlyTransaction.execute(new TransactionCallback<Integer>() {
+            public Integer doInTransaction(TransactionStatus status) {
+                return context.benchmarkItemDao.getGroupedRowCountReflective(params, groupingJoinPaths);
+            }
+        });
+    }
+
+    private static List<Criterion> amountCriteria(BenchmarkContext context) {
+        List<Criterion> params = new ArrayList<Criterion>();
+        params.add(Restrictions.ge("amount", (long) ThreadLocalRandom.current().nextInt(context.rows)));
+        return params;
+    }
+}
@@ -0,0 +1,111 @@
+package id.co.sambaltomat.benchmark;
+
+import id.co.sambaltomat.benchmark.model.BenchmarkItem;
+import id.co.sambaltomat.core.dao.GenericDao;
+import id.co.sambaltomat.core.dao.hibernate.BatchInitializer;
+import org.hibernate.criterion.Criterion;
+import org.hibernate.criterion.Order;
+import org.hibernate.criterion.Restrictions;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * recursiveInitialize dengan JoinPathInitializationPlan (compiledPlan) dibandingkan implementasi OGNL
+ * sebelumnya ({@link OgnlJoinPathInitializer}, baseline ognl).
+ * <ul>
+ * <li>compiledPlan / ognl: halaman item yang relasinya sudah ter-initialize, tanpa session, sehingga yang
+ * terukur hanya penyusunan tree join path dan pembacaan property (tanpa query)</li>
+ * <li>compiledPlanWithQueries / ognlWithQueries: load halaman lalu initialize di transaksi read-only
+ * (query batch <code>in (...)</code> ikut terukur)</li>
+ * </ul>
+ * <pre>
+ *      java -jar target/benchmarks.jar JoinPathInitializeBenchmark -p pageSize=20,500 -prof gc
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Dlog4j.configuration=benchmark-log4j.xml")
+public class JoinPathInitializeBenchmark {
+
+    @Param("100")
+    public int pageSize;
+
+    private final List<GenericDao.JoinPath> joinPaths = Arrays.asList(
+            new GenericDao.JoinPath("testModel", "tm", GenericDao.JoinType.FETCH_MODE_SELECT),
+            new GenericDao.JoinPath("details", "details", GenericDao.JoinType.FETCH_MODE_SELECT));
+    private final Order[] orders = new Order[]{Order.asc("id")};
+    private final OgnlJoinPathInitializer ognlInitializer = new OgnlJoinPathInitializer(new BatchInitializer(500));
+
+    private List<BenchmarkItem> initializedItems;
+
+    @Setup(Level.Trial)
+    public void loadInitializedItems(final BenchmarkContext context) {
+        initializedItems = context.readOnlyTransaction.execute(new TransactionCallback<List<BenchmarkItem>>() {
+            public List<BenchmarkItem> doInTransaction(TransactionStatus status) {
+                List<BenchmarkItem> items = loadPage(context);
+                context.benchmarkItemDao.initialize(items, joinPaths);
+                return items;
+            }
+        });
+    }
+
+    @Benchmark
+    public List<BenchmarkItem> compiledPlan(BenchmarkContext context) {
+        context.benchmarkItemDao.initializeDetached(initializedItems, joinPaths);
+        return initializedItems;
+    }
+
+    @Benchmark
+    public List<BenchmarkItem> ognl() {
+        ognlInitializer.initialize(null, joinPaths, initializedItems);
+        return initializedItems;
+    }
+
+    @Benchmark
+    public List<BenchmarkItem> compiledPlanWithQueries(final BenchmarkContext context) {
+        return context.readOnlyTransaction.execute(new TransactionCallback<List<BenchmarkItem>>() {
+            public List<BenchmarkItem> doInTransaction(TransactionStatus status) {
+                List<BenchmarkItem> items = loadPage(context);
+                context.benchmarkItemDao.initialize(items, joinPaths);
+                return items;
+            }
+        });
+    }
+
+    @Benchmark
+    public List<BenchmarkItem> ognlWithQueries(final BenchmarkContext context) {
+        return context.readOnlyTransaction.execute(new TransactionCallback<List<BenchmarkItem>>() {
+            public List<BenchmarkItem> doInTransaction(TransactionStatus status) {
+                List<BenchmarkItem> items = loadPage(context);
+                ognlInitializer.initialize(context.sessionFactory.getCurrentSession(), joinPaths, items);
+                return items;
+            }
+        });
+    }
+
+    private List<BenchmarkItem> loadPage(BenchmarkContext context) {
+        List<Criterion> params = new ArrayList<Criterion>();
+        params.add(Restrictions.eq("category", context.randomCategory()));
+        return context.benchmarkItemDao.getSinglePage(context.randomOffset(pageSize), pageSize, params, orders);
+    }
+}
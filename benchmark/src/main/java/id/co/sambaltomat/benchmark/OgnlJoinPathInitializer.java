@@ -0,0 +1,118 @@
+package id.co.sambaltomat.benchmark;
+
+import id.co.sambaltomat.core.dao.GenericDao.JoinPath;
+import id.co.sambaltomat.core.dao.GenericDao.JoinType;
+import id.co.sambaltomat.core.dao.hibernate.BatchInitializer;
+import ognl.Ognl;
+import org.apache.commons.lang.StringUtils;
+import org.hibernate.Session;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Implementasi referensi recursiveInitialize sebelum JoinPathInitializationPlan: tree join path disusun
+ * ulang dari map pada setiap pemanggilan dan nilai property dibaca dengan Ognl.getValue per parent.
+ * Hanya dipakai sebagai baseline di {@link JoinPathInitializeBenchmark}.
+ */
+public class OgnlJoinPathInitializer {
+    private final BatchInitializer batchInitializer;
+
+    public OgnlJoinPathInitializer(BatchInitializer batchInitializer) {
+        this.batchInitializer = batchInitializer;
+    }
+
+    @SuppressWarnings("unchecked")
+    public void initialize(Session session, List<JoinPath> joinPaths, Object rootObj) {
+        Map<String, Object> joinPathMap = new HashMap<String, Object>();
+        Map<String, Object> flatIndex = new HashMap<String, Object>();
+        Map<String, Object> parentMap = new HashMap<String, Object>();
+        parentMap.put("alias", "this");
+        parentMap.put("joinType", JoinType.LEFT_JOIN);
+        joinPathMap.put("this", parentMap);
+        flatIndex.put("this", parentMap);
+
+        for (JoinPath joinPath : joinPaths) {
+            if (StringUtils.isBlank(joinPath.alias))
+                continue;
+            Map<String, Object> mapMember = new HashMap<String, Object>();
+            mapMember.put("joinType", joinPath.joinType);
+            if (flatIndex.get(joinPath.alias) != null)
+                throw new RuntimeException("Alias dari Join Path :" + joinPath.alias + " terdefinisi lebih dari sekali");
+            flatIndex.put(joinPath.alias, mapMember);
+        }
+        for (JoinPath joinPath : joinPaths) {
+            String[] pathArray = joinPath.path.split("[.]");
+            String parent = pathArray.length > 1 ? pathArray[0] : "this";
+            String property = pathArray.length > 1 ? pathArray[1] : pathArray[0];
+            Map mapParent = (Map) flatIndex.get(parent);
+            if (mapParent == null)
+                continue;
+            Map mapChild = (Map) flatIndex.get(StringUtils.isNotBlank(joinPath.alias) ? joinPath.alias : property);
+            mapParent.put(property, mapChild);
+        }
+        if (cleanUp((Map<String, Object>) joinPathMap.get("this"))) {
+            List<Object> rootList = new ArrayList<Object>();
+            if (rootObj instanceof Collection)
+                rootList.addAll((Collection) rootObj);
+            else
+                rootList.add(rootObj);
+            levelInitialize(session, (Map<String, Object>) joinPathMap.get("this"), rootList);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private boolean cleanUp(Map<String, Object> joinPathMap) {
+        if (joinPathMap == null)
+            return false;
+        List<String> deletedList = new ArrayList<String>();
+        boolean returnValue = JoinType.FETCH_MODE_SELECT.equals(joinPathMap.get("joinType"));
+        for (String key : joinPathMap.keySet()) {
+            if (key.equals("alias") || key.equals("joinType"))
+                continue;
+            if (!cleanUp((Map<String, Object>) joinPathMap.get(key)))
+                deletedList.add(key);
+            else
+                returnValue = true;
+        }
+        for (String key : deletedList) {
+            joinPathMap.remove(key);
+        }
+        return returnValue;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void levelInitialize(Session session, Map<String, Object> joinPath, List<Object> parents) {
+        for (String key : joinPath.keySet()) {
+            if (key.equals("alias") || key.equals("joinType"))
+                continue;
+            List<Object> values = new ArrayList<Object>();
+            for (Object parentObject : parents) {
+                if (parentObject == null)
+                    continue;
+                try {
+                    Object prop = Ognl.getValue(key, parentObject);
+                    if (prop != null)
+                        values.add(prop);
+                } catch (Exception e) {
+                    //not error
+                }
+            }
+            if (values.isEmpty())
+                continue;
+            batchInitializer.initialize(session, values);
+
+            List<Object> children = new ArrayList<Object>();
+            for (Object value : values) {
+                if (value instanceof Collection)
+                    children.addAll((Collection) value);
+                else
+                    children.add(value);
+            }
+            levelInitialize(session, (Map<String, Object>) joinPath.get(key), children);
+        }
+    }
+}
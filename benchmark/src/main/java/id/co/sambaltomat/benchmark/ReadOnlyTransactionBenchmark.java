@@ -0,0 +1,97 @@
+package id.co.sambaltomat.benchmark;
+
+import id.co.sambaltomat.benchmark.model.BenchmarkItem;
+import org.hibernate.criterion.Criterion;
+import org.hibernate.criterion.Order;
+import org.hibernate.criterion.Restrictions;
+import org.hibernate.stat.Statistics;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionCallbackWithoutResult;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Load satu halaman entity di transaksi read-only vs read-write. Pada transaksi read-only
+ * (ReadOnlyHibernateTransactionManager + ReadOnlyPostLoadEventListener) entity tidak menyimpan snapshot
+ * dan session tidak di-flush, sehingga alokasi dan waktu commit lebih kecil.
+ * <p/>
+ * Sebelum benchmark dijalankan diperiksa bahwa perubahan entity di dalam transaksi read-only
+ * tidak menghasilkan UPDATE (Hibernate Statistics entityUpdateCount tetap 0).
+ * <pre>
+ *      java -jar target/benchmarks.jar ReadOnlyTransactionBenchmark -p pageSize=20,500 -prof gc
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Dlog4j.configuration=benchmark-log4j.xml")
+public class ReadOnlyTransactionBenchmark {
+
+    @Param("100")
+    public int pageSize;
+
+    private final Order[] orders = new Order[]{Order.asc("id")};
+
+    @Setup(Level.Trial)
+    public void verifyNoUpdateInReadOnlyTransaction(final BenchmarkContext context) {
+        Statistics statistics = context.sessionFactory.getStatistics();
+        boolean enabled = statistics.isStatisticsEnabled();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+        try {
+            context.readOnlyTransaction.execute(new TransactionCallbackWithoutResult() {
+                protected void doInTransactionWithoutResult(TransactionStatus status) {
+                    for (BenchmarkItem item : loadPage(context)) {
+                        item.setName(item.getName() + "-modified");
+                    }
+                }
+            });
+            if (statistics.getEntityUpdateCount() != 0)
+                throw new IllegalStateException("Transaksi read-only menghasilkan " + statistics.getEntityUpdateCount() + " UPDATE");
+        } finally {
+            statistics.setStatisticsEnabled(enabled);
+        }
+    }
+
+    @Benchmark
+    public List<BenchmarkItem> readOnly(BenchmarkContext context) {
+        return loadPageIn(context.readOnlyTransaction, context);
+    }
+
+    @Benchmark
+    public List<BenchmarkItem> readWrite(BenchmarkContext context) {
+        return loadPageIn(context.readWriteTransaction, context);
+    }
+
+    private List<BenchmarkItem> loadPageIn(TransactionTemplate transaction, final BenchmarkContext context) {
+        return transaction.execute(new TransactionCallback<List<BenchmarkItem>>() {
+            public List<BenchmarkItem> doInTransaction(TransactionStatus status) {
+                return loadPage(context);
+            }
+        });
+    }
+
+    private List<BenchmarkItem> loadPage(BenchmarkContext context) {
+        List<Criterion> params = new ArrayList<Criterion>();
+        params.add(Restrictions.eq("category", context.randomCategory()));
+        return context.benchmarkItemDao.getSinglePage(context.randomOffset(pageSize), pageSize, params, orders);
+    }
+}
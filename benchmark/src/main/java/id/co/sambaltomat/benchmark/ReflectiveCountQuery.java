@@ -0,0 +1,58 @@
+package id.co.sambaltomat.benchmark;
+
+import org.hibernate.Criteria;
+import org.hibernate.SQLQuery;
+import org.hibernate.Session;
+import org.hibernate.engine.QueryParameters;
+import org.hibernate.engine.SessionFactoryImplementor;
+import org.hibernate.engine.SessionImplementor;
+import org.hibernate.impl.CriteriaImpl;
+import org.hibernate.loader.OuterJoinLoader;
+import org.hibernate.loader.criteria.CriteriaLoader;
+import org.hibernate.loader.criteria.CriteriaQueryTranslator;
+import org.hibernate.persister.entity.OuterJoinLoadable;
+import org.hibernate.type.Type;
+
+import java.lang.reflect.Field;
+
+/**
+ * Implementasi referensi count grouped sebelum CountQueryCompiler: setiap pemanggilan membangun
+ * CriteriaLoader dan membaca <code>OuterJoinLoader.sql</code> lewat reflection. Parameter restriction
+ * di-bind (versi lama tidak melakukannya) agar hasilnya sama dan yang dibandingkan hanya biaya generate SQL.
+ * Hanya dipakai sebagai baseline di {@link GroupedCountBenchmark}.
+ */
+public final class ReflectiveCountQuery {
+
+    private ReflectiveCountQuery() {
+    }
+
+    public static int count(Session session, Criteria criteria) {
+        CriteriaImpl criteriaImpl = (CriteriaImpl) criteria;
+        SessionImplementor sessionImplementor = criteriaImpl.getSession();
+        SessionFactoryImplementor factory = sessionImplementor.getFactory();
+        String entityName = factory.getImplementors(criteriaImpl.getEntityOrClassName())[0];
+        CriteriaLoader loader = new CriteriaLoader((OuterJoinLoadable) factory.getEntityPersister(entityName),
+                factory, criteriaImpl, entityName, sessionImplementor.getEnabledFilters());
+        String sql;
+        try {
+            Field field = OuterJoinLoader.class.getDeclaredField("sql");
+            field.setAccessible(true);
+            sql = (String) field.get(loader);
+        } catch (NoSuchFieldException e) {
+            throw new IllegalStateException(e);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        }
+
+        SQLQuery sqlQuery = session.createSQLQuery("select count(*) from (" + sql + ") as countTemp");
+        QueryParameters queryParameters = new CriteriaQueryTranslator(factory, criteriaImpl, entityName,
+                CriteriaQueryTranslator.ROOT_SQL_ALIAS).getQueryParameters();
+        Object[] values = queryParameters.getPositionalParameterValues();
+        Type[] types = queryParameters.getPositionalParameterTypes();
+        for (int i = 0; i < values.length; i++) {
+            sqlQuery.setParameter(i, values[i], types[i]);
+        }
+        Object result = sqlQuery.uniqueResult();
+        return result == null ? 0 : ((Number) result).intValue();
+    }
+}
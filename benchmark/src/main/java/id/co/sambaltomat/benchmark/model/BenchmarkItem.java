@@ -0,0 +1,89 @@
+package id.co.sambaltomat.benchmark.model;
+
+import id.co.sambaltomat.model.TestModel;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+
+import javax.persistence.*;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Entity khusus benchmark dengan relasi many-to-one ke {@link TestModel} dan one-to-many ke
+ * {@link BenchmarkItemDetail}, untuk mengukur join path dan recursiveInitialize.
+ */
+@Entity
+@Table(name = "BenchmarkItem")
+public class BenchmarkItem {
+
+    @Id
+    @GeneratedValue(generator = "benchmarkItemId")
+    @GenericGenerator(name = "benchmarkItemId", strategy = "id.co.sambaltomat.core.dao.hibernate.PooledTableIdGenerator",
+            parameters = @Parameter(name = "block_size", value = "100"))
+    @Column(name = "ID")
+    private Long id;
+
+    @Column(name = "NAME")
+    private String name;
+
+    @Column(name = "CATEGORY")
+    private Integer category;
+
+    @Column(name = "AMOUNT")
+    private Long amount;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "TESTMODEL_ID")
+    private TestModel testModel;
+
+    @OneToMany(mappedBy = "item")
+    private Set<BenchmarkItemDetail> details = new HashSet<BenchmarkItemDetail>();
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public Integer getCategory() {
+        return category;
+    }
+
+    public void setCategory(Integer category) {
+        this.category = category;
+    }
+
+    public Long getAmount() {
+        return amount;
+    }
+
+    public void setAmount(Long amount) {
+        this.amount = amount;
+    }
+
+    public TestModel getTestModel() {
+        return testModel;
+    }
+
+    public void setTestModel(TestModel testModel) {
+        this.testModel = testModel;
+    }
+
+    public Set<BenchmarkItemDetail> getDetails() {
+        return details;
+    }
+
+    public void setDetails(Set<BenchmarkItemDetail> details) {
+        this.details = details;
+    }
+}
@@ -0,0 +1,52 @@
+package id.co.sambaltomat.benchmark.model;
+
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+
+import javax.persistence.*;
+
+/**
+ * Detail dari {@link BenchmarkItem}
+ */
+@Entity
+@Table(name = "BenchmarkItemDetail")
+public class BenchmarkItemDetail {
+
+    @Id
+    @GeneratedValue(generator = "benchmarkItemDetailId")
+    @GenericGenerator(name = "benchmarkItemDetailId", strategy = "id.co.sambaltomat.core.dao.hibernate.PooledTableIdGenerator",
+            parameters = @Parameter(name = "block_size", value = "100"))
+    @Column(name = "ID")
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "ITEM_ID")
+    private BenchmarkItem item;
+
+    @Column(name = "NOTE")
+    private String note;
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public BenchmarkItem getItem() {
+        return item;
+    }
+
+    public void setItem(BenchmarkItem item) {
+        this.item = item;
+    }
+
+    public String getNote() {
+        return note;
+    }
+
+    public void setNote(String note) {
+        this.note = note;
+    }
+}
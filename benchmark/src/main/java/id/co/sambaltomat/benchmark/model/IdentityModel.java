@@ -0,0 +1,36 @@
+package id.co.sambaltomat.benchmark.model;
+
+import javax.persistence.*;
+
+/**
+ * Sama dengan {@link id.co.sambaltomat.model.TestModel} tetapi memakai id IDENTITY, pembanding
+ * PooledTableIdGenerator: Hibernate harus meng-insert langsung untuk mendapat id sehingga JDBC batching tidak jalan.
+ */
+@Entity
+@Table(name = "IdentityModel")
+public class IdentityModel {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "ID")
+    private Long id;
+
+    @Column(name = "HELLOMODEL")
+    private String helloModel = "default model";
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getHelloModel() {
+        return helloModel;
+    }
+
+    public void setHelloModel(String helloModel) {
+        this.helloModel = helloModel;
+    }
+}
@@ -0,0 +1,142 @@
+package id.co.sambaltomat.controller;
+
+import id.co.sambaltomat.core.cache.QueryResultCache;
+import id.co.sambaltomat.core.dao.spring.CacheRegionStatistics;
+import id.co.sambaltomat.core.dao.spring.HibernateExtensionPostProcessor;
+import id.co.sambaltomat.core.jdbc.InstrumentedDataSource;
+import id.co.sambaltomat.core.jdbc.SlowQueryRecord;
+import id.co.sambaltomat.core.jdbc.SlowQueryRecorder;
+import id.co.sambaltomat.core.metrics.MethodMetrics;
+import id.co.sambaltomat.core.metrics.MetricsRegistry;
+import id.co.sambaltomat.core.web.StatementBudgetFilter;
+import id.co.sambaltomat.core.web.StatementBudgetReport;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
+
+import javax.servlet.ServletContext;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Map;
+
+/**
+ * Menampilkan metric latency method manager dan kondisi connection pool dalam format teks,
+ * satu baris per method:
+ * <pre>
+ * testModelManager.get/1 count=120 error=0 mean=0.412ms p50=0.380ms p99=1.900ms p999=2.100ms max=2.150ms
+ * </pre>
+ * diikuti status connection pool, counter {@link QueryResultCache} dan statistik region second-level cache.
+ * <code>/metrics?reset=true</code> mengosongkan semua histogram setelah ditampilkan.
+ * <code>/metrics/slowQueries</code> menampilkan isi ring buffer {@link SlowQueryRecorder},
+ * <code>/metrics/statementBudget</code> menampilkan jumlah statement per endpoint dari {@link StatementBudgetFilter}.
+ * Akses dibatasi oleh {@link id.co.sambaltomat.core.web.MetricsAccessFilter} (web.xml), default hanya dari localhost.
+ */
+@Controller
+public class MetricsController {
+
+    @Autowired
+    private MetricsRegistry metricsRegistry;
+
+    @Autowired(required = false)
+    private InstrumentedDataSource dataSource;
+
+    @Autowired(required = false)
+    private SlowQueryRecorder slowQueryRecorder;
+
+    @Autowired(required = false)
+    private Map<String, QueryResultCache> queryResultCaches;
+
+    @Autowired(required = false)
+    private HibernateExtensionPostProcessor hibernateExtensionPostProcessor;
+
+    @Autowired
+    private ServletContext servletContext;
+
+    @RequestMapping(value = "/metrics", method = RequestMethod.GET)
+    public void metrics(@RequestParam(value = "reset", defaultValue = "false") boolean reset,
+                        HttpServletResponse response) throws IOException {
+        response.setContentType("text/plain");
+        response.setCharacterEncoding("UTF-8");
+        PrintWriter writer = response.getWriter();
+        for (MethodMetrics metrics : metricsRegistry.getAll().values()) {
+            writer.println(metrics.getName()
+                    + " count=" + metrics.getCount()
+                    + " error=" + metrics.getErrorCount()
+                    + " mean=" + format(metrics.getMeanMillis())
+                    + " p50=" + format(metrics.getP50Millis())
+                    + " p99=" + format(metrics.getP99Millis())
+                    + " p999=" + format(metrics.getP999Millis())
+                    + " max=" + format(metrics.getMaxMillis()));
+        }
+        if (dataSource != null)
+            writer.println("dataSource " + dataSource.getPoolStatus());
+        if (queryResultCaches != null) {
+            for (Map.Entry<String, QueryResultCache> entry : queryResultCaches.entrySet()) {
+                QueryResultCache cache = entry.getValue();
+                writer.println(entry.getKey()
+                        + " hit=" + cache.getHitCount()
+                        + " miss=" + cache.getMissCount()
+                        + " hitRatio=" + String.format("%.3f", cache.getHitRatio())
+                        + " eviction=" + cache.getEvictionCount()
+                        + " invalidation=" + cache.getInvalidationCount()
+                        + " size=" + cache.getSize());
+            }
+        }
+        if (hibernateExtensionPostProcessor != null) {
+            for (CacheRegionStatistics statistics : hibernateExtensionPostProcessor.getCacheRegionStatistics()) {
+                writer.println("cacheRegion " + statistics.getRegionName()
+                        + " hit=" + statistics.getHitCount()
+                        + " miss=" + statistics.getMissCount()
+                        + " hitRatio=" + String.format("%.3f", statistics.getHitRatio())
+                        + " eviction=" + statistics.getEvictionCount()
+                        + " size=" + statistics.getSize());
+            }
+        }
+        writer.flush();
+        if (reset)
+            metricsRegistry.resetAll();
+    }
+
+    private static String format(double millis) {
+        return String.format("%.3fms", millis);
+    }
+
+    @RequestMapping(value = "/metrics/slowQueries", method = RequestMethod.GET)
+    public void slowQueries(HttpServletResponse response) throws IOException {
+        response.setContentType("text/plain");
+        response.setCharacterEncoding("UTF-8");
+        PrintWriter writer = response.getWriter();
+        if (slowQueryRecorder != null) {
+            writer.println("slow=" + slowQueryRecorder.getSlowCount()
+                    + " sampled=" + slowQueryRecorder.getSampledCount()
+                    + " dropped=" + slowQueryRecorder.getDroppedCount());
+            for (SlowQueryRecord record : slowQueryRecorder.getRecent()) {
+                writer.println(record);
+            }
+        }
+        writer.flush();
+    }
+
+    @RequestMapping(value = "/metrics/statementBudget", method = RequestMethod.GET)
+    public void statementBudget(@RequestParam(value = "reset", defaultValue = "false") boolean reset,
+                                HttpServletResponse response) throws IOException {
+        response.setContentType("text/plain");
+        response.setCharacterEncoding("UTF-8");
+        PrintWriter writer = response.getWriter();
+        StatementBudgetReport report = (StatementBudgetReport) servletContext.getAttribute(StatementBudgetFilter.REPORT_ATTRIBUTE);
+        if (report != null) {
+            for (Map.Entry<String, StatementBudgetReport.EndpointStatistics> entry : report.getEndpoints().entrySet()) {
+                StatementBudgetReport.EndpointStatistics endpoint = entry.getValue();
+                writer.println(entry.getKey() + " " + endpoint);
+                if (endpoint.getLastRepeatedSelects() != null)
+                    writer.println("    N+1 " + endpoint.getLastRepeatedSelects());
+            }
+            if (reset)
+                report.reset();
+        }
+        writer.flush();
+    }
+}
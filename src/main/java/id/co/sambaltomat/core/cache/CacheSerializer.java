@@ -0,0 +1,67 @@
+package id.co.sambaltomat.core.cache;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+
+/**
+ * Serialisasi entity untuk cache yang menyimpan salinan (OffHeapEntityCache).
+ * Hasil deserialize tidak terhubung ke session Hibernate manapun; relasi lazy yang belum di-initialize
+ * melempar LazyInitializationException, tidak me-load lewat session thread lain.
+ */
+public final class CacheSerializer {
+    private static final Log log = LogFactory.getLog(CacheSerializer.class);
+
+    private CacheSerializer() {
+    }
+
+    /**
+     * @return bentuk serialized value, atau null jika value tidak bisa di-serialize (tidak di-cache)
+     */
+    public static byte[] serialize(Object value) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+            ObjectOutputStream out = new ObjectOutputStream(bytes);
+            out.writeObject(value);
+            out.close();
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            log.warn("Gagal serialize " + value.getClass().getName() + ", tidak di-cache", e);
+            return null;
+        }
+    }
+
+    /**
+     * @return instance baru dari bytes hasil {@link #serialize(Object)}
+     */
+    public static Object deserialize(byte[] bytes) {
+        try {
+            ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes)) {
+                @Override
+                protected Class<?> resolveClass(ObjectStreamClass desc) throws IOException, ClassNotFoundException {
+                    //class entity ada di classloader aplikasi (webapp), bukan classloader JDK
+                    try {
+                        return Class.forName(desc.getName(), false, Thread.currentThread().getContextClassLoader());
+                    } catch (ClassNotFoundException e) {
+                        return super.resolveClass(desc);
+                    }
+                }
+            };
+            try {
+                return in.readObject();
+            } finally {
+                in.close();
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Gagal deserialize isi cache", e);
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException("Gagal deserialize isi cache", e);
+        }
+    }
+}
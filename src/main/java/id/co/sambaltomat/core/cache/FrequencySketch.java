@@ -0,0 +1,82 @@
+package id.co.sambaltomat.core.cache;
+
+/**
+ * Count-min sketch 4 baris untuk memperkirakan frekuensi akses key (TinyLFU).
+ * <p/>
+ * Setiap counter maksimal 15, dan setelah jumlah increment mencapai sampleSize (10 x kapasitas cache)
+ * semua counter dibagi dua, sehingga frekuensi lama perlahan dilupakan (aging).
+ * Increment tidak memakai lock; increment yang hilang karena race hanya membuat estimasi sedikit lebih kecil.
+ *
+ * @see NearCache
+ */
+class FrequencySketch {
+    private static final int MAX_COUNT = 15;
+    private static final long[] SEEDS = {0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L};
+
+    private final int[][] table;
+    private final int mask;
+    private final int sampleSize;
+    private int additions;
+
+    /**
+     * @param capacity jumlah maksimal entry cache
+     */
+    FrequencySketch(int capacity) {
+        int width = 16;
+        while (width < capacity)
+            width <<= 1;
+        table = new int[SEEDS.length][width];
+        mask = width - 1;
+        sampleSize = 10 * Math.max(capacity, 16);
+    }
+
+    void increment(Object key) {
+        int hash = spread(key.hashCode());
+        boolean added = false;
+        for (int i = 0; i < SEEDS.length; i++) {
+            int index = index(hash, i);
+            if (table[i][index] < MAX_COUNT) {
+                table[i][index]++;
+                added = true;
+            }
+        }
+        if (added && ++additions >= sampleSize)
+            reset();
+    }
+
+    /**
+     * @return perkiraan frekuensi akses key (0..15)
+     */
+    int frequency(Object key) {
+        int hash = spread(key.hashCode());
+        int frequency = MAX_COUNT;
+        for (int i = 0; i < SEEDS.length; i++) {
+            frequency = Math.min(frequency, table[i][index(hash, i)]);
+        }
+        return frequency;
+    }
+
+    private void reset() {
+        additions = 0;
+        for (int[] row : table) {
+            for (int i = 0; i < row.length; i++) {
+                row[i] >>>= 1;
+            }
+        }
+    }
+
+    private int index(int hash, int row) {
+        long h = (hash + SEEDS[row]) * SEEDS[row];
+        h += h >>> 32;
+        return (int) h & mask;
+    }
+
+    private static int spread(int hash) {
+        hash ^= hash >>> 17;
+        hash *= 0xed5ad4bb;
+        hash ^= hash >>> 11;
+        hash *= 0xac4c1b51;
+        hash ^= hash >>> 15;
+        return hash;
+    }
+}
@@ -0,0 +1,207 @@
+package id.co.sambaltomat.core.cache;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache in-process kecil untuk key yang paling sering dibaca (mis. GenericManagerImpl.get(PK)).
+ * <p/>
+ * Baca tanpa lock (ConcurrentHashMap). Saat cache penuh, key baru hanya diterima jika perkiraan frekuensinya
+ * ({@link FrequencySketch}, TinyLFU) lebih besar dari key tertua yang akan digeser; sehingga scan
+ * sekali lewat tidak membuang key yang sering dibaca. Key tertua dipilih berdasarkan urutan insert (FIFO).
+ * <p/>
+ * <p>To register this class in your Spring context file, use the following XML.
+ * <pre>
+ *      &lt;bean id="fooManager" class="id.co.sambaltomat.core.service.impl.GenericManagerImpl"&gt;
+ *          ...
+ *          &lt;property name="nearCache"&gt;
+ *              &lt;bean class="id.co.sambaltomat.core.cache.NearCache"&gt;
+ *                  &lt;constructor-arg value="1000"/&gt;
+ *              &lt;/bean&gt;
+ *          &lt;/property&gt;
+ *      &lt;/bean&gt;
+ * </pre>
+ *
+ * @param <K> key
+ * @param <V> value
+ */
+public class NearCache<K, V> {
+    private final int maximumSize;
+    private final ConcurrentHashMap<K, Node<K, V>> data;
+    private final Queue<Node<K, V>> insertionOrder = new ConcurrentLinkedQueue<Node<K, V>>();
+    private final AtomicInteger queuedNodes = new AtomicInteger();
+    private final FrequencySketch sketch;
+    private final Object evictionLock = new Object();
+    private final AtomicLong invalidationStamp = new AtomicLong();
+
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private final AtomicLong evictionCount = new AtomicLong();
+    private final AtomicLong rejectionCount = new AtomicLong();
+
+    /**
+     * @param maximumSize jumlah maksimal entry
+     */
+    public NearCache(int maximumSize) {
+        if (maximumSize <= 0)
+            throw new IllegalArgumentException("maximumSize harus lebih besar dari 0");
+        this.maximumSize = maximumSize;
+        this.data = new ConcurrentHashMap<K, Node<K, V>>(maximumSize);
+        this.sketch = new FrequencySketch(maximumSize);
+    }
+
+    /**
+     * @return value atau null jika tidak ada di cache
+     */
+    public V get(K key) {
+        sketch.increment(key);
+        Node<K, V> node = data.get(key);
+        if (node == null) {
+            missCount.incrementAndGet();
+            return null;
+        }
+        hitCount.incrementAndGet();
+        return node.value;
+    }
+
+    /**
+     * Ambil stamp sebelum membaca value dari database, lalu berikan ke {@link #put(Object, Object, long)}
+     *
+     * @return stamp invalidate saat ini
+     */
+    public long stamp() {
+        return invalidationStamp.get();
+    }
+
+    /**
+     * Simpan value jika lolos admission dan tidak ada invalidate sejak stamp diambil
+     * (value yang dibaca sebelum write tidak pernah masuk cache)
+     *
+     * @param stamp hasil {@link #stamp()} sebelum value dibaca
+     * @return true jika value disimpan
+     */
+    public boolean put(K key, V value, long stamp) {
+        if (key == null || value == null)
+            return false;
+        synchronized (evictionLock) {
+            if (stamp != invalidationStamp.get())
+                return false;
+            Node<K, V> node = new Node<K, V>(key, value);
+            Node<K, V> previous = data.get(key);
+            if (previous == null && data.size() >= maximumSize && !admit(key)) {
+                rejectionCount.incrementAndGet();
+                return false;
+            }
+            data.put(key, node);
+            insertionOrder.offer(node);
+            queuedNodes.incrementAndGet();
+            drainStaleNodes();
+            return true;
+        }
+    }
+
+    /**
+     * Buang key dari cache
+     */
+    public void invalidate(K key) {
+        if (key == null)
+            return;
+        synchronized (evictionLock) {
+            invalidationStamp.incrementAndGet();
+            data.remove(key);
+        }
+    }
+
+    public void invalidateAll() {
+        synchronized (evictionLock) {
+            invalidationStamp.incrementAndGet();
+            data.clear();
+        }
+    }
+
+    /**
+     * Bandingkan frekuensi key baru dengan key tertua, key tertua dibuang jika kalah
+     */
+    private boolean admit(K candidate) {
+        Node<K, V> victim;
+        while ((victim = insertionOrder.peek()) != null) {
+            if (data.get(victim.key) == victim)
+                break;
+            //node lama (sudah di-invalidate atau diganti)
+            insertionOrder.poll();
+            queuedNodes.decrementAndGet();
+        }
+        if (victim == null)
+            return true;
+        if (sketch.frequency(candidate) <= sketch.frequency(victim.key))
+            return false;
+        insertionOrder.poll();
+        queuedNodes.decrementAndGet();
+        data.remove(victim.key, victim);
+        evictionCount.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * Node yang sudah di-invalidate tetap ada di antrian sampai di-poll, batasi jumlahnya
+     * agar antrian tidak tumbuh terus pada key yang sering ditulis
+     */
+    private void drainStaleNodes() {
+        int limit = queuedNodes.get();
+        while (queuedNodes.get() > maximumSize && limit-- > 0) {
+            Node<K, V> node = insertionOrder.poll();
+            if (node == null)
+                break;
+            if (data.get(node.key) == node)
+                insertionOrder.offer(node);
+            else
+                queuedNodes.decrementAndGet();
+        }
+    }
+
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    public long getEvictionCount() {
+        return evictionCount.get();
+    }
+
+    /**
+     * @return jumlah value yang tidak disimpan karena frekuensinya lebih kecil dari key tertua
+     */
+    public long getRejectionCount() {
+        return rejectionCount.get();
+    }
+
+    public double getHitRatio() {
+        long hits = hitCount.get();
+        long total = hits + missCount.get();
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    public int getSize() {
+        return data.size();
+    }
+
+    public int getMaximumSize() {
+        return maximumSize;
+    }
+
+    private static class Node<K, V> {
+        final K key;
+        final V value;
+
+        Node(K key, V value) {
+            this.key = key;
+            this.value = value;
+        }
+    }
+}
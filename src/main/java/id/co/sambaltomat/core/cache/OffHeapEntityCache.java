@@ -0,0 +1,260 @@
+package id.co.sambaltomat.core.cache;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Cache entity di luar heap (direct ByteBuffer) untuk tabel referensi besar yang jarang berubah.
+ * <p/>
+ * Entity disimpan dalam bentuk serialized di buffer yang dipakai melingkar (ring log): record baru selalu
+ * ditulis setelah record terakhir, dan saat buffer penuh penulisan kembali ke awal buffer sambil membuang
+ * record lama yang tertimpa (eviction berdasarkan umur tulis, FIFO). Di heap hanya tersisa index
+ * key -&gt; (offset, length), sehingga jumlah object berumur panjang yang harus di-scan GC tetap kecil.
+ * <p/>
+ * Setiap get menghasilkan instance baru (deserialize), perubahan pada hasil get tidak mengubah isi cache.
+ * Entity harus Serializable dan tidak boleh memiliki relasi lazy yang belum di-initialize.
+ * Value yang dibaca dari database sebelum invalidate tidak pernah disimpan: ambil {@link #stamp()} sebelum membaca,
+ * lalu berikan ke put (sama dengan NearCache).
+ * <p/>
+ * <p>To register this class in your Spring context file, use the following XML.
+ * <pre>
+ *      &lt;bean id="currencyDao" class="id.co.sambaltomat.core.dao.hibernate.GenericDaoHibernate"&gt;
+ *          &lt;constructor-arg value="id.co.sambaltomat.model.Currency"/&gt;
+ *          &lt;property name="sessionFactory" ref="sessionFactory"/&gt;
+ *          &lt;property name="offHeapEntityCache"&gt;
+ *              &lt;bean class="id.co.sambaltomat.core.cache.OffHeapEntityCache"&gt;
+ *                  &lt;constructor-arg value="67108864"/&gt; &lt;!-- 64 MB --&gt;
+ *              &lt;/bean&gt;
+ *          &lt;/property&gt;
+ *      &lt;/bean&gt;
+ * </pre>
+ */
+public class OffHeapEntityCache {
+    private static final Log log = LogFactory.getLog(OffHeapEntityCache.class);
+    private static final int HEADER_SIZE = 4;
+
+    private final ByteBuffer buffer;
+    private final int capacity;
+    private final Map<Serializable, Slot> index = new HashMap<Serializable, Slot>();
+    private final TreeMap<Integer, Slot> slotsByOffset = new TreeMap<Integer, Slot>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private int writePosition;
+    private long usedBytes;
+    private final AtomicLong invalidationStamp = new AtomicLong();
+
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private final AtomicLong evictionCount = new AtomicLong();
+
+    /**
+     * @param capacityBytes ukuran buffer di luar heap (lihat -XX:MaxDirectMemorySize)
+     */
+    public OffHeapEntityCache(int capacityBytes) {
+        if (capacityBytes <= HEADER_SIZE)
+            throw new IllegalArgumentException("capacityBytes terlalu kecil");
+        this.capacity = capacityBytes;
+        this.buffer = ByteBuffer.allocateDirect(capacityBytes);
+    }
+
+    /**
+     * @return salinan baru value, atau null jika tidak ada di cache
+     */
+    public Object get(Serializable key) {
+        byte[] bytes;
+        lock.readLock().lock();
+        try {
+            Slot slot = index.get(key);
+            if (slot == null) {
+                missCount.incrementAndGet();
+                return null;
+            }
+            bytes = new byte[slot.length];
+            ByteBuffer view = buffer.duplicate();
+            view.position(slot.offset + HEADER_SIZE);
+            view.get(bytes);
+        } finally {
+            lock.readLock().unlock();
+        }
+        hitCount.incrementAndGet();
+        return CacheSerializer.deserialize(bytes);
+    }
+
+    /**
+     * Ambil stamp sebelum membaca value dari database, lalu berikan ke {@link #put(Serializable, Object, long)}
+     *
+     * @return stamp invalidate saat ini
+     */
+    public long stamp() {
+        return invalidationStamp.get();
+    }
+
+    /**
+     * Simpan value jika tidak ada invalidate sejak stamp diambil,
+     * value yang tidak Serializable atau lebih besar dari buffer diabaikan
+     *
+     * @param stamp hasil {@link #stamp()} sebelum value dibaca
+     * @return true jika value disimpan
+     */
+    public boolean put(Serializable key, Object value, long stamp) {
+        if (key == null || !(value instanceof Serializable))
+            return false;
+        return putSerialized(key, CacheSerializer.serialize(value), stamp);
+    }
+
+    /**
+     * Sama dengan {@link #put(Serializable, Object, long)} untuk value yang sudah di-serialize
+     * dengan {@link CacheSerializer#serialize(Object)}
+     *
+     * @param stamp hasil {@link #stamp()} sebelum value dibaca
+     * @return true jika value disimpan
+     */
+    public boolean putSerialized(Serializable key, byte[] bytes, long stamp) {
+        if (key == null || bytes == null)
+            return false;
+        int recordSize = HEADER_SIZE + bytes.length;
+        if (recordSize > capacity) {
+            log.warn("Value " + key + " (" + bytes.length + " bytes) lebih besar dari kapasitas cache");
+            return false;
+        }
+
+        lock.writeLock().lock();
+        try {
+            if (stamp != invalidationStamp.get())
+                return false;
+            remove(index.get(key));
+            if (writePosition + recordSize > capacity) {
+                //sisa buffer tidak cukup, buang record di ekor buffer lalu mulai lagi dari awal
+                evictRange(writePosition, capacity);
+                writePosition = 0;
+            }
+            evictRange(writePosition, writePosition + recordSize);
+
+            ByteBuffer view = buffer.duplicate();
+            view.position(writePosition);
+            view.putInt(bytes.length);
+            view.put(bytes);
+
+            Slot slot = new Slot(key, writePosition, bytes.length);
+            index.put(key, slot);
+            slotsByOffset.put(slot.offset, slot);
+            usedBytes += recordSize;
+            writePosition += recordSize;
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void invalidate(Serializable key) {
+        lock.writeLock().lock();
+        try {
+            invalidationStamp.incrementAndGet();
+            remove(index.get(key));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void invalidateAll() {
+        lock.writeLock().lock();
+        try {
+            invalidationStamp.incrementAndGet();
+            index.clear();
+            slotsByOffset.clear();
+            usedBytes = 0;
+            writePosition = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Buang semua record yang beririsan dengan [start, end)
+     */
+    private void evictRange(int start, int end) {
+        Map.Entry<Integer, Slot> before = slotsByOffset.lowerEntry(start);
+        if (before != null && before.getValue().end() > start)
+            evict(before.getValue());
+        while (true) {
+            Map.Entry<Integer, Slot> entry = slotsByOffset.ceilingEntry(start);
+            if (entry == null || entry.getKey() >= end)
+                break;
+            evict(entry.getValue());
+        }
+    }
+
+    private void evict(Slot slot) {
+        remove(slot);
+        evictionCount.incrementAndGet();
+    }
+
+    private void remove(Slot slot) {
+        if (slot == null)
+            return;
+        index.remove(slot.key);
+        slotsByOffset.remove(slot.offset);
+        usedBytes -= HEADER_SIZE + slot.length;
+    }
+
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    /**
+     * @return jumlah record yang tertimpa karena buffer penuh
+     */
+    public long getEvictionCount() {
+        return evictionCount.get();
+    }
+
+    public int getSize() {
+        lock.readLock().lock();
+        try {
+            return index.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long getUsedBytes() {
+        lock.readLock().lock();
+        try {
+            return usedBytes;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int getCapacityBytes() {
+        return capacity;
+    }
+
+    private static class Slot {
+        final Serializable key;
+        final int offset;
+        final int length;
+
+        Slot(Serializable key, int offset, int length) {
+            this.key = key;
+            this.offset = offset;
+            this.length = length;
+        }
+
+        int end() {
+            return offset + HEADER_SIZE + length;
+        }
+    }
+}
@@ -0,0 +1,258 @@
+package id.co.sambaltomat.core.cache;
+
+import id.co.sambaltomat.core.dao.GenericDao.JoinPath;
+import id.co.sambaltomat.core.dao.GenericDao.JoinType;
+import id.co.sambaltomat.core.model.SearchCriteria;
+import org.hibernate.criterion.Criterion;
+import org.hibernate.criterion.Order;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Key kanonik untuk {@link QueryResultCache}, disusun dari nama operasi dan parameter query.
+ * <p/>
+ * Criterion dan Order Hibernate tidak meng-override equals/hashCode, dan toString-nya tidak memuat semua
+ * yang mempengaruhi hasil (ignoreCase, tipe nilai, format Date tergantung locale). Karena itu key disusun
+ * dari nama class criterion ditambah seluruh field-nya (nama property, operator, flag, nilai beserta tipenya),
+ * hanya untuk criterion sederhana yang dikenal (lihat {@link #DESCRIBED_CLASSES}). Criterion lain (Example,
+ * SQLCriterion, subquery, class buatan sendiri) atau nilai dengan tipe yang tidak dikenal membuat key tidak
+ * cacheable. Criterion dalam satu level diurutkan (AND bersifat komutatif), Order tidak.
+ * <p/>
+ * Join path FETCH_MODE_SELECT juga membuat key tidak cacheable: cache hanya menyimpan id, relasi yang
+ * seharusnya di-initialize tidak ikut di-load saat hit.
+ * <pre>
+ *      QueryKey key = new QueryKey("searchByCriteria").add(searchCriteria).add(firstResult).add(maxResults);
+ *      if (key.isCacheable())
+ *          ... queryResultCache.get(region, key.toString(), loader)
+ * </pre>
+ */
+public final class QueryKey {
+    /**
+     * Class yang seluruh state-nya ada di field (tanpa referensi ke session, Type atau SQL bebas)
+     */
+    private static final Set<String> DESCRIBED_CLASSES = new HashSet<String>(Arrays.asList(
+            "org.hibernate.criterion.SimpleExpression",
+            "org.hibernate.criterion.PropertyExpression",
+            "org.hibernate.criterion.NullExpression",
+            "org.hibernate.criterion.NotNullExpression",
+            "org.hibernate.criterion.InExpression",
+            "org.hibernate.criterion.BetweenExpression",
+            "org.hibernate.criterion.LikeExpression",
+            "org.hibernate.criterion.IlikeExpression",
+            "org.hibernate.criterion.LogicalExpression",
+            "org.hibernate.criterion.NotExpression",
+            "org.hibernate.criterion.Conjunction",
+            "org.hibernate.criterion.Disjunction",
+            "org.hibernate.criterion.EmptyExpression",
+            "org.hibernate.criterion.NotEmptyExpression",
+            "org.hibernate.criterion.IdentifierEqExpression",
+            "org.hibernate.criterion.SizeExpression",
+            "org.hibernate.criterion.Order"));
+
+    private static final ConcurrentMap<Class<?>, Field[]> FIELDS = new ConcurrentHashMap<Class<?>, Field[]>();
+
+    private final StringBuilder key;
+    private boolean cacheable = true;
+
+    public QueryKey(String operation) {
+        key = new StringBuilder(operation);
+    }
+
+    public QueryKey add(int value) {
+        key.append('|').append(value);
+        return this;
+    }
+
+    public QueryKey add(SearchCriteria searchCriteria) {
+        key.append('|');
+        appendSearchCriteria(searchCriteria);
+        return this;
+    }
+
+    public QueryKey addJoinPaths(List<JoinPath> joinPaths) {
+        key.append("|join[");
+        if (joinPaths != null) {
+            for (JoinPath joinPath : joinPaths) {
+                if (joinPath.joinType == JoinType.FETCH_MODE_SELECT)
+                    cacheable = false;
+                appendValue(joinPath.path);
+                appendValue(joinPath.alias);
+                appendValue(joinPath.joinType);
+                key.append(';');
+            }
+        }
+        key.append(']');
+        return this;
+    }
+
+    public QueryKey addCriteria(List<Criterion> criteria) {
+        key.append('|');
+        appendCriteria(criteria);
+        return this;
+    }
+
+    public QueryKey addOrders(Order[] orders) {
+        key.append('|');
+        appendOrders(orders != null ? Arrays.asList(orders) : null);
+        return this;
+    }
+
+    /**
+     * @return false jika ada criterion yang tidak bisa direpresentasikan secara lengkap dalam key
+     */
+    public boolean isCacheable() {
+        return cacheable;
+    }
+
+    @Override
+    public String toString() {
+        return key.toString();
+    }
+
+    private void appendSearchCriteria(SearchCriteria searchCriteria) {
+        if (searchCriteria == null) {
+            key.append("null");
+            return;
+        }
+        key.append('{');
+        appendValue(searchCriteria.getEntityName());
+        key.append(searchCriteria.getJoinType()).append(' ');
+        appendCriteria(searchCriteria.getCriterionList());
+        appendOrders(searchCriteria.getOrderList());
+        if (searchCriteria.getSubSearchCriteriaList() != null) {
+            for (SearchCriteria subSearchCriteria : searchCriteria.getSubSearchCriteriaList()) {
+                appendSearchCriteria(subSearchCriteria);
+            }
+        }
+        key.append('}');
+    }
+
+    private void appendCriteria(List<Criterion> criteria) {
+        key.append("where[");
+        if (criteria != null) {
+            List<String> values = new ArrayList<String>(criteria.size());
+            for (Criterion criterion : criteria) {
+                values.add(describe(criterion));
+            }
+            Collections.sort(values);
+            for (String value : values) {
+                key.append(value).append(';');
+            }
+        }
+        key.append(']');
+    }
+
+    private void appendOrders(List<Order> orders) {
+        key.append("order[");
+        if (orders != null) {
+            for (Order order : orders) {
+                appendValue(order);
+                key.append(';');
+            }
+        }
+        key.append(']');
+    }
+
+    /**
+     * Deskripsi criterion dalam buffer terpisah agar bisa diurutkan
+     */
+    private String describe(Object value) {
+        int start = key.length();
+        appendValue(value);
+        String description = key.substring(start);
+        key.setLength(start);
+        return description;
+    }
+
+    /**
+     * Tulis nilai beserta tipenya; string diawali panjangnya sehingga isi string tidak bisa meniru pemisah
+     */
+    private void appendValue(Object value) {
+        if (value == null) {
+            key.append("null ");
+        } else if (value instanceof String) {
+            String string = (String) value;
+            key.append("s").append(string.length()).append(':').append(string).append(' ');
+        } else if (value instanceof Number || value instanceof Boolean || value instanceof Character) {
+            String string = value.toString();
+            key.append(value.getClass().getName()).append(string.length()).append(':').append(string).append(' ');
+        } else if (value instanceof Date) {
+            key.append(value.getClass().getName()).append(':').append(((Date) value).getTime());
+            if (value instanceof Timestamp)
+                key.append('.').append(((Timestamp) value).getNanos());
+            key.append(' ');
+        } else if (value instanceof Enum) {
+            key.append(value.getClass().getName()).append(':').append(((Enum) value).name()).append(' ');
+        } else if (value instanceof Object[]) {
+            appendValues(Arrays.asList((Object[]) value));
+        } else if (value instanceof Collection) {
+            appendValues((Collection<?>) value);
+        } else if (DESCRIBED_CLASSES.contains(value.getClass().getName())) {
+            appendFields(value);
+        } else {
+            cacheable = false;
+            key.append('<').append(value.getClass().getName()).append('>');
+        }
+    }
+
+    private void appendValues(Collection<?> values) {
+        key.append('[').append(values.size()).append(':');
+        for (Object element : values) {
+            appendValue(element);
+        }
+        key.append(']');
+    }
+
+    private void appendFields(Object value) {
+        key.append(value.getClass().getSimpleName()).append('(');
+        for (Field field : fieldsOf(value.getClass())) {
+            key.append(field.getName()).append('=');
+            try {
+                appendValue(field.get(value));
+            } catch (IllegalAccessException e) {
+                cacheable = false;
+            }
+        }
+        key.append(')');
+    }
+
+    /**
+     * Field instance class dan superclass-nya, urut berdasarkan nama, di-cache per class
+     */
+    private static Field[] fieldsOf(Class<?> type) {
+        Field[] fields = FIELDS.get(type);
+        if (fields != null)
+            return fields;
+        List<Field> list = new ArrayList<Field>();
+        for (Class<?> current = type; current != null && current != Object.class; current = current.getSuperclass()) {
+            for (Field field : current.getDeclaredFields()) {
+                if (Modifier.isStatic(field.getModifiers()))
+                    continue;
+                field.setAccessible(true);
+                list.add(field);
+            }
+        }
+        Collections.sort(list, new Comparator<Field>() {
+            public int compare(Field a, Field b) {
+                int compare = a.getName().compareTo(b.getName());
+                return compare != 0 ? compare : a.getDeclaringClass().getName().compareTo(b.getDeclaringClass().getName());
+            }
+        });
+        fields = list.toArray(new Field[list.size()]);
+        FIELDS.putIfAbsent(type, fields);
+        return fields;
+    }
+}
@@ -0,0 +1,214 @@
+package id.co.sambaltomat.core.cache;
+
+import id.co.sambaltomat.core.metrics.MetricsRegistry;
+import org.springframework.beans.factory.BeanNameAware;
+import org.springframework.beans.factory.InitializingBean;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache hasil query (list/count) di layer manager, dibatasi jumlah entry (LRU) dan umur entry (TTL).
+ * <p/>
+ * Entry dikelompokkan per region (nama entity). Invalidate region tidak menghapus entry satu per satu,
+ * tetapi menaikkan generation region; entry dengan generation lama dianggap miss dan dibuang saat dibaca
+ * atau tergeser LRU. Generation dibaca sebelum query dijalankan, sehingga hasil query yang selesai setelah
+ * invalidate tidak pernah dianggap valid.
+ * <p/>
+ * Jika <code>metricsRegistry</code> di-set, counter hit/miss didaftarkan sebagai MBean
+ * <code>id.co.sambaltomat:type=QueryResultCache,name=&lt;bean&gt;</code> dan tampil di /metrics.
+ * <p/>
+ * <p>To register this class in your Spring context file, use the following XML.
+ * <pre>
+ *      &lt;bean id="queryResultCache" class="id.co.sambaltomat.core.cache.QueryResultCache"&gt;
+ *          &lt;property name="maxEntries" value="1000"/&gt;
+ *          &lt;property name="timeToLiveSeconds" value="60"/&gt;
+ *          &lt;property name="metricsRegistry" ref="metricsRegistry"/&gt;
+ *      &lt;/bean&gt;
+ * </pre>
+ *
+ * @see QueryKey
+ */
+public class QueryResultCache implements QueryResultCacheMBean, BeanNameAware, InitializingBean {
+    private int maxEntries = 1000;
+    private long timeToLiveMillis = 60 * 1000L;
+    private String beanName = "queryResultCache";
+    private MetricsRegistry metricsRegistry;
+
+    private final Map<String, AtomicLong> generations = new ConcurrentHashMap<String, AtomicLong>();
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<String, Entry>(16, 0.75f, true);
+
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private final AtomicLong evictionCount = new AtomicLong();
+    private final AtomicLong invalidationCount = new AtomicLong();
+
+    /**
+     * Dipanggil jika hasil tidak ada di cache
+     */
+    public interface Loader<V> {
+        V load();
+    }
+
+    /**
+     * Ambil hasil dari cache, atau jalankan loader lalu simpan hasilnya
+     *
+     * @param region nama entity
+     * @param key key dari {@link QueryKey}
+     * @param loader query ke database
+     * @return hasil query (instance yang sama dipakai bersama oleh semua pemanggil, simpan hanya value immutable
+     *         seperti id atau count, jangan entity)
+     */
+    @SuppressWarnings("unchecked")
+    public <V> V get(String region, String key, Loader<V> loader) {
+        AtomicLong generation = generation(region);
+        long currentGeneration = generation.get();
+        String entryKey = region + '#' + key;
+        long now = System.currentTimeMillis();
+        synchronized (entries) {
+            Entry entry = entries.get(entryKey);
+            if (entry != null) {
+                if (entry.generation == currentGeneration && entry.expireAt > now) {
+                    hitCount.incrementAndGet();
+                    return (V) entry.value;
+                }
+                entries.remove(entryKey);
+                if (entry.generation == currentGeneration)
+                    evictionCount.incrementAndGet();
+            }
+        }
+        missCount.incrementAndGet();
+
+        V value = loader.load();
+        synchronized (entries) {
+            entries.put(entryKey, new Entry(value, currentGeneration, now + timeToLiveMillis));
+            if (entries.size() > maxEntries) {
+                Iterator<Map.Entry<String, Entry>> iterator = entries.entrySet().iterator();
+                iterator.next();
+                iterator.remove();
+                evictionCount.incrementAndGet();
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Semua hasil query region ini menjadi tidak valid
+     *
+     * @param region nama entity
+     */
+    public void invalidate(String region) {
+        generation(region).incrementAndGet();
+        invalidationCount.incrementAndGet();
+    }
+
+    /**
+     * Kosongkan seluruh cache
+     */
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+        for (AtomicLong generation : generations.values()) {
+            generation.incrementAndGet();
+        }
+    }
+
+    private AtomicLong generation(String region) {
+        AtomicLong generation = generations.get(region);
+        if (generation == null) {
+            synchronized (generations) {
+                generation = generations.get(region);
+                if (generation == null) {
+                    generation = new AtomicLong();
+                    generations.put(region, generation);
+                }
+            }
+        }
+        return generation;
+    }
+
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    /**
+     * @return jumlah entry yang dibuang karena kadaluarsa (TTL) atau melebihi maxEntries
+     */
+    public long getEvictionCount() {
+        return evictionCount.get();
+    }
+
+    public long getInvalidationCount() {
+        return invalidationCount.get();
+    }
+
+    public double getHitRatio() {
+        long hits = hitCount.get();
+        long total = hits + missCount.get();
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    public int getSize() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public void setBeanName(String beanName) {
+        this.beanName = beanName;
+    }
+
+    public String getBeanName() {
+        return beanName;
+    }
+
+    /**
+     * @param metricsRegistry registry tempat MBean statistik cache didaftarkan, optional
+     */
+    public void setMetricsRegistry(MetricsRegistry metricsRegistry) {
+        this.metricsRegistry = metricsRegistry;
+    }
+
+    public void afterPropertiesSet() {
+        if (metricsRegistry != null)
+            metricsRegistry.registerMBean(this, "QueryResultCache", beanName);
+    }
+
+    /**
+     * @param maxEntries jumlah maksimal entry, default 1000
+     */
+    public void setMaxEntries(int maxEntries) {
+        if (maxEntries <= 0)
+            throw new IllegalArgumentException("maxEntries harus lebih besar dari 0");
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * @param timeToLiveSeconds umur entry, default 60 detik
+     */
+    public void setTimeToLiveSeconds(int timeToLiveSeconds) {
+        if (timeToLiveSeconds <= 0)
+            throw new IllegalArgumentException("timeToLiveSeconds harus lebih besar dari 0");
+        this.timeToLiveMillis = timeToLiveSeconds * 1000L;
+    }
+
+    private static class Entry {
+        final Object value;
+        final long generation;
+        final long expireAt;
+
+        Entry(Object value, long generation, long expireAt) {
+            this.value = value;
+            this.generation = generation;
+            this.expireAt = expireAt;
+        }
+    }
+}
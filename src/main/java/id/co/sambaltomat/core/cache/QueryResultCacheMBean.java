@@ -0,0 +1,21 @@
+package id.co.sambaltomat.core.cache;
+
+/**
+ * JMX view dari {@link QueryResultCache}
+ */
+public interface QueryResultCacheMBean {
+
+    long getHitCount();
+
+    long getMissCount();
+
+    long getEvictionCount();
+
+    long getInvalidationCount();
+
+    double getHitRatio();
+
+    int getSize();
+
+    void clear();
+}
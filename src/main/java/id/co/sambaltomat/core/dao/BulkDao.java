@@ -0,0 +1,77 @@
+package id.co.sambaltomat.core.dao;
+
+import id.co.sambaltomat.core.dao.GenericDao.JoinPath;
+import id.co.sambaltomat.core.dao.GenericDao.RowHandler;
+import id.co.sambaltomat.core.model.SearchCriteria;
+import org.hibernate.criterion.Criterion;
+import org.hibernate.criterion.Order;
+
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * DAO untuk proses batch (import, migrasi, rekap) yang membaca sekali dan menulis sekali.
+ * <p/>
+ * Berbeda dengan {@link GenericDao}, operasi di sini tidak memakai first-level cache, snapshot,
+ * dirty checking, cascade, interceptor maupun second-level cache (Hibernate StatelessSession).
+ * Konsekuensinya:
+ * <ul>
+ * <li>setiap insert/update/delete langsung menjadi satu statement (di-batch oleh JDBC), tanpa merge</li>
+ * <li>collection dan relasi tidak di-cascade, harus disimpan sendiri</li>
+ * <li>relasi lazy dari entity hasil scroll tidak bisa di-initialize</li>
+ * <li>session Hibernate transaksi aktif di-flush sebelum setiap operasi dan tidak boleh dipakai thread lain
+ * selama operasi berjalan (berbagi connection JDBC)</li>
+ * </ul>
+ *
+ * @param <T> a type variable
+ * @param <PK> the primary key for that type
+ */
+public interface BulkDao<T, PK extends Serializable> {
+
+    /**
+     * Insert semua object tanpa menyimpannya di session
+     *
+     * @param objects object baru
+     * @return jumlah object yang diinsert
+     */
+    int insert(Collection<T> objects);
+
+    /**
+     * Update semua kolom dari setiap object (object harus sudah memiliki id)
+     *
+     * @param objects object yang diupdate
+     * @return jumlah object yang diupdate
+     */
+    int update(Collection<T> objects);
+
+    /**
+     * Delete semua object berdasarkan id-nya
+     *
+     * @param objects object yang didelete
+     * @return jumlah object yang didelete
+     */
+    int delete(Collection<T> objects);
+
+    /**
+     * Proses setiap row hasil searchCriteria dengan cursor forward-only.
+     * Entity tidak pernah masuk session sehingga memory tetap konstan berapapun jumlah row
+     *
+     * @param searchCriteria filter dan urutan, null berarti semua row
+     * @param rowHandler dipanggil sekali per row
+     * @return jumlah row yang diproses
+     */
+    int scroll(SearchCriteria searchCriteria, RowHandler<T> rowHandler);
+
+    /**
+     * Sama dengan {@link #scroll(SearchCriteria, RowHandler)} dengan join path.
+     * Hanya JoinType INNER_JOIN dan LEFT_JOIN yang didukung (untuk filter/order via alias)
+     *
+     * @param joinPaths join path
+     * @param params criteria
+     * @param orders urutan row
+     * @param rowHandler dipanggil sekali per row
+     * @return jumlah row yang diproses
+     */
+    int scroll(List<JoinPath> joinPaths, List<Criterion> params, Order[] orders, RowHandler<T> rowHandler);
+}
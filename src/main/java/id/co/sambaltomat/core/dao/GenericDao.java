@@ -6,8 +6,10 @@ import org.hibernate.criterion.Criterion;
 import org.hibernate.criterion.Order;
 
 import java.io.Serializable;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 
 /**
@@ -83,6 +85,15 @@ public interface GenericDao<T, PK extends Serializable> {
         }
     }
 
+    /**
+     * Callback untuk memproses hasil {@link GenericDao#stream} dan {@link GenericDao#scroll} satu per satu,
+     * tanpa menampung seluruh hasil query dalam List
+     */
+    public interface RowHandler<T>
+    {
+        void handleRow(T row);
+    }
+
     /**
      * Generic method used to get all objects of a particular type. This
      * is the same as lookup up all rows in a table.
@@ -111,14 +122,67 @@ public interface GenericDao<T, PK extends Serializable> {
      */
     public T get(final PK id, final String... columnNames);
 
+    /**
+     * Select specific column names for every row matching the criteria. The returned objects
+     * are only partially populated and are not attached to the session.
+     *
+     * @param searchCriteria the criteria, may be null
+     * @param columnNames argumen dinamis, sebutkan nama2 column string yang di pilih dalam SELECT
+     * @return partially populated objects
+     */
+    List<T> find(SearchCriteria searchCriteria, String... columnNames);
+
+    /**
+     * Get several objects by their identifiers. Objects already in the session or in the
+     * second-level cache are taken from there, the rest are loaded with
+     * <code>id in (...)</code> queries (split per inClauseChunkSize identifiers).
+     *
+     * @param ids the identifiers (primary keys) of the objects to get
+     * @return the objects found, keyed by identifier in the iteration order of ids.
+     * Identifiers that are not found are not in the map.
+     */
+    Map<PK, T> getMany(Collection<PK> ids);
+
+    /**
+     * Update specific columns, the write counterpart of {@link #get(java.io.Serializable, String...)}.
+     * Runs <code>update ... set ... where id = ?</code> without loading the object; the object is evicted
+     * from the session and the second-level cache.
+     *
+     * @param id primary key
+     * @param columnValues nama property dan nilai barunya
+     * @return number of updated rows (0 if the id does not exist)
+     */
+    int update(PK id, Map<String, Object> columnValues);
+
+    /**
+     * Batched version of {@link #update(java.io.Serializable, java.util.Map)}, the same values are written
+     * to every id with <code>id in (...)</code> statements.
+     *
+     * @param ids primary keys
+     * @param columnValues nama property dan nilai barunya
+     * @return number of updated rows
+     */
+    int update(Collection<PK> ids, Map<String, Object> columnValues);
+
     /**
      * Checks for existence of an object of type T using the id arg.
+     * Only the identifier is selected, the object is not loaded into the session.
+     * An object deleted in the current session is reported as not existing.
      *
      * @param id the id of the entity
      * @return - true if it exists, false if it doesn't
      */
     boolean exists(PK id);
 
+    /**
+     * Checks for existence of several objects of type T, with one identifier-only
+     * <code>id in (...)</code> query per inClauseChunkSize identifiers.
+     *
+     * @param ids the ids of the entities
+     * @return the ids that exist, in the iteration order of ids
+     */
+    Set<PK> existsAll(Collection<PK> ids);
+
     /**
      * Generic method to save an object - handles both update and insert.
      *
@@ -127,6 +191,20 @@ public interface GenericDao<T, PK extends Serializable> {
      */
     T save(T object);
 
+    /**
+     * Save a detached object by reattaching it to the session (Hibernate saveOrUpdate) instead of merging it.
+     * Unlike {@link #save(Object)} no SELECT is issued before the UPDATE, so the object must be complete:
+     * every column is written from its current state. If the session already holds another instance
+     * with the same identifier this falls back to merge.
+     * <p>Reattachment has no loaded-state snapshot, so dynamic-update
+     * (<code>@org.hibernate.annotations.Entity(dynamicUpdate = true)</code>) only applies on the merge path;
+     * use it with {@link #save(Object)} when writing only changed columns matters more than the extra SELECT.</p>
+     *
+     * @param object the object to save
+     * @return the persisted object, the argument itself when it was reattached
+     */
+    T saveOrUpdate(T object);
+
     /**
      * Try to use insert instead of update.
      *
@@ -135,6 +213,25 @@ public interface GenericDao<T, PK extends Serializable> {
      */
     T forceInsert(T object);
 
+    /**
+     * Save a collection of objects - handles both update and insert.
+     * The session is flushed and cleared every <code>batchSize</code> objects, so the statements
+     * are sent as JDBC batches (see hibernate.jdbc.batch_size) and the first-level cache stays small.
+     * <p>Note that clearing the session detaches every object loaded before this call.</p>
+     *
+     * @param objects the objects to save
+     * @return the persisted objects, in the same order as the argument
+     */
+    List<T> saveAll(Collection<T> objects);
+
+    /**
+     * Batched version of {@link #forceInsert(Object)}, see {@link #saveAll(java.util.Collection)}.
+     *
+     * @param objects the objects to insert
+     * @return the inserted objects (with their generated identifier), in the same order as the argument
+     */
+    List<T> insertAll(Collection<T> objects);
+
     /**
      * Generic method to delete an object based on class and id
      *
@@ -142,6 +239,40 @@ public interface GenericDao<T, PK extends Serializable> {
      */
     void remove(PK id);
 
+    /**
+     * Delete several objects with set based <code>delete ... where id in (...)</code> statements,
+     * without loading them. Cascades and entity callbacks are not executed.
+     *
+     * @param ids the identifiers (primary keys) of the objects to remove
+     * @return number of deleted rows
+     */
+    int removeAll(Collection<PK> ids);
+
+    /**
+     * Delete every object matching the criteria with a single set based
+     * <code>delete ... where id in (select id ... where &lt;criteria&gt;)</code> statement,
+     * without loading the objects or their identifiers. Cascades and entity callbacks are not executed.
+     * <p>Every object of this type is evicted from the session, its whole second-level cache region
+     * and the query cache are cleared. Entities mapped to more than one table or with a composite identifier
+     * fall back to selecting the identifiers first, see {@link #removeAll(java.util.Collection)}.</p>
+     *
+     * @param searchCriteria the criteria, must not be null
+     * @return number of deleted rows
+     */
+    int deleteWhere(SearchCriteria searchCriteria);
+
+    /**
+     * Update properties of every object matching the criteria with a single set based
+     * <code>update ... set ... where id in (select id ... where &lt;criteria&gt;)</code> statement,
+     * without loading the objects or their identifiers. Every property must map to a single column.
+     * <p>Eviction and fallback are the same as {@link #deleteWhere(SearchCriteria)}.</p>
+     *
+     * @param searchCriteria the criteria, must not be null
+     * @param assignments property name and new value
+     * @return number of updated rows
+     */
+    int updateWhere(SearchCriteria searchCriteria, Map<String, Object> assignments);
+
     /**
      * Gets all records without duplicates.
      * <p>Note that if you use this method, it is imperative that your model
@@ -180,13 +311,107 @@ public interface GenericDao<T, PK extends Serializable> {
     List<T> getSinglePage(int firstRow, int pageSize, List<Criterion> params, Order[] orders);
     List<T> getSinglePage(int firstRow, int pageSize, List<GenericDaoHibernate.JoinPath> joinPaths, List<Criterion> params, Order[] orders);
 
+    /**
+     * Two phase version of {@link #getSinglePage(int, int, java.util.List, java.util.List, org.hibernate.criterion.Order[])}
+     * for join paths to a collection (to-many). The first query selects only the distinct root primary keys
+     * of the requested page, the second query loads those entities with their join paths using
+     * <code>id in (...)</code>. The page size is counted in root entities, not in joined rows.
+     * <p>The first query groups by the primary key; an order on a collection property sorts by the minimum
+     * (asc) or maximum (desc) value of that property per root. The primary key is always the last sort column.
+     * The second query is split into chunks of <code>inClauseChunkSize</code> ids.</p>
+     * <p>Criterion is only applied in the first query, so joined collections are not filtered.</p>
+     *
+     * @param firstRow
+     * @param pageSize
+     * @param joinPaths
+     * @param params
+     * @param orders
+     * @return root entities, in the order given by orders
+     */
+    List<T> getDistinctSinglePage(int firstRow, int pageSize, List<JoinPath> joinPaths, List<Criterion> params, Order[] orders);
+
     public List<T> getList(final List<JoinPath> joinPaths, final List<Criterion> params, final Order[] orders);
 
+    /**
+     * Keyset (seek) pagination, alternatif getSinglePage yang tidak memakai offset.
+     * Primary key selalu ditambahkan sebagai kolom sort terakhir agar urutan unik.
+     * Kolom-kolom pada orders tidak boleh bernilai null dan sebaiknya ter-index.
+     * JoinPath INNER_JOIN/LEFT_JOIN ke collection ditolak (IllegalArgumentException) karena menggandakan row root;
+     * gunakan FETCH_MODE_SELECT atau getDistinctSinglePage.
+     *
+     * @param pageSize jumlah row per halaman
+     * @param joinPaths
+     * @param params
+     * @param orders
+     * @param after cursor dari halaman sebelumnya, null untuk halaman pertama
+     * @return row halaman ini dan cursor halaman berikutnya
+     */
+    KeysetPage<T> getKeysetPage(int pageSize, List<JoinPath> joinPaths, List<Criterion> params, Order[] orders, KeysetPage.Cursor after);
+
     List<T> searchByPropertyCriteria(List<CriterionEntry> namedCriterionList, List<OrderEntry> orderList, int firstResult, int maxResults);
 
     List<T> searchByCriteria(SearchCriteria searchCriteria, int firstResult, int maxResults);
 
     Integer searchByCriteriaCount(SearchCriteria searchCriteria);
 
+    /**
+     * Streaming version of {@link #searchByCriteria(SearchCriteria, int, int)}. Rows are read with a
+     * forward-only cursor and every row is evicted from the session after the handler returns,
+     * so memory usage does not depend on the number of rows.
+     * <p>On MySQL the result set is streamed by the driver, no other statement can be executed on the same
+     * connection until the stream ends. The handler must not trigger lazy loading.</p>
+     *
+     * @param searchCriteria the criteria, may be null
+     * @param rowHandler called once for every row
+     * @return number of processed rows
+     */
+    int stream(SearchCriteria searchCriteria, RowHandler<T> rowHandler);
+
+    /**
+     * Streaming version of {@link #getList(java.util.List, java.util.List, org.hibernate.criterion.Order[])},
+     * see {@link #stream(SearchCriteria, RowHandler)}. Join path FETCH_MODE_SELECT is not initialized.
+     * INNER_JOIN/LEFT_JOIN to a collection is rejected (IllegalArgumentException) because it repeats root rows;
+     * entities loaded through join paths are evicted together with the root rows.
+     *
+     * @param joinPaths
+     * @param params
+     * @param orders
+     * @param rowHandler called once for every row
+     * @return number of processed rows
+     */
+    int scroll(List<JoinPath> joinPaths, List<Criterion> params, Order[] orders, RowHandler<T> rowHandler);
+
     public void clearCache();
+
+    /**
+     * @return class entity yang dikelola DAO ini
+     */
+    Class<T> getPersistentClass();
+
+    /**
+     * @param object entity
+     * @return primary key dari object, null jika belum disimpan
+     */
+    PK getId(T object);
+
+    /**
+     * Ambil state entity dalam bentuk yang bisa disimpan cache di luar session (mis. near cache GenericManagerImpl),
+     * seperti isi second-level cache: relasi disimpan sebagai id, bukan object.
+     *
+     * @param object entity yang ada di session saat ini
+     * @return state entity, null jika entity tidak ada di session atau sudah didelete
+     */
+    Serializable disassemble(T object);
+
+    /**
+     * Pasang kembali state hasil {@link #disassemble(Object)} ke session saat ini sebagai entity managed,
+     * tanpa query ke database (sama dengan hit second-level cache). Jika entity sudah ada di session,
+     * instance itu yang dikembalikan.
+     *
+     * @param id primary key entity
+     * @param state hasil disassemble
+     * @return entity managed, null jika state tidak bisa dipasang (entity sudah didelete di session atau
+     *         sudah ada proxy untuk id ini), pakai {@link #get(Serializable)}
+     */
+    T assemble(PK id, Serializable state);
 }
\ No newline at end of file
@@ -0,0 +1,97 @@
+package id.co.sambaltomat.core.dao;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * Hasil dari keyset (seek) pagination, berisi row halaman ini dan cursor untuk halaman berikutnya.
+ * <p/>
+ * Berbeda dengan getSinglePage (LIMIT offset, n) yang harus men-scan semua row sebelum offset,
+ * keyset pagination melanjutkan dari nilai sort key row terakhir sehingga waktu query tetap sama
+ * di halaman berapapun (selama kolom sort ter-index).
+ * <pre>
+ *      KeysetPage&lt;Foo&gt; page = fooManager.getKeysetPage(50, joinPaths, params, orders, null);
+ *      while (page.hasNext())
+ *      {
+ *          page = fooManager.getKeysetPage(50, joinPaths, params, orders, page.getNextCursor());
+ *      }
+ *
+ *      //halaman berikutnya dari request lain
+ *      String after = page.getNextCursor().toString();
+ *      page = fooManager.getKeysetPage(50, joinPaths, params, orders, KeysetPage.Cursor.valueOf(after));
+ * </pre>
+ *
+ * @param <T> a type variable
+ */
+public class KeysetPage<T> {
+    private List<T> rows;
+    private Cursor nextCursor;
+
+    public KeysetPage(List<T> rows, Cursor nextCursor) {
+        this.rows = rows;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<T> getRows() {
+        return rows;
+    }
+
+    /**
+     * @return cursor untuk halaman berikutnya, null jika ini halaman terakhir
+     */
+    public Cursor getNextCursor() {
+        return nextCursor;
+    }
+
+    public boolean hasNext() {
+        return nextCursor != null;
+    }
+
+    /**
+     * Posisi row terakhir yang sudah dibaca, berisi nilai kolom-kolom sort (Order[] ditambah primary key)
+     * dalam bentuk token string yang tidak perlu diinterpretasi pemanggil. Token dari {@link #toString()} bisa
+     * dikirim ke client (mis. parameter URL) lalu dikembalikan dengan {@link #valueOf(String)} ke getKeysetPage
+     * dengan JoinPath, Criterion dan Order[] yang sama.
+     */
+    public static class Cursor implements Serializable {
+        private static final long serialVersionUID = -3206425139742718571L;
+
+        private final String token;
+
+        private Cursor(String token) {
+            this.token = token;
+        }
+
+        /**
+         * @param token hasil {@link #toString()}
+         * @throws IllegalArgumentException jika token kosong
+         */
+        public static Cursor valueOf(String token) {
+            if (token == null || token.length() == 0)
+                throw new IllegalArgumentException("token cursor tidak boleh kosong");
+            return new Cursor(token);
+        }
+
+        @Override
+        public int hashCode() {
+            return token.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj)
+                return true;
+            if (obj == null || getClass() != obj.getClass())
+                return false;
+            return token.equals(((Cursor) obj).token);
+        }
+
+        /**
+         * @return token cursor, aman dipakai di URL
+         */
+        @Override
+        public String toString() {
+            return token;
+        }
+    }
+}
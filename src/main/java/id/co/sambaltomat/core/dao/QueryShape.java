@@ -0,0 +1,147 @@
+package id.co.sambaltomat.core.dao;
+
+import id.co.sambaltomat.core.dao.GenericDao.JoinPath;
+import id.co.sambaltomat.core.model.SearchCriteria;
+import org.hibernate.criterion.Criterion;
+import org.hibernate.criterion.Order;
+
+import java.util.List;
+
+/**
+ * Bentuk query DAO yang sedang berjalan di thread ini: entity, nama method, JoinPath, jenis criterion
+ * dan order. Dipasang oleh DAO selama method berjalan sehingga statement JDBC yang dihasilkan
+ * (termasuk lazy load dan recursiveInitialize) bisa ditelusuri balik ke pemanggilnya.
+ * <pre>
+ *      QueryShape previous = QueryShape.enter(QueryShape.of(Foo.class, "getSinglePage").joinPaths(joinPaths).criteria(params));
+ *      try {
+ *          ...
+ *      } finally {
+ *          QueryShape.exit(previous);
+ *      }
+ * </pre>
+ * Nilai parameter criterion tidak ikut (sudah ada di bind value statement), sehingga query dengan
+ * bentuk yang sama menghasilkan string yang sama. String baru disusun saat {@link #toString()} dipanggil.
+ */
+public final class QueryShape {
+    private static final ThreadLocal<QueryShape> CURRENT = new ThreadLocal<QueryShape>();
+
+    private final Class<?> entityClass;
+    private final String operation;
+    private SearchCriteria searchCriteria;
+    private List<JoinPath> joinPaths;
+    private List<Criterion> criteria;
+    private Order[] orders;
+    private String description;
+
+    private QueryShape(Class<?> entityClass, String operation) {
+        this.entityClass = entityClass;
+        this.operation = operation;
+    }
+
+    public static QueryShape of(Class<?> entityClass, String operation) {
+        return new QueryShape(entityClass, operation);
+    }
+
+    public QueryShape searchCriteria(SearchCriteria searchCriteria) {
+        this.searchCriteria = searchCriteria;
+        return this;
+    }
+
+    public QueryShape joinPaths(List<JoinPath> joinPaths) {
+        this.joinPaths = joinPaths;
+        return this;
+    }
+
+    public QueryShape criteria(List<Criterion> criteria) {
+        this.criteria = criteria;
+        return this;
+    }
+
+    public QueryShape orders(Order[] orders) {
+        this.orders = orders;
+        return this;
+    }
+
+    /**
+     * Pasang shape untuk thread ini
+     *
+     * @return shape sebelumnya, wajib dikembalikan lewat {@link #exit(QueryShape)} di blok finally
+     */
+    public static QueryShape enter(QueryShape shape) {
+        QueryShape previous = CURRENT.get();
+        CURRENT.set(shape);
+        return previous;
+    }
+
+    public static void exit(QueryShape previous) {
+        if (previous == null)
+            CURRENT.remove();
+        else
+            CURRENT.set(previous);
+    }
+
+    /**
+     * @return shape yang sedang berjalan di thread ini, null jika statement tidak berasal dari method DAO
+     */
+    public static QueryShape current() {
+        return CURRENT.get();
+    }
+
+    @Override
+    public String toString() {
+        if (description == null) {
+            StringBuilder sb = new StringBuilder();
+            sb.append(entityClass.getSimpleName()).append('.').append(operation);
+            if (searchCriteria != null)
+                appendSearchCriteria(sb, searchCriteria);
+            if (joinPaths != null && !joinPaths.isEmpty()) {
+                sb.append(" join[");
+                for (JoinPath joinPath : joinPaths) {
+                    sb.append(joinPath.path).append(' ').append(joinPath.alias).append(' ').append(joinPath.joinType).append(';');
+                }
+                sb.append(']');
+            }
+            if (criteria != null && !criteria.isEmpty())
+                appendCriteria(sb, criteria);
+            if (orders != null && orders.length > 0) {
+                sb.append(" order[");
+                for (Order order : orders) {
+                    sb.append(order).append(';');
+                }
+                sb.append(']');
+            }
+            description = sb.toString();
+        }
+        return description;
+    }
+
+    private static void appendSearchCriteria(StringBuilder sb, SearchCriteria searchCriteria) {
+        sb.append(" {").append(searchCriteria.getEntityName()).append(' ').append(searchCriteria.getJoinType());
+        if (searchCriteria.getCriterionList() != null && !searchCriteria.getCriterionList().isEmpty())
+            appendCriteria(sb, searchCriteria.getCriterionList());
+        if (searchCriteria.getOrderList() != null && !searchCriteria.getOrderList().isEmpty()) {
+            sb.append(" order[");
+            for (Order order : searchCriteria.getOrderList()) {
+                sb.append(order).append(';');
+            }
+            sb.append(']');
+        }
+        if (searchCriteria.getSubSearchCriteriaList() != null) {
+            for (SearchCriteria subSearchCriteria : searchCriteria.getSubSearchCriteriaList()) {
+                appendSearchCriteria(sb, subSearchCriteria);
+            }
+        }
+        sb.append('}');
+    }
+
+    /**
+     * Hanya jenis criterion (SimpleExpression, InExpression, ...), toString criterion memuat nilai parameter
+     */
+    private static void appendCriteria(StringBuilder sb, List<Criterion> criteria) {
+        sb.append(" where[");
+        for (Criterion criterion : criteria) {
+            sb.append(criterion == null ? "null" : criterion.getClass().getSimpleName()).append(';');
+        }
+        sb.append(']');
+    }
+}
@@ -0,0 +1,138 @@
+package id.co.sambaltomat.core.dao.hibernate;
+
+import org.hibernate.Hibernate;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.collection.PersistentCollection;
+import org.hibernate.criterion.Restrictions;
+import org.hibernate.proxy.HibernateProxy;
+import org.hibernate.proxy.LazyInitializer;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Initialize proxy dan collection lazy secara batch.
+ * <p/>
+ * Hibernate.initialize pada setiap object menghasilkan satu query per object (N+1).
+ * Class ini mengumpulkan seluruh proxy dan collection yang belum ter-initialize dalam satu level
+ * join path, lalu me-load-nya dengan satu query <code>in (...)</code> per entity/collection role
+ * (dipecah per <code>chunkSize</code> parameter), sehingga jumlah query tergantung jumlah level,
+ * bukan jumlah row.
+ *
+ * @see GenericDaoHibernate#recursiveInitialize(org.hibernate.Session, java.util.List, Object)
+ */
+public class BatchInitializer {
+    private final int chunkSize;
+
+    public BatchInitializer(int chunkSize) {
+        if (chunkSize <= 0)
+            throw new IllegalArgumentException("chunkSize harus lebih besar dari 0");
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Initialize semua proxy dan PersistentCollection di dalam values.
+     * Object selain proxy/collection hibernate diabaikan.
+     *
+     * @param session session pemilik proxy dan collection, jika null setiap object di-initialize satu per satu
+     * @param values proxy dan collection dari satu level join path
+     */
+    public void initialize(Session session, Collection<?> values) {
+        if (session != null) {
+            //entity name -> id proxy yang belum ter-initialize
+            Map<String, Set<Serializable>> proxyIds = new HashMap<String, Set<Serializable>>();
+            //collection role -> id owner yang collectionnya belum ter-initialize
+            Map<String, Set<Serializable>> collectionOwnerIds = new HashMap<String, Set<Serializable>>();
+
+            for (Object value : values) {
+                if (value instanceof HibernateProxy) {
+                    LazyInitializer lazyInitializer = ((HibernateProxy) value).getHibernateLazyInitializer();
+                    if (lazyInitializer.isUninitialized()) {
+                        idSet(proxyIds, lazyInitializer.getEntityName()).add(lazyInitializer.getIdentifier());
+                    }
+                } else if (value instanceof PersistentCollection) {
+                    PersistentCollection collection = (PersistentCollection) value;
+                    if (!collection.wasInitialized() && collection.getOwner() != null && collection.getRole() != null) {
+                        idSet(collectionOwnerIds, collection.getRole()).add(session.getIdentifier(collection.getOwner()));
+                    }
+                }
+            }
+
+            SessionFactory sessionFactory = session.getSessionFactory();
+            for (Map.Entry<String, Set<Serializable>> entry : proxyIds.entrySet()) {
+                String idProperty = sessionFactory.getClassMetadata(entry.getKey()).getIdentifierPropertyName();
+                for (List<Serializable> chunk : chunk(entry.getValue(), chunkSize)) {
+                    session.createCriteria(entry.getKey())
+                            .add(Restrictions.in(idProperty, chunk))
+                            .list();
+                }
+            }
+            for (Map.Entry<String, Set<Serializable>> entry : collectionOwnerIds.entrySet()) {
+                String role = entry.getKey();
+                String ownerEntityName = ownerEntityName(sessionFactory, role);
+                if (ownerEntityName == null)
+                    continue;
+                String property = role.substring(ownerEntityName.length() + 1);
+                String idProperty = sessionFactory.getClassMetadata(ownerEntityName).getIdentifierPropertyName();
+                String hql = "select distinct o from " + ownerEntityName + " o left join fetch o." + property
+                        + " where o." + idProperty + " in (:ids)";
+                for (List<Serializable> chunk : chunk(entry.getValue(), chunkSize)) {
+                    session.createQuery(hql).setParameterList("ids", chunk).list();
+                }
+            }
+        }
+
+        //sisa yang belum ter-initialize (atau tanpa session), proxy yang sudah ada di session tidak query lagi
+        for (Object value : values) {
+            Hibernate.initialize(value);
+        }
+    }
+
+    private static Set<Serializable> idSet(Map<String, Set<Serializable>> map, String key) {
+        Set<Serializable> ids = map.get(key);
+        if (ids == null) {
+            ids = new LinkedHashSet<Serializable>();
+            map.put(key, ids);
+        }
+        return ids;
+    }
+
+    /**
+     * Pecah values menjadi beberapa list dengan ukuran maksimal chunkSize, untuk parameter <code>in (...)</code>
+     */
+    static <E> List<List<E>> chunk(Collection<E> values, int chunkSize) {
+        List<List<E>> chunks = new ArrayList<List<E>>();
+        List<E> current = new ArrayList<E>(Math.min(chunkSize, values.size()));
+        for (E value : values) {
+            current.add(value);
+            if (current.size() == chunkSize) {
+                chunks.add(current);
+                current = new ArrayList<E>(chunkSize);
+            }
+        }
+        if (!current.isEmpty())
+            chunks.add(current);
+        return chunks;
+    }
+
+    /**
+     * Role collection berbentuk "EntityName.property" (property bisa berupa path component),
+     * cari prefix terpanjang yang merupakan entity terdaftar
+     */
+    private static String ownerEntityName(SessionFactory sessionFactory, String role) {
+        int dot = role.length();
+        while ((dot = role.lastIndexOf('.', dot - 1)) > 0) {
+            String entityName = role.substring(0, dot);
+            if (sessionFactory.getClassMetadata(entityName) != null)
+                return entityName;
+        }
+        return null;
+    }
+}
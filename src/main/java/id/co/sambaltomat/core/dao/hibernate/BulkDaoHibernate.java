@@ -0,0 +1,260 @@
+package id.co.sambaltomat.core.dao.hibernate;
+
+import id.co.sambaltomat.core.dao.BulkDao;
+import id.co.sambaltomat.core.dao.GenericDao.JoinPath;
+import id.co.sambaltomat.core.dao.GenericDao.JoinType;
+import id.co.sambaltomat.core.dao.GenericDao.RowHandler;
+import id.co.sambaltomat.core.model.SearchCriteria;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.hibernate.Criteria;
+import org.hibernate.EntityMode;
+import org.hibernate.HibernateException;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.hibernate.criterion.CriteriaSpecification;
+import org.hibernate.criterion.Criterion;
+import org.hibernate.criterion.Order;
+import org.hibernate.engine.EntityKey;
+import org.hibernate.engine.SessionImplementor;
+import org.hibernate.metadata.ClassMetadata;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.orm.hibernate3.HibernateCallback;
+import org.springframework.orm.hibernate3.support.HibernateDaoSupport;
+
+import java.io.Serializable;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Implementasi {@link BulkDao} dengan Hibernate StatelessSession.
+ * <p/>
+ * StatelessSession dibuka di atas connection milik Session Spring yang sedang aktif, sehingga ikut
+ * transaksi yang sama dengan GenericDaoHibernate (commit/rollback bersama). Karena StatelessSession
+ * melewati second-level cache, setelah update/delete entity yang sama dibuang dari session aktif,
+ * second-level cache dan query cache.
+ * <p/>
+ * Session aktif di-flush sebelum StatelessSession dibuka, dan tidak boleh dipakai bersamaan (thread lain)
+ * selama operasi bulk berjalan karena keduanya berbagi connection JDBC.
+ * <p/>
+ * <p>To register this class in your Spring context file, use the following XML.
+ * <pre>
+ *      &lt;bean id="fooBulkDao" class="id.co.sambaltomat.core.dao.hibernate.BulkDaoHibernate"&gt;
+ *          &lt;constructor-arg value="id.co.sambaltomat.core.model.Foo"/&gt;
+ *          &lt;property name="sessionFactory" ref="sessionFactory"/&gt;
+ *      &lt;/bean&gt;
+ * </pre>
+ *
+ * @param <T> a type variable
+ * @param <PK> the primary key for that type
+ */
+public class BulkDaoHibernate<T, PK extends Serializable> extends HibernateDaoSupport implements BulkDao<T, PK> {
+    protected final Log log = LogFactory.getLog(getClass());
+    protected Class<T> persistentClass;
+
+    /**
+     * Fetch size untuk scroll, null berarti default sesuai dialect (lihat {@link StreamFetchSize})
+     */
+    private Integer streamFetchSize;
+
+    public BulkDaoHibernate(final Class<T> persistentClass) {
+        this.persistentClass = persistentClass;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public int insert(final Collection<T> objects) {
+        return (Integer) getHibernateTemplate().execute(new HibernateCallback() {
+            public Object doInHibernate(Session session) throws HibernateException, SQLException {
+                StatelessSession statelessSession = openStatelessSession(session);
+                try {
+                    for (T object : objects) {
+                        statelessSession.insert(object);
+                    }
+                    executeBatch(statelessSession);
+                } finally {
+                    statelessSession.close();
+                }
+                getSessionFactory().evictQueries();
+                return objects.size();
+            }
+        });
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public int update(final Collection<T> objects) {
+        return (Integer) getHibernateTemplate().execute(new HibernateCallback() {
+            public Object doInHibernate(Session session) throws HibernateException, SQLException {
+                StatelessSession statelessSession = openStatelessSession(session);
+                try {
+                    for (T object : objects) {
+                        statelessSession.update(object);
+                    }
+                    executeBatch(statelessSession);
+                } finally {
+                    statelessSession.close();
+                }
+                evict(session, objects);
+                return objects.size();
+            }
+        });
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public int delete(final Collection<T> objects) {
+        return (Integer) getHibernateTemplate().execute(new HibernateCallback() {
+            public Object doInHibernate(Session session) throws HibernateException, SQLException {
+                StatelessSession statelessSession = openStatelessSession(session);
+                try {
+                    for (T object : objects) {
+                        statelessSession.delete(object);
+                    }
+                    executeBatch(statelessSession);
+                } finally {
+                    statelessSession.close();
+                }
+                evict(session, objects);
+                return objects.size();
+            }
+        });
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public int scroll(final SearchCriteria searchCriteria, final RowHandler<T> rowHandler) {
+        return (Integer) getHibernateTemplate().execute(new HibernateCallback() {
+            public Object doInHibernate(Session session) throws HibernateException, SQLException {
+                StatelessSession statelessSession = openStatelessSession(session);
+                try {
+                    Criteria criteria = statelessSession.createCriteria(persistentClass);
+                    if (searchCriteria != null)
+                        GenericDaoHibernate.constuctCriteria(searchCriteria, criteria, true);
+                    return scroll(criteria, rowHandler);
+                } finally {
+                    statelessSession.close();
+                }
+            }
+        });
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public int scroll(final List<JoinPath> joinPaths, final List<Criterion> params, final Order[] orders, final RowHandler<T> rowHandler) {
+        return (Integer) getHibernateTemplate().execute(new HibernateCallback() {
+            public Object doInHibernate(Session session) throws HibernateException, SQLException {
+                StatelessSession statelessSession = openStatelessSession(session);
+                try {
+                    Criteria criteria = statelessSession.createCriteria(persistentClass);
+                    if (joinPaths != null) {
+                        for (JoinPath joinPath : joinPaths) {
+                            if (joinPath.joinType == JoinType.INNER_JOIN)
+                                criteria.createCriteria(joinPath.path, joinPath.alias, CriteriaSpecification.INNER_JOIN);
+                            else if (joinPath.joinType == JoinType.LEFT_JOIN)
+                                criteria.createCriteria(joinPath.path, joinPath.alias, CriteriaSpecification.LEFT_JOIN);
+                            else
+                                throw new IllegalArgumentException("JoinType " + joinPath.joinType + " (" + joinPath.path
+                                        + ") tidak didukung pada StatelessSession");
+                        }
+                    }
+
+                    if (params != null) {
+                        for (Criterion criterion : params) {
+                            criteria.add(criterion);
+                        }
+                    }
+
+                    if (orders != null) {
+                        for (Order order : orders) {
+                            criteria.addOrder(order);
+                        }
+                    }
+                    return scroll(criteria, rowHandler);
+                } finally {
+                    statelessSession.close();
+                }
+            }
+        });
+    }
+
+    /**
+     * Jalankan criteria dengan cursor forward-only, tidak perlu evict karena row tidak disimpan di session
+     *
+     * @return jumlah row yang diproses
+     */
+    @SuppressWarnings("unchecked")
+    private int scroll(Criteria criteria, RowHandler<T> rowHandler) {
+        criteria.setFetchSize(StreamFetchSize.resolve(getSessionFactory(), streamFetchSize));
+        int count = 0;
+        ScrollableResults results = criteria.scroll(ScrollMode.FORWARD_ONLY);
+        try {
+            while (results.next()) {
+                rowHandler.handleRow((T) results.get(0));
+                count++;
+            }
+        } finally {
+            results.close();
+        }
+        return count;
+    }
+
+    /**
+     * StatelessSession di atas connection session aktif (connection tidak ditutup saat StatelessSession ditutup).
+     * Session di-flush dulu agar perubahan yang masih antri (termasuk JDBC batch) sudah dikirim sebelum
+     * StatelessSession menulis lewat connection yang sama, sehingga urutan statement tetap benar.
+     * Session aktif tidak boleh dipakai thread lain selama StatelessSession terbuka (connection yang sama).
+     */
+    protected StatelessSession openStatelessSession(Session session) {
+        session.flush();
+        return getSessionFactory().openStatelessSession(session.connection());
+    }
+
+    /**
+     * StatelessSession tidak punya flush, statement yang masih antri di JDBC batch dikirim sebelum session ditutup
+     */
+    private void executeBatch(StatelessSession statelessSession) {
+        ((SessionImplementor) statelessSession).getBatcher().executeBatch();
+    }
+
+    /**
+     * Buang entity dari session aktif, second-level cache dan query cache setelah ditulis lewat StatelessSession
+     */
+    protected void evict(Session session, Collection<T> objects) {
+        SessionFactory sessionFactory = getSessionFactory();
+        ClassMetadata classMetadata = sessionFactory.getClassMetadata(persistentClass);
+        SessionImplementor sessionImplementor = (SessionImplementor) session;
+        EntityPersister persister = sessionImplementor.getFactory().getEntityPersister(persistentClass.getName());
+        List<Serializable> ids = new ArrayList<Serializable>(objects.size());
+        for (T object : objects) {
+            ids.add(classMetadata.getIdentifier(object, EntityMode.POJO));
+        }
+        for (Serializable id : ids) {
+            Object entity = sessionImplementor.getPersistenceContext().getEntity(new EntityKey(id, persister, EntityMode.POJO));
+            if (entity != null)
+                session.evict(entity);
+            if (persister.hasCache())
+                sessionFactory.evict(persistentClass, id);
+        }
+        sessionFactory.evictQueries();
+    }
+
+    /**
+     * Set fetch size untuk scroll
+     *
+     * @param streamFetchSize default Integer.MIN_VALUE (streaming) untuk dialect MySQL, 100 untuk database lain
+     */
+    public void setStreamFetchSize(int streamFetchSize) {
+        this.streamFetchSize = streamFetchSize;
+    }
+}
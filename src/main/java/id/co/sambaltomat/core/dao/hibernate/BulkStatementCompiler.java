@@ -0,0 +1,130 @@
+package id.co.sambaltomat.core.dao.hibernate;
+
+import org.hibernate.Criteria;
+import org.hibernate.SQLQuery;
+import org.hibernate.Session;
+import org.hibernate.engine.QueryParameters;
+import org.hibernate.engine.SessionFactoryImplementor;
+import org.hibernate.engine.SessionImplementor;
+import org.hibernate.impl.CriteriaImpl;
+import org.hibernate.loader.criteria.CriteriaQueryTranslator;
+import org.hibernate.persister.entity.AbstractEntityPersister;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.persister.entity.OuterJoinLoadable;
+import org.hibernate.type.Type;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Menjalankan delete/update set-based dari criteria dalam satu statement:
+ * <pre>
+ *      delete from TABLE where ID in (select * from ( &lt;sql criteria&gt; ) bulkIds)
+ *      update TABLE set COLUMN = ?, ... where ID in (select * from ( &lt;sql criteria&gt; ) bulkIds)
+ * </pre>
+ * SQL criteria (select distinct id beserta join subcriteria dan where) di-generate CriteriaLoader seperti pada
+ * {@link CountQueryCompiler}; id tidak pernah di-load ke aplikasi. Subquery dibungkus derived table agar
+ * MySQL mau menjalankan delete/update dengan subquery ke tabel yang sama.
+ * <p/>
+ * Hanya untuk entity yang disimpan di satu tabel dengan primary key satu kolom (lihat {@link #supports(EntityPersister)}).
+ * Hibernate filter (session.enableFilter) tidak didukung, parameter filter tidak ikut di-bind.
+ * Session, second-level cache dan query cache harus dibersihkan pemanggil setelah statement dijalankan.
+ *
+ * @see GenericDaoHibernate#deleteWhere(id.co.sambaltomat.core.model.SearchCriteria)
+ * @see GenericDaoHibernate#updateWhere(id.co.sambaltomat.core.model.SearchCriteria, java.util.Map)
+ */
+public class BulkStatementCompiler {
+
+    /**
+     * @return true jika entity disimpan di satu tabel dengan primary key satu kolom
+     */
+    public static boolean supports(EntityPersister persister) {
+        return persister instanceof AbstractEntityPersister
+                && persister.getQuerySpaces().length == 1
+                && ((AbstractEntityPersister) persister).getIdentifierColumnNames().length == 1;
+    }
+
+    /**
+     * @param idCriteria criteria dengan projection id entity, dibuat dari session.createCriteria
+     * @return jumlah row yang didelete
+     */
+    public int delete(Session session, Criteria idCriteria) {
+        CriteriaImpl criteriaImpl = (CriteriaImpl) idCriteria;
+        AbstractEntityPersister persister = persister(criteriaImpl);
+        String sql = "delete from " + persister.getTableName() + whereIdIn(persister, criteriaImpl);
+
+        SQLQuery query = session.createSQLQuery(sql);
+        query.addSynchronizedEntityName(persister.getEntityName());
+        bindCriteriaParameters(query, 0, criteriaImpl, persister);
+        return query.executeUpdate();
+    }
+
+    /**
+     * @param idCriteria criteria dengan projection id entity, dibuat dari session.createCriteria
+     * @param assignments nama property dan nilai barunya, property harus terdaftar di mapping entity dan satu kolom
+     * @return jumlah row yang diupdate
+     */
+    public int update(Session session, Criteria idCriteria, Map<String, Object> assignments) {
+        if (assignments == null || assignments.isEmpty())
+            throw new IllegalArgumentException("assignments tidak boleh kosong");
+        CriteriaImpl criteriaImpl = (CriteriaImpl) idCriteria;
+        AbstractEntityPersister persister = persister(criteriaImpl);
+        List<String> propertyNames = Arrays.asList(persister.getPropertyNames());
+
+        //nama kolom masuk ke SQL, hanya terima property yang terdaftar
+        StringBuilder sql = new StringBuilder("update ").append(persister.getTableName()).append(" set ");
+        Type[] types = new Type[assignments.size()];
+        int index = 0;
+        for (String property : assignments.keySet()) {
+            if (!propertyNames.contains(property))
+                throw new IllegalArgumentException("Property '" + property + "' tidak terdaftar pada " + persister.getEntityName());
+            String[] columns = persister.getPropertyColumnNames(property);
+            if (columns.length != 1)
+                throw new IllegalArgumentException("Property '" + property + "' tidak dipetakan ke satu kolom");
+            if (index > 0)
+                sql.append(", ");
+            sql.append(columns[0]).append(" = ?");
+            types[index++] = persister.getPropertyType(property);
+        }
+        sql.append(whereIdIn(persister, criteriaImpl));
+
+        SQLQuery query = session.createSQLQuery(sql.toString());
+        query.addSynchronizedEntityName(persister.getEntityName());
+        index = 0;
+        for (Object value : assignments.values()) {
+            query.setParameter(index, value, types[index]);
+            index++;
+        }
+        bindCriteriaParameters(query, index, criteriaImpl, persister);
+        return query.executeUpdate();
+    }
+
+    private static AbstractEntityPersister persister(CriteriaImpl criteriaImpl) {
+        SessionFactoryImplementor factory = criteriaImpl.getSession().getFactory();
+        String entityName = factory.getImplementors(criteriaImpl.getEntityOrClassName())[0];
+        EntityPersister persister = factory.getEntityPersister(entityName);
+        if (!supports(persister))
+            throw new IllegalArgumentException(entityName + " disimpan di lebih dari satu tabel atau memakai composite id");
+        return (AbstractEntityPersister) persister;
+    }
+
+    private static String whereIdIn(AbstractEntityPersister persister, CriteriaImpl criteriaImpl) {
+        SessionImplementor session = criteriaImpl.getSession();
+        CriteriaSqlLoader loader = new CriteriaSqlLoader((OuterJoinLoadable) persister, session.getFactory(),
+                criteriaImpl, persister.getEntityName(), session.getEnabledFilters());
+        return " where " + persister.getIdentifierColumnNames()[0]
+                + " in (select * from (" + loader.getCriteriaSql() + ") bulkIds)";
+    }
+
+    private static void bindCriteriaParameters(SQLQuery query, int offset, CriteriaImpl criteriaImpl, AbstractEntityPersister persister) {
+        CriteriaQueryTranslator translator = new CriteriaQueryTranslator(criteriaImpl.getSession().getFactory(),
+                criteriaImpl, persister.getEntityName(), CriteriaQueryTranslator.ROOT_SQL_ALIAS);
+        QueryParameters queryParameters = translator.getQueryParameters();
+        Object[] values = queryParameters.getPositionalParameterValues();
+        Type[] types = queryParameters.getPositionalParameterTypes();
+        for (int i = 0; i < values.length; i++) {
+            query.setParameter(offset + i, values[i], types[i]);
+        }
+    }
+}
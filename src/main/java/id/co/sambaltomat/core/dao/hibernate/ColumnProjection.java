@@ -0,0 +1,134 @@
+package id.co.sambaltomat.core.dao.hibernate;
+
+import org.hibernate.HibernateException;
+import org.hibernate.criterion.ProjectionList;
+import org.hibernate.criterion.Projections;
+import org.hibernate.transform.ResultTransformer;
+
+import java.beans.BeanInfo;
+import java.beans.IntrospectionException;
+import java.beans.Introspector;
+import java.beans.PropertyDescriptor;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.List;
+
+/**
+ * Projection beberapa kolom beserta transformer ke bean, dibuat sekali per (entity class, daftar kolom)
+ * lalu dipakai ulang oleh {@link GenericDaoHibernate#get(java.io.Serializable, String...)} dan
+ * {@link GenericDaoHibernate#find(id.co.sambaltomat.core.model.SearchCriteria, String...)}.
+ * <p/>
+ * Berbeda dengan AliasToBeanResultTransformer yang mencari setter per row, setter dan constructor
+ * di-resolve saat projection dibuat, transform per row hanya memanggil setter sesuai urutan kolom.
+ */
+final class ColumnProjection {
+    private final ProjectionList projectionList;
+    private final ResultTransformer resultTransformer;
+
+    /**
+     * @param beanClass class hasil transform
+     * @param rootAlias alias root criteria
+     * @param columnNames nama property yang diselect, harus property langsung dari beanClass
+     */
+    ColumnProjection(Class beanClass, String rootAlias, String[] columnNames) {
+        projectionList = Projections.projectionList();
+        for (String columnName : columnNames) {
+            projectionList.add(Projections.property(rootAlias + "." + columnName), columnName);
+        }
+        resultTransformer = new SetterResultTransformer(beanClass, columnNames);
+    }
+
+    ProjectionList getProjectionList() {
+        return projectionList;
+    }
+
+    ResultTransformer getResultTransformer() {
+        return resultTransformer;
+    }
+
+    /**
+     * Isi bean dari tuple projection, index tuple sama dengan index kolom.
+     * Seperti AliasToBeanResultTransformer, jika setter tidak ada field diisi langsung
+     */
+    private static class SetterResultTransformer implements ResultTransformer {
+        private static final long serialVersionUID = 4318026743108572601L;
+
+        private final Constructor constructor;
+        private final Method[] setters;
+        private final Field[] fields;
+
+        SetterResultTransformer(Class beanClass, String[] columnNames) {
+            try {
+                constructor = beanClass.getDeclaredConstructor();
+                constructor.setAccessible(true);
+            } catch (NoSuchMethodException e) {
+                throw new HibernateException("Class " + beanClass.getName() + " tidak memiliki constructor tanpa argumen", e);
+            }
+            setters = new Method[columnNames.length];
+            fields = new Field[columnNames.length];
+            PropertyDescriptor[] descriptors;
+            try {
+                BeanInfo beanInfo = Introspector.getBeanInfo(beanClass);
+                descriptors = beanInfo.getPropertyDescriptors();
+            } catch (IntrospectionException e) {
+                throw new HibernateException("Gagal introspeksi " + beanClass.getName(), e);
+            }
+            for (int i = 0; i < columnNames.length; i++) {
+                for (PropertyDescriptor descriptor : descriptors) {
+                    if (descriptor.getName().equals(columnNames[i]) && descriptor.getWriteMethod() != null) {
+                        setters[i] = descriptor.getWriteMethod();
+                        setters[i].setAccessible(true);
+                    }
+                }
+                if (setters[i] == null) {
+                    fields[i] = findField(beanClass, columnNames[i]);
+                    if (fields[i] == null)
+                        throw new HibernateException("Setter/field untuk '" + columnNames[i] + "' tidak ditemukan pada " + beanClass.getName());
+                    fields[i].setAccessible(true);
+                }
+            }
+        }
+
+        private static Field findField(Class beanClass, String name) {
+            for (Class current = beanClass; current != null && current != Object.class; current = current.getSuperclass()) {
+                try {
+                    return current.getDeclaredField(name);
+                } catch (NoSuchFieldException e) {
+                    //cari di superclass
+                }
+            }
+            return null;
+        }
+
+        public Object transformTuple(Object[] tuple, String[] aliases) {
+            try {
+                Object bean = constructor.newInstance();
+                for (int i = 0; i < setters.length; i++) {
+                    if (setters[i] != null) {
+                        //null tidak bisa di-set ke property primitive, biarkan nilai default
+                        if (tuple[i] == null && setters[i].getParameterTypes()[0].isPrimitive())
+                            continue;
+                        setters[i].invoke(bean, tuple[i]);
+                    } else {
+                        if (tuple[i] == null && fields[i].getType().isPrimitive())
+                            continue;
+                        fields[i].set(bean, tuple[i]);
+                    }
+                }
+                return bean;
+            } catch (InstantiationException e) {
+                throw new HibernateException(e);
+            } catch (IllegalAccessException e) {
+                throw new HibernateException(e);
+            } catch (InvocationTargetException e) {
+                throw new HibernateException(e.getTargetException());
+            }
+        }
+
+        public List transformList(List collection) {
+            return collection;
+        }
+    }
+}
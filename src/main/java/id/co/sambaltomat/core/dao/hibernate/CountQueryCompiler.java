@@ -0,0 +1,105 @@
+package id.co.sambaltomat.core.dao.hibernate;
+
+import org.hibernate.Criteria;
+import org.hibernate.SQLQuery;
+import org.hibernate.Session;
+import org.hibernate.engine.QueryParameters;
+import org.hibernate.engine.SessionFactoryImplementor;
+import org.hibernate.engine.SessionImplementor;
+import org.hibernate.impl.CriteriaImpl;
+import org.hibernate.loader.criteria.CriteriaQueryTranslator;
+import org.hibernate.persister.entity.OuterJoinLoadable;
+import org.hibernate.type.Type;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Menghitung jumlah row dari criteria yang memakai GROUPING (projection group by) dengan
+ * <pre>
+ *      select count(*) from ( &lt;sql criteria&gt; ) as countTemp
+ * </pre>
+ * SQL hasil generate CriteriaLoader (mahal, membangun join walker untuk seluruh persister) di-cache
+ * berdasarkan bentuk criteria: entity, join/subcriteria (path, alias, join type), select, where dan group by.
+ * Setiap pemanggilan berikutnya dengan bentuk yang sama hanya melakukan binding parameter.
+ * <p/>
+ * Catatan: Hibernate filter (session.enableFilter) tidak didukung, parameter filter tidak ikut di-bind.
+ *
+ * @see GenericDaoHibernate#getRowCount(java.util.List, java.util.List)
+ */
+public class CountQueryCompiler {
+    private static final int DEFAULT_MAX_CACHED_SHAPES = 500;
+
+    private final Map<String, String> countSqlCache = new ConcurrentHashMap<String, String>();
+    private int maxCachedShapes = DEFAULT_MAX_CACHED_SHAPES;
+
+    /**
+     * @param session session tempat criteria dibuat
+     * @param criteria criteria dengan projection, dibuat dari session.createCriteria
+     * @return jumlah row hasil criteria
+     */
+    public int count(Session session, Criteria criteria) {
+        CriteriaImpl criteriaImpl = (CriteriaImpl) criteria;
+        SessionImplementor sessionImplementor = criteriaImpl.getSession();
+        SessionFactoryImplementor factory = sessionImplementor.getFactory();
+        String entityName = factory.getImplementors(criteriaImpl.getEntityOrClassName())[0];
+
+        CriteriaQueryTranslator translator = new CriteriaQueryTranslator(
+                factory, criteriaImpl, entityName, CriteriaQueryTranslator.ROOT_SQL_ALIAS);
+
+        String shapeKey = shapeKey(entityName, criteriaImpl, translator);
+        String countSql = countSqlCache.get(shapeKey);
+        if (countSql == null) {
+            countSql = compile(factory, sessionImplementor, criteriaImpl, entityName);
+            if (countSqlCache.size() >= maxCachedShapes) {
+                countSqlCache.clear();
+            }
+            countSqlCache.put(shapeKey, countSql);
+        }
+
+        SQLQuery sqlQuery = session.createSQLQuery(countSql);
+        QueryParameters queryParameters = translator.getQueryParameters();
+        Object[] values = queryParameters.getPositionalParameterValues();
+        Type[] types = queryParameters.getPositionalParameterTypes();
+        for (int i = 0; i < values.length; i++) {
+            sqlQuery.setParameter(i, values[i], types[i]);
+        }
+        Object result = sqlQuery.uniqueResult();
+        return result == null ? 0 : ((Number) result).intValue();
+    }
+
+    private String shapeKey(String entityName, CriteriaImpl criteriaImpl, CriteriaQueryTranslator translator) {
+        StringBuilder key = new StringBuilder(entityName);
+        for (Iterator iterator = criteriaImpl.iterateSubcriteria(); iterator.hasNext();) {
+            CriteriaImpl.Subcriteria subcriteria = (CriteriaImpl.Subcriteria) iterator.next();
+            key.append('|').append(subcriteria.getPath())
+                    .append(' ').append(subcriteria.getAlias())
+                    .append(' ').append(subcriteria.getJoinType());
+        }
+        key.append("|select ").append(translator.getSelect());
+        key.append("|where ").append(translator.getWhereCondition());
+        key.append("|group by ").append(translator.getGroupBy());
+        return key.toString();
+    }
+
+    private String compile(SessionFactoryImplementor factory, SessionImplementor session, CriteriaImpl criteriaImpl, String entityName) {
+        CriteriaSqlLoader loader = new CriteriaSqlLoader(
+                (OuterJoinLoadable) factory.getEntityPersister(entityName),
+                factory, criteriaImpl, entityName, session.getEnabledFilters());
+        return "select count(*) from (" + loader.getCriteriaSql() + ") as countTemp";
+    }
+
+    public int getCachedShapeCount() {
+        return countSqlCache.size();
+    }
+
+    /**
+     * Set jumlah maksimal bentuk criteria yang di-cache, jika terlampaui cache dikosongkan
+     *
+     * @param maxCachedShapes default 500
+     */
+    public void setMaxCachedShapes(int maxCachedShapes) {
+        this.maxCachedShapes = maxCachedShapes;
+    }
+}
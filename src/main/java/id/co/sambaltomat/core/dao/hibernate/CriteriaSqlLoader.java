@@ -0,0 +1,26 @@
+package id.co.sambaltomat.core.dao.hibernate;
+
+import org.hibernate.engine.SessionFactoryImplementor;
+import org.hibernate.impl.CriteriaImpl;
+import org.hibernate.loader.criteria.CriteriaLoader;
+import org.hibernate.persister.entity.OuterJoinLoadable;
+
+import java.util.Map;
+
+/**
+ * Membuka akses ke SQL hasil generate CriteriaLoader tanpa reflection,
+ * dipakai untuk membungkus SQL criteria di dalam statement lain
+ *
+ * @see CountQueryCompiler
+ * @see BulkStatementCompiler
+ */
+class CriteriaSqlLoader extends CriteriaLoader {
+    CriteriaSqlLoader(OuterJoinLoadable persister, SessionFactoryImplementor factory, CriteriaImpl criteria,
+                      String rootEntityName, Map enabledFilters) {
+        super(persister, factory, criteria, rootEntityName, enabledFilters);
+    }
+
+    String getCriteriaSql() {
+        return getSQLString();
+    }
+}
@@ -1,31 +1,46 @@
 package id.co.sambaltomat.core.dao.hibernate;
 
+import id.co.sambaltomat.core.cache.CacheSerializer;
+import id.co.sambaltomat.core.cache.OffHeapEntityCache;
 import id.co.sambaltomat.core.dao.CriterionEntry;
 import id.co.sambaltomat.core.dao.GenericDao;
+import id.co.sambaltomat.core.dao.KeysetPage;
 import id.co.sambaltomat.core.dao.OrderEntry;
+import id.co.sambaltomat.core.dao.QueryShape;
 import id.co.sambaltomat.core.model.SearchCriteria;
-import ognl.Ognl;
 import ognl.OgnlException;
 import org.apache.commons.lang.StringUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.hibernate.*;
+import org.hibernate.cache.CacheKey;
+import org.hibernate.cache.entry.CacheEntry;
 import org.hibernate.criterion.*;
-import org.hibernate.engine.SessionFactoryImplementor;
-import org.hibernate.impl.CriteriaImpl;
-import org.hibernate.impl.SessionImpl;
-import org.hibernate.loader.OuterJoinLoader;
-import org.hibernate.loader.criteria.CriteriaLoader;
-import org.hibernate.persister.entity.OuterJoinLoadable;
-import org.hibernate.transform.AliasToBeanResultTransformer;
+import org.hibernate.engine.EntityEntry;
+import org.hibernate.engine.EntityKey;
+import org.hibernate.engine.PersistenceContext;
+import org.hibernate.engine.SessionImplementor;
+import org.hibernate.engine.Status;
+import org.hibernate.engine.TwoPhaseLoad;
+import org.hibernate.engine.Versioning;
+import org.hibernate.event.EventSource;
+import org.hibernate.event.PostLoadEvent;
+import org.hibernate.event.PostLoadEventListener;
+import org.hibernate.metadata.ClassMetadata;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.type.EntityType;
+import org.hibernate.type.Type;
+import org.hibernate.type.TypeFactory;
 import org.springframework.orm.ObjectRetrievalFailureException;
 import org.springframework.orm.hibernate3.HibernateCallback;
 import org.springframework.orm.hibernate3.support.HibernateDaoSupport;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.io.Serializable;
-import java.lang.reflect.Field;
 import java.sql.SQLException;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * This class serves as the Base class for all other DAOs - namely to hold
@@ -51,6 +66,47 @@ public class GenericDaoHibernate<T, PK extends Serializable> extends HibernateDa
     protected final Log log = LogFactory.getLog(getClass());
     protected Class<T> persistentClass;
 
+    /**
+     * Jumlah object per flush/clear pada saveAll dan insertAll,
+     * sebaiknya disamakan dengan hibernate.jdbc.batch_size
+     */
+    private int batchSize = 50;
+
+    /**
+     * Fetch size untuk stream dan scroll, null berarti default sesuai dialect (lihat {@link StreamFetchSize})
+     */
+    private Integer streamFetchSize;
+
+    /**
+     * Cache SQL count untuk getRowCount dengan GROUPING_FIELD
+     */
+    private final CountQueryCompiler countQueryCompiler = new CountQueryCompiler();
+
+    /**
+     * Delete/update set-based untuk deleteWhere dan updateWhere
+     */
+    private final BulkStatementCompiler bulkStatementCompiler = new BulkStatementCompiler();
+
+    /**
+     * Jumlah maksimal parameter dalam satu <code>in (...)</code>, null berarti sesuai dialect (lihat {@link InClauseChunkSize})
+     */
+    private Integer inClauseChunkSize;
+    private volatile BatchInitializer batchInitializer;
+
+    /**
+     * Cache projection get(id, columnNames) dan find(searchCriteria, columnNames) per daftar kolom
+     */
+    private final Map<String, ColumnProjection> columnProjectionCache = new ConcurrentHashMap<String, ColumnProjection>();
+
+    /**
+     * Cache off-heap untuk get(PK) dan getAll, optional (null = tanpa cache)
+     */
+    private OffHeapEntityCache offHeapEntityCache;
+
+    /**
+     * Key daftar id hasil getAll di offHeapEntityCache
+     */
+    private enum OffHeapKey { ALL_IDS }
 
     /**
      * Constructor that takes in a class to see which type of entity to persist
@@ -74,7 +130,58 @@ public class GenericDaoHibernate<T, PK extends Serializable> extends HibernateDa
 //
 //        return q.list();
 
-        return super.getHibernateTemplate().loadAll(this.persistentClass);
+        if (offHeapEntityCache == null)
+            return super.getHibernateTemplate().loadAll(this.persistentClass);
+
+        List<T> cached = getAllFromOffHeapCache();
+        if (cached != null)
+            return cached;
+
+        long stamp = offHeapEntityCache.stamp();
+        List<T> result = super.getHibernateTemplate().loadAll(this.persistentClass);
+        ArrayList<PK> ids = new ArrayList<PK>(result.size());
+        List<T> copies = new ArrayList<T>(result.size());
+        for (T entity : result) {
+            PK id = getId(entity);
+            copies.add(putOffHeap(id, entity, stamp));
+            ids.add(id);
+        }
+        offHeapEntityCache.put(OffHeapKey.ALL_IDS, ids, stamp);
+        return copies;
+    }
+
+    /**
+     * Simpan entity ke offHeapEntityCache
+     *
+     * @return salinan detached entity (sama dengan hasil hit cache), atau entity itu sendiri jika tidak Serializable
+     */
+    @SuppressWarnings("unchecked")
+    private T putOffHeap(PK id, T entity, long stamp) {
+        if (!(entity instanceof Serializable))
+            return entity;
+        byte[] bytes = CacheSerializer.serialize(entity);
+        if (bytes == null)
+            return entity;
+        offHeapEntityCache.putSerialized(id, bytes, stamp);
+        return (T) CacheSerializer.deserialize(bytes);
+    }
+
+    /**
+     * @return hasil getAll dari offHeapEntityCache, null jika daftar id atau salah satu entity tidak ada di cache
+     */
+    @SuppressWarnings("unchecked")
+    private List<T> getAllFromOffHeapCache() {
+        List<PK> ids = (List<PK>) offHeapEntityCache.get(OffHeapKey.ALL_IDS);
+        if (ids == null)
+            return null;
+        List<T> result = new ArrayList<T>(ids.size());
+        for (PK id : ids) {
+            T entity = (T) offHeapEntityCache.get(id);
+            if (entity == null)
+                return null;
+            result.add(entity);
+        }
+        return result;
     }
 
     /**
@@ -91,6 +198,14 @@ public class GenericDaoHibernate<T, PK extends Serializable> extends HibernateDa
      */
     @SuppressWarnings("unchecked")
     public T get(PK id) {
+        long stamp = 0;
+        if (offHeapEntityCache != null) {
+            T cached = (T) offHeapEntityCache.get(id);
+            if (cached != null)
+                return cached;
+            stamp = offHeapEntityCache.stamp();
+        }
+
         T entity = (T) super.getHibernateTemplate().get(this.persistentClass, id);
 
         if (entity == null) {
@@ -99,6 +214,8 @@ public class GenericDaoHibernate<T, PK extends Serializable> extends HibernateDa
             throw objectRetrievalFailureException;
         }
 
+        if (offHeapEntityCache != null)
+            return putOffHeap(id, entity, stamp);
         return entity;
     }
 
@@ -117,13 +234,9 @@ public class GenericDaoHibernate<T, PK extends Serializable> extends HibernateDa
             {
                 Criteria criteria = session.createCriteria(persistentClass,"talias");
                 criteria.add(Restrictions.idEq(id));
-                ProjectionList projectionList = Projections.projectionList();
-                for (String columnName : columnNames)
-                {
-                    projectionList.add(Projections.property("talias." + columnName),columnName);
-                }
-                criteria.setProjection(projectionList);
-                criteria.setResultTransformer(new AliasToBeanResultTransformer(persistentClass));
+                ColumnProjection columnProjection = getColumnProjection(columnNames);
+                criteria.setProjection(columnProjection.getProjectionList());
+                criteria.setResultTransformer(columnProjection.getResultTransformer());
                 Object returnObject = criteria.uniqueResult();
                 return returnObject;
             }
@@ -134,180 +247,690 @@ public class GenericDaoHibernate<T, PK extends Serializable> extends HibernateDa
      * {@inheritDoc}
      */
     @SuppressWarnings("unchecked")
-    public boolean exists(PK id) {
-        T entity = (T) super.getHibernateTemplate().get(this.persistentClass, id);
-        return entity != null;
+    public List<T> find(final SearchCriteria searchCriteria, final String... columnNames)
+    {
+        return (List<T>) executeWithShape(QueryShape.of(persistentClass, "find").searchCriteria(searchCriteria), new HibernateCallback()
+        {
+            public Object doInHibernate(Session session) throws HibernateException, SQLException
+            {
+                Criteria criteria = session.createCriteria(persistentClass,"talias");
+                if (searchCriteria != null)
+                    constuctCriteria(searchCriteria, criteria, true);
+                ColumnProjection columnProjection = getColumnProjection(columnNames);
+                criteria.setProjection(columnProjection.getProjectionList());
+                criteria.setResultTransformer(columnProjection.getResultTransformer());
+                return criteria.list();
+            }
+        });
     }
 
     /**
-     * {@inheritDoc}
+     * Projection dan transformer untuk kombinasi kolom, dibuat sekali lalu di-cache
      */
-    @SuppressWarnings("unchecked")
-    public T save(T object) {
-        return (T) super.getHibernateTemplate().merge(object);
+    private ColumnProjection getColumnProjection(String[] columnNames)
+    {
+        String key = StringUtils.join(columnNames, ',');
+        ColumnProjection columnProjection = columnProjectionCache.get(key);
+        if (columnProjection == null)
+        {
+            columnProjection = new ColumnProjection(persistentClass, "talias", columnNames);
+            columnProjectionCache.put(key, columnProjection);
+        }
+        return columnProjection;
     }
 
     /**
      * {@inheritDoc}
      */
     @SuppressWarnings("unchecked")
-    public T forceInsert(final T object) {
-        return (T) super.getHibernateTemplate().execute(new HibernateCallback()
+    public Map<PK, T> getMany(final Collection<PK> ids) {
+        return (Map<PK, T>) getHibernateTemplate().execute(new HibernateCallback()
         {
             public Object doInHibernate(Session session) throws HibernateException, SQLException
             {
-                return session.save(object);
+                Map<PK, T> found = new HashMap<PK, T>();
+                List<PK> misses = new ArrayList<PK>();
+                for (PK id : new LinkedHashSet<PK>(ids))
+                {
+                    if (isRemovedInSession(session, id))
+                        continue;
+                    T entity = getFromSessionOrCache(session, id);
+                    if (entity != null)
+                        found.put(id, entity);
+                    else
+                        misses.add(id);
+                }
+
+                ClassMetadata classMetadata = getSessionFactory().getClassMetadata(persistentClass);
+                String idProperty = classMetadata.getIdentifierPropertyName();
+                for (List<PK> chunk : BatchInitializer.chunk(misses, inClauseChunkSize()))
+                {
+                    List<T> list = session.createCriteria(persistentClass)
+                            .add(Restrictions.in(idProperty, chunk))
+                            .list();
+                    for (T entity : list)
+                    {
+                        found.put((PK) classMetadata.getIdentifier(entity, EntityMode.POJO), entity);
+                    }
+                }
+
+                Map<PK, T> result = new LinkedHashMap<PK, T>();
+                for (PK id : ids)
+                {
+                    T entity = found.get(id);
+                    if (entity != null)
+                        result.put(id, entity);
+                }
+                return result;
             }
         });
     }
 
     /**
-     * {@inheritDoc}
+     * Ambil entity dari first-level cache (session) atau second-level cache tanpa query ke database
+     *
+     * @param session
+     * @param id
+     * @return entity, atau null jika tidak ada di session maupun second-level cache
      */
-    public void remove(PK id) {
-        super.getHibernateTemplate().delete(this.get(id));
+    @SuppressWarnings("unchecked")
+    protected T getFromSessionOrCache(Session session, PK id)
+    {
+        SessionImplementor sessionImplementor = (SessionImplementor) session;
+        EntityPersister persister = sessionImplementor.getFactory().getEntityPersister(persistentClass.getName());
+        Object entity = sessionImplementor.getPersistenceContext().getEntity(new EntityKey(id, persister, EntityMode.POJO));
+        if (entity != null)
+            return isRemoved(sessionImplementor, entity) ? null : (T) entity;
+
+        //ada di second-level cache, session.get tidak akan query ke database
+        if (isSecondLevelCached(sessionImplementor, persister, id))
+            return (T) session.get(persistentClass, id);
+        return null;
     }
 
     /**
-     * {@inheritDoc}
+     * Cek keberadaan entity di first-level cache (session) atau second-level cache
+     * tanpa query ke database dan tanpa hydrate entity
+     *
+     * @param session
+     * @param id
+     * @return true jika ada di session atau second-level cache, false jika belum diketahui
      */
-    @SuppressWarnings("unchecked")
-    public List<T> findByNamedQuery(
-            String queryName,
-            Map<String, Object> queryParams) {
-        String[] params = new String[queryParams.size()];
-        Object[] values = new Object[queryParams.size()];
-        int index = 0;
-        Iterator<String> i = queryParams.keySet().iterator();
-        while (i.hasNext()) {
-            String key = i.next();
-            params[index] = key;
-            values[index++] = queryParams.get(key);
-        }
-        return getHibernateTemplate().findByNamedQueryAndNamedParam(
-                queryName,
-                params,
-                values);
+    protected boolean existsInSessionOrCache(Session session, PK id)
+    {
+        SessionImplementor sessionImplementor = (SessionImplementor) session;
+        EntityPersister persister = sessionImplementor.getFactory().getEntityPersister(persistentClass.getName());
+        Object entity = sessionImplementor.getPersistenceContext().getEntity(new EntityKey(id, persister, EntityMode.POJO));
+        if (entity != null)
+            return !isRemoved(sessionImplementor, entity);
+        return isSecondLevelCached(sessionImplementor, persister, id);
     }
-    
-    @SuppressWarnings("unchecked")
-    public List<T> getCurrentPageRows(final int first, final int pageSize, final String sortColumn, final boolean sortOrder, final Map<String, String> params) {
-        return (List<T>) getHibernateTemplate().execute(new HibernateCallback() {
-            public Object doInHibernate(Session session) throws HibernateException, SQLException {
-                Criteria criteria = session.createCriteria(persistentClass);
 
-                if (params != null) {
-                    for (String propertyName : params.keySet()) {
-                        String value = params.get(propertyName);
-                        criteria.add(Restrictions.eq(propertyName, value));
-                    }
-                }
+    /**
+     * @return true jika entity dengan id ini sudah didelete di session (belum/sudah di-flush),
+     *         tidak perlu dicek lagi ke second-level cache maupun database
+     */
+    protected boolean isRemovedInSession(Session session, PK id)
+    {
+        SessionImplementor sessionImplementor = (SessionImplementor) session;
+        EntityPersister persister = sessionImplementor.getFactory().getEntityPersister(persistentClass.getName());
+        Object entity = sessionImplementor.getPersistenceContext().getEntity(new EntityKey(id, persister, EntityMode.POJO));
+        return entity != null && isRemoved(sessionImplementor, entity);
+    }
 
-                if (StringUtils.isNotBlank(sortColumn)) {
-                    if (sortOrder) {
-                        criteria.addOrder(Order.asc(sortColumn));
-                    } else {
-                        criteria.addOrder(Order.desc(sortColumn));
-                    }
-                }
+    private static boolean isRemoved(SessionImplementor session, Object entity)
+    {
+        EntityEntry entry = session.getPersistenceContext().getEntry(entity);
+        return entry != null && (entry.getStatus() == Status.DELETED || entry.getStatus() == Status.GONE);
+    }
 
-                criteria.setFirstResult(first);
-                criteria.setMaxResults(pageSize);
-                return criteria.list();
+    /**
+     * Baca lewat cache concurrency strategy (bukan langsung ke region): entry yang sedang di-lock
+     * (read-write setelah update/delete) atau lebih baru dari timestamp session dianggap tidak ada
+     */
+    private boolean isSecondLevelCached(SessionImplementor session, EntityPersister persister, PK id)
+    {
+        if (!persister.hasCache() || !session.getCacheMode().isGetEnabled())
+            return false;
+        CacheKey cacheKey = new CacheKey(id, persister.getIdentifierType(), persister.getRootEntityName(),
+                EntityMode.POJO, session.getFactory());
+        return persister.getCache().get(cacheKey, session.getTimestamp()) != null;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public int update(PK id, Map<String, Object> columnValues) {
+        return update(Collections.singletonList(id), columnValues);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public int update(final Collection<PK> ids, final Map<String, Object> columnValues) {
+        return (Integer) super.getHibernateTemplate().execute(new HibernateCallback()
+        {
+            public Object doInHibernate(Session session) throws HibernateException, SQLException
+            {
+                return bulkUpdate(session, new ArrayList<PK>(new LinkedHashSet<PK>(ids)), columnValues);
             }
         });
     }
 
-    public int getRowCount(final List<Criterion> params) {
-        return (Integer) getHibernateTemplate().execute(new HibernateCallback() {
-            public Object doInHibernate(Session session) throws HibernateException, SQLException {
-                Criteria criteria = session.createCriteria(persistentClass)
-                        .setResultTransformer(Criteria.DISTINCT_ROOT_ENTITY)
-                        .setProjection(Projections.rowCount());
+    /**
+     * {@inheritDoc}
+     */
+    public boolean exists(final PK id) {
+        return (Boolean) super.getHibernateTemplate().execute(new HibernateCallback()
+        {
+            public Object doInHibernate(Session session) throws HibernateException, SQLException
+            {
+                if (isRemovedInSession(session, id))
+                    return Boolean.FALSE;
+                if (existsInSessionOrCache(session, id))
+                    return Boolean.TRUE;
+                //hanya select primary key, entity tidak di-hydrate
+                Object foundId = session.createCriteria(persistentClass)
+                        .add(Restrictions.idEq(id))
+                        .setProjection(Projections.id())
+                        .uniqueResult();
+                return foundId != null;
+            }
+        });
+    }
 
-                if (params != null) {
-                    for (int i = 0; i < params.size(); i++) {
-                        Criterion criterion = params.get(i);
-                        criteria.add(criterion);
-                    }
+    /**
+     * {@inheritDoc}
+     */
+    @SuppressWarnings("unchecked")
+    public Set<PK> existsAll(final Collection<PK> ids) {
+        return (Set<PK>) super.getHibernateTemplate().execute(new HibernateCallback()
+        {
+            public Object doInHibernate(Session session) throws HibernateException, SQLException
+            {
+                Set<PK> found = new HashSet<PK>();
+                List<PK> misses = new ArrayList<PK>();
+                for (PK id : new LinkedHashSet<PK>(ids))
+                {
+                    if (isRemovedInSession(session, id))
+                        continue;
+                    if (existsInSessionOrCache(session, id))
+                        found.add(id);
+                    else
+                        misses.add(id);
                 }
 
-                List result = criteria.list();
-                Integer count = Integer.valueOf("0");
-                if (result != null && result.size() > 0) {
-                    count = (Integer) result.get(0);
+                String idProperty = getSessionFactory().getClassMetadata(persistentClass).getIdentifierPropertyName();
+                for (List<PK> chunk : BatchInitializer.chunk(misses, inClauseChunkSize()))
+                {
+                    found.addAll(session.createCriteria(persistentClass)
+                            .add(Restrictions.in(idProperty, chunk))
+                            .setProjection(Projections.id())
+                            .list());
                 }
-                return count;
+
+                Set<PK> result = new LinkedHashSet<PK>();
+                for (PK id : ids)
+                {
+                    if (found.contains(id))
+                        result.add(id);
+                }
+                return result;
             }
         });
     }
 
-    private String criteriaToString(Criteria criteria)
-    {
-     String sql=null;
+    /**
+     * {@inheritDoc}
+     */
+    @SuppressWarnings("unchecked")
+    public T save(T object) {
+        T saved = (T) super.getHibernateTemplate().merge(object);
+        invalidateOffHeapEntry(saved);
+        return saved;
+    }
 
-        try
-        {
-            CriteriaImpl c = (CriteriaImpl)criteria;
-            SessionImpl s = (SessionImpl)c.getSession();
-            SessionFactoryImplementor factory = (SessionFactoryImplementor)s.getSessionFactory();
-            String[] implementors = factory.getImplementors( c.getEntityOrClassName() );
-            CriteriaLoader loader = new CriteriaLoader((OuterJoinLoadable)factory.getEntityPersister(implementors[0]),
-                factory, c, implementors[0], s.getEnabledFilters());
-            Field f = OuterJoinLoader.class.getDeclaredField("sql");
-            f.setAccessible(true);
-            sql = (String)f.get(loader);
-        }
-        catch (NoSuchFieldException e)
-        {
-            e.printStackTrace();
-        }
-        catch (IllegalAccessException e)
+    /**
+     * {@inheritDoc}
+     */
+    @SuppressWarnings("unchecked")
+    public T saveOrUpdate(final T object) {
+        return (T) super.getHibernateTemplate().execute(new HibernateCallback()
         {
-            e.printStackTrace();
-        }
-
-        return sql;
+            public Object doInHibernate(Session session) throws HibernateException, SQLException
+            {
+                //sudah managed, perubahan ditulis saat flush
+                invalidateOffHeapEntry(object);
+                if (session.contains(object))
+                    return object;
+
+                SessionImplementor sessionImplementor = (SessionImplementor) session;
+                EntityPersister persister = sessionImplementor.getFactory().getEntityPersister(persistentClass.getName());
+                Serializable id = persister.getIdentifier(object, EntityMode.POJO);
+                if (id != null && sessionImplementor.getPersistenceContext().getEntity(new EntityKey(id, persister, EntityMode.POJO)) != null)
+                {
+                    //instance lain dengan id yang sama sudah ada di session, reattach akan NonUniqueObjectException
+                    return session.merge(object);
+                }
+                session.saveOrUpdate(object);
+                return object;
+            }
+        });
     }
 
-    public int getRowCount(final List<Criterion> params, final List<JoinPath> joinPaths) {
-        return (Integer) getHibernateTemplate().execute(new HibernateCallback() {
-            public Object doInHibernate(Session session) throws HibernateException, SQLException {
-                Integer count = Integer.valueOf("0");
-                ProjectionList projectionList = Projections.projectionList();
-                Criteria criteria = session.createCriteria(persistentClass) ;
-
+    /**
+     * {@inheritDoc}
+     */
+    @SuppressWarnings("unchecked")
+    public T forceInsert(final T object) {
+        return (T) super.getHibernateTemplate().execute(new HibernateCallback()
+        {
+            public Object doInHibernate(Session session) throws HibernateException, SQLException
+            {
+                Object id = session.save(object);
+                invalidateOffHeapEntry(object);
+                return id;
+            }
+        });
+    }
 
-                processJoinPath(criteria, joinPaths, projectionList);
-                if (params != null) {
-                    for (Criterion criterion : params)
+    /**
+     * {@inheritDoc}
+     */
+    @SuppressWarnings("unchecked")
+    public List<T> saveAll(final Collection<T> objects) {
+        return (List<T>) super.getHibernateTemplate().execute(new HibernateCallback()
+        {
+            public Object doInHibernate(Session session) throws HibernateException, SQLException
+            {
+                List<T> result = new ArrayList<T>(objects.size());
+                int count = 0;
+                for (T object : objects)
+                {
+                    result.add((T) session.merge(object));
+                    if (++count % batchSize == 0)
                     {
-                        criteria.add(criterion);
+                        //kirim batch ke database lalu kosongkan first-level cache
+                        session.flush();
+                        session.clear();
                     }
                 }
-                //jika projectionList tidak kosong berarti ada GROUPING, lakukan konversi criteria
-                if(projectionList.getLength()>0)
-                {
-                    criteria.setProjection(projectionList);
-                    String sql = criteriaToString(criteria);
-                    sql = "select count(*) from ("+sql+") as countTemp";
-                    //native SQL dijalankan
-                    SQLQuery sqlQuery = session.createSQLQuery(sql);
-                    List result = sqlQuery.list();
-                    if (result != null && result.size() > 0) {
-                        count = (Integer) result.get(0);
-                    }
+                session.flush();
+                session.clear();
+                invalidateOffHeapEntries(result);
+                return result;
+            }
+        });
+    }
 
-                }
-                else
+    /**
+     * {@inheritDoc}
+     */
+    @SuppressWarnings("unchecked")
+    public List<T> insertAll(final Collection<T> objects) {
+        return (List<T>) super.getHibernateTemplate().execute(new HibernateCallback()
+        {
+            public Object doInHibernate(Session session) throws HibernateException, SQLException
+            {
+                List<T> result = new ArrayList<T>(objects.size());
+                int count = 0;
+                for (T object : objects)
                 {
-                    criteria.setProjection(projectionList.add(Projections.rowCount()));
-                    List result = criteria.list();
-                    if (result != null && result.size() > 0) {
-                        count = (Integer) result.get(0);
+                    session.save(object);
+                    result.add(object);
+                    if (++count % batchSize == 0)
+                    {
+                        session.flush();
+                        session.clear();
                     }
                 }
-                return count;
+                session.flush();
+                session.clear();
+                invalidateOffHeapEntries(result);
+                return result;
+            }
+        });
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public void remove(PK id) {
+        //load langsung dari session, bukan lewat get(id) yang akan mengisi ulang offHeapEntityCache
+        Object entity = super.getHibernateTemplate().get(this.persistentClass, id);
+        if (entity == null)
+            throw new ObjectRetrievalFailureException(this.persistentClass, id);
+        super.getHibernateTemplate().delete(entity);
+        invalidateOffHeapCache(Collections.singletonList(id));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public int removeAll(final Collection<PK> ids) {
+        return (Integer) super.getHibernateTemplate().execute(new HibernateCallback()
+        {
+            public Object doInHibernate(Session session) throws HibernateException, SQLException
+            {
+                return bulkDelete(session, new ArrayList<PK>(new LinkedHashSet<PK>(ids)));
+            }
+        });
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public int deleteWhere(final SearchCriteria searchCriteria) {
+        if (searchCriteria == null)
+            throw new IllegalArgumentException("searchCriteria tidak boleh null pada deleteWhere");
+        return (Integer) executeWithShape(QueryShape.of(persistentClass, "deleteWhere").searchCriteria(searchCriteria), new HibernateCallback()
+        {
+            public Object doInHibernate(Session session) throws HibernateException, SQLException
+            {
+                if (!BulkStatementCompiler.supports(persister(session)))
+                    return bulkDelete(session, selectIds(session, searchCriteria));
+                int count = bulkStatementCompiler.delete(session, idCriteria(session, searchCriteria));
+                evictAll(session);
+                return count;
+            }
+        });
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public int updateWhere(final SearchCriteria searchCriteria, final Map<String, Object> assignments) {
+        if (searchCriteria == null)
+            throw new IllegalArgumentException("searchCriteria tidak boleh null pada updateWhere");
+        return (Integer) executeWithShape(QueryShape.of(persistentClass, "updateWhere").searchCriteria(searchCriteria), new HibernateCallback()
+        {
+            public Object doInHibernate(Session session) throws HibernateException, SQLException
+            {
+                if (!BulkStatementCompiler.supports(persister(session)))
+                    return bulkUpdate(session, selectIds(session, searchCriteria), assignments);
+                int count = bulkStatementCompiler.update(session, idCriteria(session, searchCriteria), assignments);
+                evictAll(session);
+                return count;
+            }
+        });
+    }
+
+    /**
+     * Criteria yang memilih primary key dari semua entity yang sesuai searchCriteria
+     */
+    protected Criteria idCriteria(Session session, SearchCriteria searchCriteria)
+    {
+        Criteria criteria = session.createCriteria(persistentClass);
+        constuctCriteria(searchCriteria, criteria, false);
+        criteria.setProjection(Projections.distinct(Projections.id()));
+        return criteria;
+    }
+
+    /**
+     * Primary key dari semua entity yang sesuai criteria (hanya select id, entity tidak di-load)
+     */
+    @SuppressWarnings("unchecked")
+    protected List<PK> selectIds(Session session, SearchCriteria searchCriteria)
+    {
+        return idCriteria(session, searchCriteria).list();
+    }
+
+    private EntityPersister persister(Session session)
+    {
+        return ((SessionImplementor) session).getFactory().getEntityPersister(persistentClass.getName());
+    }
+
+    /**
+     * <code>delete from Entity where id in (:ids)</code> per inClauseChunkSize id
+     * @return jumlah row yang didelete
+     */
+    protected int bulkDelete(Session session, List<PK> ids)
+    {
+        String idProperty = getSessionFactory().getClassMetadata(persistentClass).getIdentifierPropertyName();
+        String hql = "delete from " + persistentClass.getName() + " where " + idProperty + " in (:ids)";
+        int count = 0;
+        for (List<PK> chunk : BatchInitializer.chunk(ids, inClauseChunkSize()))
+        {
+            count += session.createQuery(hql).setParameterList("ids", chunk).executeUpdate();
+        }
+        evict(session, ids);
+        return count;
+    }
+
+    /**
+     * <code>update Entity set property = :value, ... where id in (:ids)</code> per inClauseChunkSize id
+     * @param assignments nama property dan nilai barunya, nama property harus terdaftar di mapping entity
+     * @return jumlah row yang diupdate
+     */
+    protected int bulkUpdate(Session session, List<PK> ids, Map<String, Object> assignments)
+    {
+        if (assignments == null || assignments.isEmpty())
+            throw new IllegalArgumentException("assignments tidak boleh kosong");
+        ClassMetadata classMetadata = getSessionFactory().getClassMetadata(persistentClass);
+        List<String> propertyNames = Arrays.asList(classMetadata.getPropertyNames());
+
+        //nama property masuk ke HQL, hanya terima property yang terdaftar
+        StringBuilder hql = new StringBuilder("update ").append(persistentClass.getName()).append(" set ");
+        List<String> parameterNames = new ArrayList<String>();
+        for (String property : assignments.keySet())
+        {
+            if (!propertyNames.contains(property))
+                throw new IllegalArgumentException("Property '" + property + "' tidak terdaftar pada " + persistentClass.getName());
+            String parameterName = "p" + parameterNames.size();
+            if (!parameterNames.isEmpty())
+                hql.append(", ");
+            hql.append(property).append(" = :").append(parameterName);
+            parameterNames.add(parameterName);
+        }
+        hql.append(" where ").append(classMetadata.getIdentifierPropertyName()).append(" in (:ids)");
+
+        int count = 0;
+        for (List<PK> chunk : BatchInitializer.chunk(ids, inClauseChunkSize()))
+        {
+            Query query = session.createQuery(hql.toString());
+            int index = 0;
+            for (Object value : assignments.values())
+            {
+                query.setParameter(parameterNames.get(index++), value);
+            }
+            count += query.setParameterList("ids", chunk).executeUpdate();
+        }
+        evict(session, ids);
+        return count;
+    }
+
+    /**
+     * Buang entity dari session, second-level cache dan query cache setelah DML langsung ke database
+     */
+    protected void evict(Session session, Collection<PK> ids)
+    {
+        SessionImplementor sessionImplementor = (SessionImplementor) session;
+        EntityPersister persister = sessionImplementor.getFactory().getEntityPersister(persistentClass.getName());
+        SessionFactory sessionFactory = getSessionFactory();
+        for (PK id : ids)
+        {
+            Object entity = sessionImplementor.getPersistenceContext().getEntity(new EntityKey(id, persister, EntityMode.POJO));
+            if (entity != null)
+                session.evict(entity);
+            if (persister.hasCache())
+                sessionFactory.evict(persistentClass, id);
+        }
+        sessionFactory.evictQueries();
+        invalidateOffHeapCache(ids);
+    }
+
+    /**
+     * Buang semua entity class ini dari session, seluruh region second-level cache-nya, query cache
+     * dan offHeapEntityCache, setelah DML set-based yang id-nya tidak diketahui
+     */
+    protected void evictAll(Session session)
+    {
+        SessionImplementor sessionImplementor = (SessionImplementor) session;
+        for (Object entity : new ArrayList<Object>(sessionImplementor.getPersistenceContext().getEntitiesByKey().values()))
+        {
+            if (persistentClass.isInstance(entity))
+                session.evict(entity);
+        }
+        SessionFactory sessionFactory = getSessionFactory();
+        if (persister(session).hasCache())
+            sessionFactory.evict(persistentClass);
+        sessionFactory.evictQueries();
+        invalidateOffHeapCache(null);
+    }
+
+    private void invalidateOffHeapEntry(T object) {
+        if (offHeapEntityCache != null)
+            invalidateOffHeapCache(Collections.singletonList(getId(object)));
+    }
+
+    private void invalidateOffHeapEntries(Collection<T> objects) {
+        if (offHeapEntityCache == null)
+            return;
+        List<PK> ids = new ArrayList<PK>(objects.size());
+        for (T object : objects) {
+            ids.add(getId(object));
+        }
+        invalidateOffHeapCache(ids);
+    }
+
+    /**
+     * Buang entity dari offHeapEntityCache, diulang setelah transaksi selesai agar entity yang dibaca
+     * sebelum commit (atau dari transaksi yang di-rollback) tidak tertinggal di cache
+     *
+     * @param ids id entity yang berubah, null jika tidak diketahui (semua entry dibuang)
+     */
+    protected void invalidateOffHeapCache(final Collection<PK> ids) {
+        if (offHeapEntityCache == null)
+            return;
+        invalidateOffHeapCacheNow(ids);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                @Override
+                public void afterCompletion(int status) {
+                    invalidateOffHeapCacheNow(ids);
+                }
+            });
+        }
+    }
+
+    private void invalidateOffHeapCacheNow(Collection<PK> ids) {
+        if (ids == null) {
+            offHeapEntityCache.invalidateAll();
+            return;
+        }
+        offHeapEntityCache.invalidate(OffHeapKey.ALL_IDS);
+        for (PK id : ids) {
+            if (id != null)
+                offHeapEntityCache.invalidate(id);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @SuppressWarnings("unchecked")
+    public List<T> findByNamedQuery(
+            String queryName,
+            Map<String, Object> queryParams) {
+        String[] params = new String[queryParams.size()];
+        Object[] values = new Object[queryParams.size()];
+        int index = 0;
+        Iterator<String> i = queryParams.keySet().iterator();
+        while (i.hasNext()) {
+            String key = i.next();
+            params[index] = key;
+            values[index++] = queryParams.get(key);
+        }
+        return getHibernateTemplate().findByNamedQueryAndNamedParam(
+                queryName,
+                params,
+                values);
+    }
+    
+    @SuppressWarnings("unchecked")
+    public List<T> getCurrentPageRows(final int first, final int pageSize, final String sortColumn, final boolean sortOrder, final Map<String, String> params) {
+        return (List<T>) getHibernateTemplate().execute(new HibernateCallback() {
+            public Object doInHibernate(Session session) throws HibernateException, SQLException {
+                Criteria criteria = session.createCriteria(persistentClass);
+
+                if (params != null) {
+                    for (String propertyName : params.keySet()) {
+                        String value = params.get(propertyName);
+                        criteria.add(Restrictions.eq(propertyName, value));
+                    }
+                }
+
+                if (StringUtils.isNotBlank(sortColumn)) {
+                    if (sortOrder) {
+                        criteria.addOrder(Order.asc(sortColumn));
+                    } else {
+                        criteria.addOrder(Order.desc(sortColumn));
+                    }
+                }
+
+                criteria.setFirstResult(first);
+                criteria.setMaxResults(pageSize);
+                return criteria.list();
+            }
+        });
+    }
+
+    public int getRowCount(final List<Criterion> params) {
+        return (Integer) executeWithShape(QueryShape.of(persistentClass, "getRowCount").criteria(params), new HibernateCallback() {
+            public Object doInHibernate(Session session) throws HibernateException, SQLException {
+                Criteria criteria = session.createCriteria(persistentClass)
+                        .setResultTransformer(Criteria.DISTINCT_ROOT_ENTITY)
+                        .setProjection(Projections.rowCount());
+
+                if (params != null) {
+                    for (int i = 0; i < params.size(); i++) {
+                        Criterion criterion = params.get(i);
+                        criteria.add(criterion);
+                    }
+                }
+
+                List result = criteria.list();
+                Integer count = Integer.valueOf("0");
+                if (result != null && result.size() > 0) {
+                    count = (Integer) result.get(0);
+                }
+                return count;
+            }
+        });
+    }
+
+    public int getRowCount(final List<Criterion> params, final List<JoinPath> joinPaths) {
+        return (Integer) executeWithShape(QueryShape.of(persistentClass, "getRowCount").joinPaths(joinPaths).criteria(params), new HibernateCallback() {
+            public Object doInHibernate(Session session) throws HibernateException, SQLException {
+                Integer count = Integer.valueOf("0");
+                ProjectionList projectionList = Projections.projectionList();
+                Criteria criteria = session.createCriteria(persistentClass) ;
+
+
+                processJoinPath(criteria, joinPaths, projectionList);
+                if (params != null) {
+                    for (Criterion criterion : params)
+                    {
+                        criteria.add(criterion);
+                    }
+                }
+                //jika projectionList tidak kosong berarti ada GROUPING, lakukan konversi criteria
+                if(projectionList.getLength()>0)
+                {
+                    criteria.setProjection(projectionList);
+                    //native SQL count(*) dari SQL criteria, SQL di-cache per bentuk criteria
+                    count = countQueryCompiler.count(session, criteria);
+
+                }
+                else
+                {
+                    criteria.setProjection(projectionList.add(Projections.rowCount()));
+                    List result = criteria.list();
+                    if (result != null && result.size() > 0) {
+                        count = (Integer) result.get(0);
+                    }
+                }
+                return count;
             }
         });
     }
@@ -414,7 +1037,7 @@ public class GenericDaoHibernate<T, PK extends Serializable> extends HibernateDa
 
     @SuppressWarnings("unchecked")
     public List<T> getSinglePage(final int firstRow, final int pageSize, final List<Criterion> params, final Order[] orders) {
-        return (List<T>) getHibernateTemplate().execute(new HibernateCallback() {
+        return (List<T>) executeWithShape(QueryShape.of(persistentClass, "getSinglePage").criteria(params).orders(orders), new HibernateCallback() {
             public Object doInHibernate(Session session) throws HibernateException, SQLException {
                 Criteria criteria = session.createCriteria(persistentClass)
                         .setResultTransformer(Criteria.DISTINCT_ROOT_ENTITY);
@@ -464,7 +1087,7 @@ public class GenericDaoHibernate<T, PK extends Serializable> extends HibernateDa
      */
     @SuppressWarnings("unchecked")
     public List<T> getSinglePage(final int firstRow, final int pageSize, final List<JoinPath> joinPaths, final List<Criterion> params, final Order[] orders) {
-        return (List<T>) getHibernateTemplate().execute(new HibernateCallback() {
+        return (List<T>) executeWithShape(QueryShape.of(persistentClass, "getSinglePage").joinPaths(joinPaths).criteria(params).orders(orders), new HibernateCallback() {
             public Object doInHibernate(Session session) throws HibernateException, SQLException {
                 Criteria criteria = session.createCriteria(persistentClass);
                         //.setResultTransformer(Criteria.DISTINCT_ROOT_ENTITY);
@@ -492,7 +1115,7 @@ public class GenericDaoHibernate<T, PK extends Serializable> extends HibernateDa
                 List returnedList = criteria.list();
                 try
                 {
-                    recursiveInitialize(joinPaths, returnedList);
+                    recursiveInitialize(session, joinPaths, returnedList);
                 }
                 catch (OgnlException e)
                 {
@@ -503,6 +1126,93 @@ public class GenericDaoHibernate<T, PK extends Serializable> extends HibernateDa
         });
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @SuppressWarnings("unchecked")
+    public List<T> getDistinctSinglePage(final int firstRow, final int pageSize, final List<JoinPath> joinPaths, final List<Criterion> params, final Order[] orders) {
+        return (List<T>) executeWithShape(QueryShape.of(persistentClass, "getDistinctSinglePage").joinPaths(joinPaths).criteria(params).orders(orders), new HibernateCallback() {
+            public Object doInHibernate(Session session) throws HibernateException, SQLException {
+                ClassMetadata classMetadata = getSessionFactory().getClassMetadata(persistentClass);
+                String idProperty = classMetadata.getIdentifierPropertyName();
+
+                //tahap 1 : ambil primary key root entity saja untuk halaman yang diminta
+                Criteria idCriteria = session.createCriteria(persistentClass);
+                processJoinPath(idCriteria, joinPaths, null);
+
+                if (params != null) {
+                    for (Criterion criterion : params) {
+                        idCriteria.add(criterion);
+                    }
+                }
+
+                //group by id, kolom order diganti aggregate (min untuk asc, max untuk desc) sehingga order ke
+                //property collection tetap menghasilkan satu row per id dan halaman selalu berisi pageSize root
+                ProjectionList projectionList = Projections.projectionList();
+                projectionList.add(Projections.groupProperty(idProperty));
+                if (orders != null) {
+                    for (int i = 0; i < orders.length; i++) {
+                        String property = orderPropertyName(orders[i]);
+                        String alias = "orderValue" + i;
+                        if (isAscending(orders[i])) {
+                            projectionList.add(Projections.min(property), alias);
+                            idCriteria.addOrder(Order.asc(alias));
+                        } else {
+                            projectionList.add(Projections.max(property), alias);
+                            idCriteria.addOrder(Order.desc(alias));
+                        }
+                    }
+                }
+                //id sebagai kolom order terakhir agar urutan antar halaman stabil
+                idCriteria.addOrder(Order.asc(idProperty));
+                idCriteria.setProjection(projectionList);
+
+                if(firstRow>=0)
+                    idCriteria.setFirstResult(firstRow);
+                if(pageSize>=0)
+                    idCriteria.setMaxResults(pageSize);
+
+                Set<Serializable> ids = new LinkedHashSet<Serializable>();
+                for (Object row : idCriteria.list()) {
+                    ids.add((Serializable) (row instanceof Object[] ? ((Object[]) row)[0] : row));
+                }
+                if (ids.isEmpty())
+                    return new ArrayList<T>();
+
+                //tahap 2 : load entity beserta join pathnya dengan query id in (...), dipecah per inClauseChunkSize
+                Map<Serializable, T> entityMap = new HashMap<Serializable, T>();
+                for (List<Serializable> chunk : BatchInitializer.chunk(ids, inClauseChunkSize())) {
+                    Criteria criteria = session.createCriteria(persistentClass);
+                    processJoinPath(criteria, joinPaths, null);
+                    criteria.add(Restrictions.in(idProperty, chunk));
+                    for (Object entity : criteria.list()) {
+                        entityMap.put(classMetadata.getIdentifier(entity, EntityMode.POJO), (T) entity);
+                    }
+                }
+
+                //kembalikan ke urutan hasil tahap 1
+                List<T> returnedList = new ArrayList<T>(ids.size());
+                for (Serializable id : ids) {
+                    T entity = entityMap.get(id);
+                    if (entity != null)
+                        returnedList.add(entity);
+                }
+
+                if (joinPaths != null) {
+                    try
+                    {
+                        recursiveInitialize(session, joinPaths, returnedList);
+                    }
+                    catch (OgnlException e)
+                    {
+                        throw new RuntimeException(e.getMessage());
+                    }
+                }
+                return returnedList;
+            }
+        });
+    }
+
     /**
      * Retrive list dengan criteria dan join path yang diberikan
      * @param joinPaths
@@ -515,200 +1225,415 @@ public class GenericDaoHibernate<T, PK extends Serializable> extends HibernateDa
     }
 
     /**
-     * mentrigger hibernate untuk melakukan extra query untuk lazy propertynya
-     * berguna jika session sudah close, menghindari lazy initialization exception
-     * ini berbeda dengan INNER/OUTER JoinType lho
-     * @param joinPaths
-     * @param rootObj
+     * {@inheritDoc}
      */
-    protected void recursiveInitialize(List<JoinPath> joinPaths, Object rootObj) throws OgnlException
-    {
+    @SuppressWarnings("unchecked")
+    public KeysetPage<T> getKeysetPage(final int pageSize, final List<JoinPath> joinPaths, final List<Criterion> params, final Order[] orders, final KeysetPage.Cursor after) {
+        if (pageSize <= 0)
+            throw new IllegalArgumentException("pageSize harus lebih besar dari 0");
+        return (KeysetPage<T>) executeWithShape(QueryShape.of(persistentClass, "getKeysetPage").joinPaths(joinPaths).criteria(params).orders(orders), new HibernateCallback() {
+            public Object doInHibernate(Session session) throws HibernateException, SQLException {
+                //kolom sort = orders + primary key agar urutan unik
+                String idProperty = getSessionFactory().getClassMetadata(persistentClass).getIdentifierPropertyName();
+                List<String> sortProperties = new ArrayList<String>();
+                List<Boolean> ascending = new ArrayList<Boolean>();
+                if (orders != null) {
+                    for (Order order : orders) {
+                        sortProperties.add(orderPropertyName(order));
+                        ascending.add(isAscending(order));
+                    }
+                }
+                if (!sortProperties.contains(idProperty)) {
+                    sortProperties.add(idProperty);
+                    ascending.add(Boolean.TRUE);
+                }
 
-        Map<String, Object> joinPathMap = new HashMap<String, Object>();
-        Map<String, Object> flatIndex = new HashMap<String, Object>();
-        HashMap parentMap = new HashMap();
-        parentMap.put("alias","this");
-        parentMap.put("joinType", JoinType.LEFT_JOIN);
-        joinPathMap.put("this", parentMap);
-        flatIndex.put("this", parentMap);
+                //join ke collection menggandakan row root, maxResults membatasi row hasil join sehingga
+                //halaman bisa kurang dari pageSize dan cursor null padahal data masih ada
+                String toManyPath = findToManyJoinPath(joinPaths);
+                if (toManyPath != null)
+                    throw new IllegalArgumentException("getKeysetPage tidak mendukung INNER_JOIN/LEFT_JOIN ke collection '" + toManyPath
+                            + "', gunakan FETCH_MODE_SELECT atau getDistinctSinglePage");
 
-        for (JoinPath joinPath : joinPaths)
-        {
-            if(StringUtils.isBlank(joinPath.alias))
-            {
-                //kalo kosong lewati
-/*
-                String[] pathArray = joinPath.path.split("[.]");
-                HashMap mapMember = new HashMap();
-                mapMember.put("joinType", joinPath.joinType);
-                String key = pathArray[pathArray.length - 1];
-                if(flatIndex.get(key)!=null)//ada alias kembar tolak !!
-                {
-                     throw new RuntimeException("Alias dari Join Path :"+key+" terdefinisi lebih dari sekali");
+                Criteria criteria = session.createCriteria(persistentClass);
+                processJoinPath(criteria, joinPaths, null);
+
+                if (params != null) {
+                    for (Criterion criterion : params) {
+                        criteria.add(criterion);
+                    }
                 }
-                flatIndex.put(key, mapMember);
-*/
-            }
-            else
-            {
-                HashMap mapMember = new HashMap();
-                mapMember.put("joinType", joinPath.joinType);
-                String key = joinPath.alias;
-                if(flatIndex.get(key)!=null)//ada alias kembar tolak !!
-                {
-                     throw new RuntimeException("Alias dari Join Path :"+key+" terdefinisi lebih dari sekali");
+
+                if (after != null) {
+                    Object[] afterValues = KeysetCursorCodec.decode(after);
+                    if (afterValues.length != sortProperties.size())
+                        throw new IllegalArgumentException("Cursor tidak sesuai dengan Order yang diberikan: " + after);
+                    criteria.add(keysetRestriction(sortProperties, ascending, afterValues));
                 }
-                flatIndex.put(key, mapMember);
-            }
-        }
-        for (JoinPath joinPath : joinPaths)
-        {
-            String[] pathArray = joinPath.path.split("[.]");
-            if(pathArray.length>1)
-            {
-                //gabung alias ke pathnya
-                //cari parent
-                Map mapParent = (Map) flatIndex.get(pathArray[0]);
-                if(mapParent==null)
-                    continue;
-                //cari alias child
-                Map mapChild;
-                //ambil dari alias dari looping atas
-                if(StringUtils.isNotBlank(joinPath.alias))
-                {
-                    mapChild = (Map) flatIndex.get(joinPath.alias);
+
+                for (int i = 0; i < sortProperties.size(); i++) {
+                    criteria.addOrder(ascending.get(i) ? Order.asc(sortProperties.get(i)) : Order.desc(sortProperties.get(i)));
                 }
-                else
-                {
-                    mapChild = (Map) flatIndex.get(pathArray[1]);
+                //ambil satu row lebih untuk mengetahui masih ada halaman berikutnya
+                criteria.setMaxResults(pageSize + 1);
+
+                List<T> rows = criteria.list();
+                KeysetPage.Cursor nextCursor = null;
+                if (rows.size() > pageSize) {
+                    rows = new ArrayList<T>(rows.subList(0, pageSize));
+                    nextCursor = createCursor(rows.get(pageSize - 1), sortProperties, joinPaths);
+                }
+
+                if (joinPaths != null) {
+                    try
+                    {
+                        recursiveInitialize(session, joinPaths, rows);
+                    }
+                    catch (OgnlException e)
+                    {
+                        throw new RuntimeException(e.getMessage());
+                    }
                 }
-                mapParent.put(pathArray[1], mapChild);
+                return new KeysetPage<T>(rows, nextCursor);
             }
-            else
+        });
+    }
+
+    /**
+     * Restriction "row setelah cursor" untuk kolom sort (k1, k2, .. kn), yaitu
+     * (k1 &gt; v1) or (k1 = v1 and k2 &gt; v2) or ... (untuk desc menggunakan &lt;)
+     */
+    private Criterion keysetRestriction(List<String> sortProperties, List<Boolean> ascending, Object[] values)
+    {
+        Disjunction disjunction = Restrictions.disjunction();
+        for (int i = 0; i < sortProperties.size(); i++)
+        {
+            Conjunction conjunction = Restrictions.conjunction();
+            for (int j = 0; j < i; j++)
             {
-                //gabung alias ke pathnya
-                //cari parent -- this
-                Map mapParent = (Map) flatIndex.get("this");
-                if(mapParent==null)
-                    continue;
-                //cari alias child
-                Map mapChild;
-                //ambil dari alias dari looping atas
-                if(StringUtils.isNotBlank(joinPath.alias))
-                {
-                    mapChild = (Map) flatIndex.get(joinPath.alias);
-                }
-                else
-                {
-                    mapChild = (Map) flatIndex.get(pathArray[0]);
-                }
-                mapParent.put(pathArray[0], mapChild);
+                conjunction.add(Restrictions.eq(sortProperties.get(j), values[j]));
             }
+            if (ascending.get(i))
+                conjunction.add(Restrictions.gt(sortProperties.get(i), values[i]));
+            else
+                conjunction.add(Restrictions.lt(sortProperties.get(i), values[i]));
+            disjunction.add(conjunction);
+        }
+        return disjunction;
+    }
+
+    /**
+     * Path INNER_JOIN/LEFT_JOIN pertama yang melewati collection (one-to-many/many-to-many)
+     *
+     * @return path dari root entity, null jika semua join ke single entity
+     */
+    protected String findToManyJoinPath(List<JoinPath> joinPaths)
+    {
+        if (joinPaths == null)
+            return null;
+        Map<String, String> aliasPaths = aliasPaths(joinPaths);
+        for (JoinPath joinPath : joinPaths)
+        {
+            if (joinPath.joinType != JoinType.INNER_JOIN && joinPath.joinType != JoinType.LEFT_JOIN)
+                continue;
+            String rootPath = resolveAliasPath(joinPath.path, aliasPaths, 0);
+            if (isToManyPath(rootPath))
+                return rootPath;
         }
-        if(cleanUp((Map<String, Object>) joinPathMap.get("this")))
+        return null;
+    }
+
+    private boolean isToManyPath(String rootPath)
+    {
+        ClassMetadata classMetadata = getSessionFactory().getClassMetadata(persistentClass);
+        for (String property : rootPath.split("[.]"))
         {
-            if (Collection.class.isAssignableFrom(rootObj.getClass()))
+            if (classMetadata == null || property.equals(classMetadata.getIdentifierPropertyName()))
+                return false;
+            Type type;
+            try
             {
-                for (Object rootObjIter : ((Collection) rootObj))
-                {
-                    recursiveInitialize((Map<String, Object>) joinPathMap.get("this"), rootObjIter, true);
-                }
+                type = classMetadata.getPropertyType(property);
             }
-            else
+            catch (HibernateException e)
             {
-                recursiveInitialize((Map<String, Object>) joinPathMap.get("this"), rootObj, false);
+                //property component/tidak dikenal, biarkan Criteria yang melaporkan
+                return false;
             }
+            if (type.isCollectionType())
+                return true;
+            if (!type.isEntityType())
+                return false;
+            classMetadata = getSessionFactory().getClassMetadata(((EntityType) type).getAssociatedEntityName());
         }
+        return false;
     }
 
-    private boolean cleanUp(Map<String, Object> joinPathMap)
+    private Map<String, String> aliasPaths(List<JoinPath> joinPaths)
     {
-        if(joinPathMap==null)
-            return false;
-        //traverse sampai ke node
-        List<String> deletedList = new ArrayList<String>();
-        //check type
-        JoinType joinType = (JoinType) joinPathMap.get("joinType");
-        boolean returnValue = joinType.equals(JoinType.FETCH_MODE_SELECT);
-        for (String key : joinPathMap.keySet())
-        {
-            if(key.equals("alias") || key.equals("joinType"))
-                continue;
-
-            Map mapChild = (Map) joinPathMap.get(key);
-            //hanya sisakan yang fetch select
-            if(!cleanUp(mapChild))
-                deletedList.add(key);
-            else
-                returnValue = true;
+        Map<String, String> aliasPaths = new HashMap<String, String>();
+        if (joinPaths != null) {
+            for (JoinPath joinPath : joinPaths) {
+                if (StringUtils.isNotBlank(joinPath.alias) && StringUtils.isNotBlank(joinPath.path))
+                    aliasPaths.put(joinPath.alias, joinPath.path);
+            }
         }
-        for (String key : deletedList)
+        return aliasPaths;
+    }
+
+    /**
+     * Baca nilai kolom sort dari row terakhir. Property yang memakai alias JoinPath
+     * (misal cabang.nama) diterjemahkan dulu menjadi path dari root entity, lalu dibaca lewat
+     * getter yang di-cache per path (tanpa parsing OGNL per halaman)
+     */
+    private KeysetPage.Cursor createCursor(Object lastRow, List<String> sortProperties, List<JoinPath> joinPaths)
+    {
+        Map<String, String> aliasPaths = aliasPaths(joinPaths);
+        Object[] values = new Object[sortProperties.size()];
+        for (int i = 0; i < sortProperties.size(); i++)
         {
-            joinPathMap.remove(key);
+            String property = sortProperties.get(i);
+            values[i] = PropertyGetter.getPathValue(lastRow, resolveAliasPath(property, aliasPaths, 0));
+            if (values[i] == null)
+                throw new IllegalStateException("Kolom sort keyset '" + property + "' bernilai null pada " + lastRow);
         }
-        return returnValue;
+        return KeysetCursorCodec.encode(values);
+    }
+
+    private String resolveAliasPath(String property, Map<String, String> aliasPaths, int depth)
+    {
+        int dot = property.indexOf('.');
+        if (dot < 0)
+            return property;
+        String head = property.substring(0, dot);
+        String rest = property.substring(dot + 1);
+        if (head.equals("this"))
+            return rest;
+        String aliasPath = aliasPaths.get(head);
+        if (aliasPath == null || depth > aliasPaths.size())
+            return property;
+        return resolveAliasPath(aliasPath, aliasPaths, depth + 1) + "." + rest;
+    }
+
+    /**
+     * Nama property dari Order, Hibernate 3.2 tidak menyediakan getter sehingga diambil dari
+     * toString() dengan format "propertyName asc|desc"
+     */
+    protected static String orderPropertyName(Order order)
+    {
+        String orderString = order.toString();
+        return orderString.substring(0, orderString.lastIndexOf(' '));
+    }
+
+    protected static boolean isAscending(Order order)
+    {
+        return order.toString().endsWith(" asc");
+    }
+
+    /**
+     * mentrigger hibernate untuk melakukan extra query untuk lazy propertynya
+     * berguna jika session sudah close, menghindari lazy initialization exception
+     * ini berbeda dengan INNER/OUTER JoinType lho
+     * @param joinPaths
+     * @param rootObj
+     * @throws OgnlException tidak pernah dilempar lagi (join path tidak dievaluasi dengan OGNL),
+     *         dipertahankan agar subclass yang meng-override dan pemanggil yang menangkapnya tetap compile
+     */
+    protected void recursiveInitialize(List<JoinPath> joinPaths, Object rootObj) throws OgnlException
+    {
+        recursiveInitialize(null, joinPaths, rootObj);
     }
 
-    private void recursiveInitialize(Map<String, Object> joinPath, Object parentObject, boolean isCollection) throws OgnlException
+    /**
+     * Sama dengan {@link #recursiveInitialize(java.util.List, Object)}, tetapi proxy dan collection
+     * di-initialize per level join path untuk seluruh rootObj sekaligus dengan query <code>in (...)</code>
+     * (lihat {@link BatchInitializer}), jumlah query tergantung jumlah level, bukan jumlah row
+     * @param session session tempat rootObj di-load, jika null di-initialize satu per satu
+     * @param joinPaths
+     * @param rootObj entity atau collection of entity
+     * @throws OgnlException tidak pernah dilempar lagi, lihat {@link #recursiveInitialize(java.util.List, Object)}
+     */
+    protected void recursiveInitialize(Session session, List<JoinPath> joinPaths, Object rootObj) throws OgnlException
     {
-        for (String key : joinPath.keySet())
+        //plan di-compile sekali per kombinasi join path lalu dipakai ulang
+        JoinPathInitializationPlan plan = JoinPathInitializationPlan.compile(joinPaths);
+        if (plan.isEmpty() || rootObj == null)
+            return;
+
+        List<Object> rootList = new ArrayList<Object>();
+        if (Collection.class.isAssignableFrom(rootObj.getClass()))
         {
-            if (key.equals("alias") || key.equals("joinType"))
-                continue;
+            rootList.addAll((Collection) rootObj);
+        }
+        else
+        {
+            rootList.add(rootObj);
+        }
+        plan.initialize(session, rootList, batchInitializer());
+    }
 
-            if (!isCollection && Collection.class.isAssignableFrom(parentObject.getClass()))
-            {
-                Map mapChild = (Map) joinPath.get(key);
-                for (Object objIter : ((Collection) parentObject))
-                {
-                    recursiveInitialize(mapChild, objIter, true);
-                }
+    public List<T> searchByCriteria(SearchCriteria searchCriteria, final int firstResult, final int maxResults){
+        QueryShape previous = QueryShape.enter(QueryShape.of(persistentClass, "searchByCriteria").searchCriteria(searchCriteria));
+        try {
+            Criteria criteria = constuctCriteria(searchCriteria, true);
+            log.info("search criteria "+firstResult+" "+maxResults);
+
+            if ( firstResult >= 0 ){
+                log.info("x1");
+                criteria.setFirstResult(firstResult);
             }
-            else
-            {
-                Object prop = null;
-                try
-                {
-                    prop = Ognl.getValue(key, parentObject);
-                    Hibernate.initialize(prop);
-                    Map mapChild = (Map) joinPath.get(key);
-                    recursiveInitialize(mapChild, prop, false);
-                }
-                catch (Exception e)
-                {
-                    //not error
-                }
+            if (maxResults > 0) {
+                log.info("x2");
+                criteria.setMaxResults(10);
             }
+            criteria.setResultTransformer(Criteria.DISTINCT_ROOT_ENTITY);
+            List list = criteria.list();
+            log.info("hasil = "+list.size());
+            return list;
+        } finally {
+            QueryShape.exit(previous);
         }
+    }
+
+    public Integer searchByCriteriaCount(SearchCriteria searchCriteria){
+        QueryShape previous = QueryShape.enter(QueryShape.of(persistentClass, "searchByCriteriaCount").searchCriteria(searchCriteria));
+        try {
+            Criteria criteria = constuctCriteria(searchCriteria, false);
+            criteria.setResultTransformer(Criteria.DISTINCT_ROOT_ENTITY);
+            criteria.setProjection(Projections.rowCount());
 
+            return (Integer) criteria.uniqueResult();
+        } finally {
+            QueryShape.exit(previous);
+        }
     }
+    
 
-    public List<T> searchByCriteria(SearchCriteria searchCriteria, final int firstResult, final int maxResults){
-        Criteria criteria = constuctCriteria(searchCriteria, true);
-        log.info("search criteria "+firstResult+" "+maxResults);
+    /**
+     * {@inheritDoc}
+     */
+    public int stream(final SearchCriteria searchCriteria, final RowHandler<T> rowHandler) {
+        return (Integer) executeWithShape(QueryShape.of(persistentClass, "stream").searchCriteria(searchCriteria), new HibernateCallback() {
+            public Object doInHibernate(Session session) throws HibernateException, SQLException {
+                Criteria criteria = session.createCriteria(persistentClass);
+                if (searchCriteria != null)
+                    constuctCriteria(searchCriteria, criteria, true);
+                return scroll(session, criteria, rowHandler);
+            }
+        });
+    }
 
-        if ( firstResult >= 0 ){
-            log.info("x1");
-            criteria.setFirstResult(firstResult);
+    /**
+     * {@inheritDoc}
+     */
+    public int scroll(final List<JoinPath> joinPaths, final List<Criterion> params, final Order[] orders, final RowHandler<T> rowHandler) {
+        return (Integer) executeWithShape(QueryShape.of(persistentClass, "scroll").joinPaths(joinPaths).criteria(params).orders(orders), new HibernateCallback() {
+            public Object doInHibernate(Session session) throws HibernateException, SQLException {
+                //join ke collection menggandakan row root, hasil scroll tidak bisa dibuat distinct
+                String toManyPath = findToManyJoinPath(joinPaths);
+                if (toManyPath != null)
+                    throw new IllegalArgumentException("scroll tidak mendukung INNER_JOIN/LEFT_JOIN ke collection '" + toManyPath
+                            + "', gunakan FETCH_MODE_SELECT atau subquery");
+
+                Criteria criteria = session.createCriteria(persistentClass);
+
+                processJoinPath(criteria, joinPaths, null);
+
+                if (params != null) {
+                    for (Criterion criterion : params) {
+                        criteria.add(criterion);
+                    }
+                }
+
+                if (orders != null) {
+                    for (Order order : orders) {
+                        criteria.addOrder(order);
+                    }
+                }
+                return scroll(session, criteria, rowHandler);
+            }
+        });
+    }
+
+    /**
+     * Jalankan criteria dengan cursor forward-only, setiap row dievict dari session setelah diproses.
+     * Entity lain yang ikut ter-load (relasi lewat join path, lazy load di rowHandler) dievict setiap
+     * batchSize row; entity yang sudah ada di session sebelum scroll tidak disentuh.
+     * Row yang sama dengan row sebelumnya (join ke collection pada stream) dilewati.
+     * @param session
+     * @param criteria
+     * @param rowHandler
+     * @return jumlah row yang diproses
+     */
+    @SuppressWarnings("unchecked")
+    private int scroll(Session session, Criteria criteria, RowHandler<T> rowHandler)
+    {
+        criteria.setFetchSize(StreamFetchSize.resolve(getSessionFactory(), streamFetchSize));
+        criteria.setCacheMode(CacheMode.IGNORE);
+        PersistenceContext persistenceContext = ((SessionImplementor) session).getPersistenceContext();
+        Set<Object> existingKeys = new HashSet<Object>(persistenceContext.getEntitiesByKey().keySet());
+        ClassMetadata classMetadata = getSessionFactory().getClassMetadata(persistentClass);
+        int count = 0;
+        Serializable previousId = null;
+        ScrollableResults results = criteria.scroll(ScrollMode.FORWARD_ONLY);
+        try
+        {
+            while (results.next())
+            {
+                T row = (T) results.get(0);
+                Serializable id = classMetadata.getIdentifier(row, EntityMode.POJO);
+                if (id != null && id.equals(previousId))
+                    continue;
+                previousId = id;
+                rowHandler.handleRow(row);
+                session.evict(row);
+                count++;
+                if (count % batchSize == 0)
+                    evictLoadedEntities(session, persistenceContext, existingKeys);
+            }
         }
-        if (maxResults > 0) {
-            log.info("x2");
-            criteria.setMaxResults(10);
+        finally
+        {
+            results.close();
         }
-        criteria.setResultTransformer(Criteria.DISTINCT_ROOT_ENTITY);
-        List list = criteria.list();
-        log.info("hasil = "+list.size());
-        return list;
+        evictLoadedEntities(session, persistenceContext, existingKeys);
+        return count;
     }
 
-    public Integer searchByCriteriaCount(SearchCriteria searchCriteria){
-        Criteria criteria = constuctCriteria(searchCriteria, false);
-        criteria.setResultTransformer(Criteria.DISTINCT_ROOT_ENTITY);
-        criteria.setProjection(Projections.rowCount());
+    /**
+     * Evict entity (beserta collection-nya) yang masuk ke session setelah existingKeys dicatat
+     */
+    private void evictLoadedEntities(Session session, PersistenceContext persistenceContext, Set<Object> existingKeys)
+    {
+        List<Object> loaded = new ArrayList<Object>();
+        for (Object entry : persistenceContext.getEntitiesByKey().entrySet())
+        {
+            Map.Entry entityEntry = (Map.Entry) entry;
+            if (!existingKeys.contains(entityEntry.getKey()))
+                loaded.add(entityEntry.getValue());
+        }
+        for (Object entity : loaded)
+        {
+            session.evict(entity);
+        }
+    }
 
-        return (Integer) criteria.uniqueResult();
+    /**
+     * Jalankan callback dengan {@link QueryShape} terpasang, sehingga statement yang dihasilkan
+     * (termasuk recursiveInitialize dan lazy load di dalamnya) tercatat berasal dari method ini
+     */
+    protected Object executeWithShape(QueryShape shape, HibernateCallback callback)
+    {
+        QueryShape previous = QueryShape.enter(shape);
+        try
+        {
+            return getHibernateTemplate().execute(callback);
+        }
+        finally
+        {
+            QueryShape.exit(previous);
+        }
     }
-    
 
     protected Criteria constuctCriteria(SearchCriteria searchCriteria, boolean withOrder)
     {
@@ -721,7 +1646,7 @@ public class GenericDaoHibernate<T, PK extends Serializable> extends HibernateDa
         return criteria;
     }
 
-    private void constuctCriteria(SearchCriteria searchCriteria, Criteria criteria, boolean withOrder)
+    static void constuctCriteria(SearchCriteria searchCriteria, Criteria criteria, boolean withOrder)
     {
         if ( searchCriteria.getCriterionList() != null ){
             for (Criterion criterion : searchCriteria.getCriterionList()) {
@@ -752,6 +1677,147 @@ public class GenericDaoHibernate<T, PK extends Serializable> extends HibernateDa
     public void clearCache(){
         getSession().clear();
     }
+
+    /**
+     * {@inheritDoc}
+     */
+    public Class<T> getPersistentClass() {
+        return persistentClass;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @SuppressWarnings("unchecked")
+    public PK getId(T object) {
+        return (PK) getSessionFactory().getClassMetadata(persistentClass).getIdentifier(object, EntityMode.POJO);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public Serializable disassemble(final T object) {
+        return (Serializable) super.getHibernateTemplate().execute(new HibernateCallback() {
+            public Object doInHibernate(Session session) throws HibernateException, SQLException
+            {
+                SessionImplementor sessionImplementor = (SessionImplementor) session;
+                EntityEntry entry = sessionImplementor.getPersistenceContext().getEntry(object);
+                if (entry == null || isRemoved(sessionImplementor, object))
+                    return null;
+                EntityPersister persister = entry.getPersister();
+                //entity read-only tidak menyimpan snapshot, pakai state saat ini
+                Object[] state = entry.getLoadedState() != null
+                        ? entry.getLoadedState() : persister.getPropertyValues(object, EntityMode.POJO);
+                return new CacheEntry(state, persister, entry.isLoadedWithLazyPropertiesUnfetched(),
+                        entry.getVersion(), sessionImplementor, object);
+            }
+        });
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p/>
+     * Langkahnya sama dengan DefaultLoadEventListener saat entity diambil dari second-level cache, termasuk
+     * snapshot untuk dirty checking dan post-load listener (entity ditandai read-only pada transaksi read-only).
+     */
+    @SuppressWarnings("unchecked")
+    public T assemble(final PK id, final Serializable state) {
+        return (T) super.getHibernateTemplate().execute(new HibernateCallback() {
+            public Object doInHibernate(Session session) throws HibernateException, SQLException
+            {
+                EventSource eventSource = (EventSource) session;
+                PersistenceContext persistenceContext = eventSource.getPersistenceContext();
+                CacheEntry cacheEntry = (CacheEntry) state;
+                EntityPersister persister = eventSource.getFactory().getEntityPersister(cacheEntry.getSubclass());
+                EntityKey key = new EntityKey(id, persister, EntityMode.POJO);
+                Object existing = persistenceContext.getEntity(key);
+                if (existing != null)
+                    return isRemoved(eventSource, existing) ? null : existing;
+                //proxy yang sudah ada harus di-initialize dengan instance milik session, serahkan ke session.get
+                if (persistenceContext.getProxy(key) != null)
+                    return null;
+
+                Object result = eventSource.instantiate(persister, id);
+                TwoPhaseLoad.addUninitializedCachedEntity(key, result, persister, LockMode.NONE,
+                        cacheEntry.areLazyPropertiesUnfetched(), cacheEntry.getVersion(), eventSource);
+                Object[] values = cacheEntry.assemble(result, id, persister, eventSource.getInterceptor(), eventSource);
+                //snapshot dirty checking terpisah dari value yang dipasang ke entity
+                TypeFactory.deepCopy(values, persister.getPropertyTypes(), persister.getPropertyUpdateability(), values, eventSource);
+                Object version = Versioning.getVersion(values, persister);
+                persistenceContext.addEntry(result, Status.MANAGED, values, null, id, version, LockMode.NONE, true,
+                        persister, false, cacheEntry.areLazyPropertiesUnfetched());
+                persister.afterInitialize(result, cacheEntry.areLazyPropertiesUnfetched(), eventSource);
+                persistenceContext.initializeNonLazyCollections();
+
+                PostLoadEvent postLoadEvent = new PostLoadEvent(eventSource).setEntity(result).setId(id).setPersister(persister);
+                for (PostLoadEventListener listener : eventSource.getListeners().getPostLoadEventListeners()) {
+                    listener.onPostLoad(postLoadEvent);
+                }
+                return result;
+            }
+        });
+    }
+
+    /**
+     * Aktifkan cache off-heap untuk get(PK) dan getAll, khusus entity referensi yang jarang berubah.
+     * Entity harus Serializable; setiap get dan getAll, baik hit maupun miss, menghasilkan salinan baru yang
+     * tidak terhubung ke session: perubahan pada hasilnya tidak ikut di-flush (simpan lewat save/update),
+     * relasi lazy yang belum di-initialize tidak bisa diakses. Entry dibuang setiap ada write lewat DAO ini,
+     * entity yang dibaca sebelum write tersebut tidak disimpan.
+     *
+     * @param offHeapEntityCache cache khusus DAO ini
+     */
+    public void setOffHeapEntityCache(OffHeapEntityCache offHeapEntityCache) {
+        this.offHeapEntityCache = offHeapEntityCache;
+    }
+
+    /**
+     * Set jumlah object per flush/clear pada saveAll dan insertAll
+     *
+     * @param batchSize jumlah object per batch, default 50
+     */
+    public void setBatchSize(int batchSize) {
+        if (batchSize <= 0)
+            throw new IllegalArgumentException("batchSize harus lebih besar dari 0");
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Set fetch size untuk stream dan scroll. Default Integer.MIN_VALUE (mode streaming) untuk dialect MySQL,
+     * 100 untuk database lain.
+     *
+     * @param streamFetchSize JDBC fetch size
+     */
+    public void setStreamFetchSize(int streamFetchSize) {
+        this.streamFetchSize = streamFetchSize;
+    }
+
+    /**
+     * Set jumlah maksimal parameter dalam satu query <code>in (...)</code>, dipakai getMany, existsAll, removeAll,
+     * update(ids), getDistinctSinglePage dan batch initialize join path FETCH_MODE_SELECT.
+     * Default sesuai dialect: 1000 untuk Oracle, 2000 untuk SQL Server/Sybase, 500 untuk database lain.
+     *
+     * @param inClauseChunkSize jumlah id per query
+     */
+    public void setInClauseChunkSize(int inClauseChunkSize) {
+        if (inClauseChunkSize <= 0)
+            throw new IllegalArgumentException("inClauseChunkSize harus lebih besar dari 0");
+        this.batchInitializer = new BatchInitializer(inClauseChunkSize);
+        this.inClauseChunkSize = inClauseChunkSize;
+    }
+
+    protected int inClauseChunkSize() {
+        return InClauseChunkSize.resolve(getSessionFactory(), inClauseChunkSize);
+    }
+
+    private BatchInitializer batchInitializer() {
+        BatchInitializer initializer = batchInitializer;
+        if (initializer == null) {
+            initializer = new BatchInitializer(inClauseChunkSize());
+            batchInitializer = initializer;
+        }
+        return initializer;
+    }
     /*
     public static void main(String[] args)
     {
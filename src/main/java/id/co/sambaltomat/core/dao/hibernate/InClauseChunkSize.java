@@ -0,0 +1,51 @@
+package id.co.sambaltomat.core.dao.hibernate;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.dialect.SybaseDialect;
+import org.hibernate.engine.SessionFactoryImplementor;
+
+/**
+ * Jumlah maksimal id dalam satu <code>in (...)</code> sesuai batas database:
+ * Oracle menolak lebih dari 1000 item dalam satu in-list (ORA-01795), SQL Server dan Sybase
+ * menolak lebih dari 2100 parameter per statement (disisakan untuk parameter criteria lain).
+ * Database lain tidak punya batas praktis, dipakai {@link #DEFAULT_CHUNK_SIZE}.
+ */
+final class InClauseChunkSize {
+    static final int DEFAULT_CHUNK_SIZE = 500;
+    static final int ORACLE_CHUNK_SIZE = 1000;
+    static final int SQL_SERVER_CHUNK_SIZE = 2000;
+
+    private InClauseChunkSize() {
+    }
+
+    /**
+     * @param configured chunk size yang di-set lewat property, null jika tidak di-set
+     * @return configured, atau chunk size sesuai dialect sessionFactory
+     */
+    static int resolve(SessionFactory sessionFactory, Integer configured) {
+        if (configured != null)
+            return configured;
+        if (!(sessionFactory instanceof SessionFactoryImplementor))
+            return DEFAULT_CHUNK_SIZE;
+        Dialect dialect = ((SessionFactoryImplementor) sessionFactory).getDialect();
+        if (isOracle(dialect))
+            return ORACLE_CHUNK_SIZE;
+        //SQLServerDialect turunan SybaseDialect
+        if (dialect instanceof SybaseDialect)
+            return SQL_SERVER_CHUNK_SIZE;
+        return DEFAULT_CHUNK_SIZE;
+    }
+
+    /**
+     * Dialect Oracle tidak punya satu parent yang sama di semua versi Hibernate 3
+     * (OracleDialect/Oracle9Dialect, Oracle8iDialect/Oracle9iDialect/Oracle10gDialect), cek dari nama class
+     */
+    private static boolean isOracle(Dialect dialect) {
+        for (Class<?> type = dialect.getClass(); type != null; type = type.getSuperclass()) {
+            if (type.getName().startsWith("org.hibernate.dialect.Oracle"))
+                return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,200 @@
+package id.co.sambaltomat.core.dao.hibernate;
+
+import id.co.sambaltomat.core.dao.GenericDao.JoinPath;
+import id.co.sambaltomat.core.dao.GenericDao.JoinType;
+import org.apache.commons.lang.StringUtils;
+import org.hibernate.Session;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Rencana initialize join path FETCH_MODE_SELECT yang sudah di-compile.
+ * <p/>
+ * List&lt;JoinPath&gt; diterjemahkan sekali menjadi tree property (hanya cabang yang mengandung
+ * FETCH_MODE_SELECT) lalu di-cache berdasarkan signature join path (path, alias, joinType).
+ * Getter setiap property di-resolve sekali per class dan disimpan di node, sehingga pemanggilan
+ * berikutnya tidak membangun map dan tidak mem-parse expression OGNL lagi.
+ *
+ * @see GenericDaoHibernate#recursiveInitialize(org.hibernate.Session, java.util.List, Object)
+ */
+public final class JoinPathInitializationPlan {
+    private static final int MAX_CACHED_PLANS = 1000;
+    private static final Map<String, JoinPathInitializationPlan> planCache = new ConcurrentHashMap<String, JoinPathInitializationPlan>();
+    private static final JoinPathInitializationPlan EMPTY = new JoinPathInitializationPlan(new Node[0]);
+
+    private final Node[] roots;
+
+    private JoinPathInitializationPlan(Node[] roots) {
+        this.roots = roots;
+    }
+
+    /**
+     * Ambil plan dari cache atau compile jika belum ada
+     *
+     * @param joinPaths join path, boleh null
+     * @return plan, tidak pernah null
+     */
+    public static JoinPathInitializationPlan compile(List<JoinPath> joinPaths) {
+        if (joinPaths == null || joinPaths.isEmpty())
+            return EMPTY;
+        String signature = signature(joinPaths);
+        JoinPathInitializationPlan plan = planCache.get(signature);
+        if (plan == null) {
+            plan = build(joinPaths);
+            if (planCache.size() >= MAX_CACHED_PLANS)
+                planCache.clear();
+            planCache.put(signature, plan);
+        }
+        return plan;
+    }
+
+    /**
+     * @return true jika tidak ada join path FETCH_MODE_SELECT yang perlu di-initialize
+     */
+    public boolean isEmpty() {
+        return roots.length == 0;
+    }
+
+    /**
+     * Initialize seluruh level plan untuk semua rootObjects, satu level sekaligus
+     *
+     * @param session session tempat rootObjects di-load, boleh null
+     * @param rootObjects entity root
+     * @param batchInitializer
+     */
+    public void initialize(Session session, List<?> rootObjects, BatchInitializer batchInitializer) {
+        initialize(session, roots, rootObjects, batchInitializer);
+    }
+
+    private static void initialize(Session session, Node[] nodes, List<?> parents, BatchInitializer batchInitializer) {
+        for (Node node : nodes) {
+            List<Object> values = new ArrayList<Object>();
+            for (Object parent : parents) {
+                Object value = node.getValue(parent);
+                if (value != null)
+                    values.add(value);
+            }
+            if (values.isEmpty())
+                continue;
+
+            batchInitializer.initialize(session, values);
+
+            if (node.children.length == 0)
+                continue;
+            //parent level berikutnya, isi collection dijadikan satu list
+            List<Object> children = new ArrayList<Object>();
+            for (Object value : values) {
+                if (value instanceof Collection)
+                    children.addAll((Collection<?>) value);
+                else
+                    children.add(value);
+            }
+            initialize(session, node.children, children, batchInitializer);
+        }
+    }
+
+    private static String signature(List<JoinPath> joinPaths) {
+        StringBuilder signature = new StringBuilder();
+        for (JoinPath joinPath : joinPaths) {
+            signature.append(joinPath.path).append('|')
+                    .append(joinPath.alias).append('|')
+                    .append(joinPath.joinType).append(';');
+        }
+        return signature.toString();
+    }
+
+    /**
+     * Susun tree alias -&gt; property seperti pada recursiveInitialize versi OGNL:
+     * path "alias.property" digantungkan ke node alias, path tanpa titik digantungkan ke root (this)
+     */
+    private static JoinPathInitializationPlan build(List<JoinPath> joinPaths) {
+        Map<String, MutableNode> flatIndex = new LinkedHashMap<String, MutableNode>();
+        MutableNode root = new MutableNode(JoinType.LEFT_JOIN);
+        flatIndex.put("this", root);
+
+        for (JoinPath joinPath : joinPaths) {
+            //kalo alias kosong lewati
+            if (StringUtils.isNotBlank(joinPath.alias)) {
+                if (flatIndex.get(joinPath.alias) != null)//ada alias kembar tolak !!
+                {
+                    throw new RuntimeException("Alias dari Join Path :" + joinPath.alias + " terdefinisi lebih dari sekali");
+                }
+                flatIndex.put(joinPath.alias, new MutableNode(joinPath.joinType));
+            }
+        }
+        for (JoinPath joinPath : joinPaths) {
+            if (joinPath.path == null)
+                continue;
+            String[] pathArray = joinPath.path.split("[.]");
+            MutableNode parent;
+            String property;
+            if (pathArray.length > 1) {
+                parent = flatIndex.get(pathArray[0]);
+                property = pathArray[1];
+            } else {
+                parent = root;
+                property = pathArray[0];
+            }
+            if (parent == null)
+                continue;
+            MutableNode child = StringUtils.isNotBlank(joinPath.alias)
+                    ? flatIndex.get(joinPath.alias)
+                    : flatIndex.get(property);
+            parent.children.put(property, child);
+        }
+
+        Node[] roots = freeze(root, 0, flatIndex.size());
+        return roots.length == 0 ? EMPTY : new JoinPathInitializationPlan(roots);
+    }
+
+    /**
+     * Hanya sisakan cabang yang mengandung FETCH_MODE_SELECT (pengganti cleanUp)
+     */
+    private static Node[] freeze(MutableNode node, int depth, int maxDepth) {
+        if (depth > maxDepth)
+            throw new RuntimeException("Join Path membentuk siklus alias");
+        List<Node> kept = new ArrayList<Node>();
+        for (Map.Entry<String, MutableNode> entry : node.children.entrySet()) {
+            MutableNode child = entry.getValue();
+            if (child == null)
+                continue;
+            Node[] grandChildren = freeze(child, depth + 1, maxDepth);
+            if (child.joinType == JoinType.FETCH_MODE_SELECT || grandChildren.length > 0)
+                kept.add(new Node(entry.getKey(), grandChildren));
+        }
+        return kept.toArray(new Node[kept.size()]);
+    }
+
+    private static class MutableNode {
+        final JoinType joinType;
+        final Map<String, MutableNode> children = new LinkedHashMap<String, MutableNode>();
+
+        MutableNode(JoinType joinType) {
+            this.joinType = joinType;
+        }
+    }
+
+    /**
+     * Satu property pada tree, getter di-resolve sekali per class parent
+     */
+    private static class Node {
+        final String property;
+        final Node[] children;
+        final PropertyGetter getter;
+
+        Node(String property, Node[] children) {
+            this.property = property;
+            this.children = children;
+            this.getter = new PropertyGetter(property);
+        }
+
+        Object getValue(Object parent) {
+            return getter.getValue(parent);
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package id.co.sambaltomat.core.dao.hibernate;
+
+import id.co.sambaltomat.core.dao.KeysetPage;
+
+import javax.xml.bind.DatatypeConverter;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.util.Date;
+
+/**
+ * Menyandikan nilai kolom sort keyset menjadi {@link KeysetPage.Cursor} (token base64 url-safe) dan sebaliknya.
+ * <p/>
+ * Token dikirim ke client (parameter URL) dan diterima kembali, sehingga tidak memakai Java serialization:
+ * setiap nilai ditulis dengan tag tipenya dan hanya tipe sort key biasa yang diterima (String, angka, boolean,
+ * tanggal, enum). Token yang diubah client hanya menghasilkan posisi halaman lain, nilainya selalu di-bind
+ * sebagai parameter query.
+ */
+final class KeysetCursorCodec {
+    private static final byte VERSION = 1;
+
+    private static final byte STRING = 1;
+    private static final byte LONG = 2;
+    private static final byte INTEGER = 3;
+    private static final byte SHORT = 4;
+    private static final byte BYTE = 5;
+    private static final byte DOUBLE = 6;
+    private static final byte FLOAT = 7;
+    private static final byte BOOLEAN = 8;
+    private static final byte CHARACTER = 9;
+    private static final byte BIG_DECIMAL = 10;
+    private static final byte BIG_INTEGER = 11;
+    private static final byte DATE = 12;
+    private static final byte SQL_DATE = 13;
+    private static final byte TIME = 14;
+    private static final byte TIMESTAMP = 15;
+    private static final byte ENUM = 16;
+
+    private KeysetCursorCodec() {
+    }
+
+    /**
+     * @param values nilai kolom sort row terakhir, tidak boleh null
+     * @throws IllegalStateException jika tipe nilai tidak bisa disimpan di cursor
+     */
+    static KeysetPage.Cursor encode(Object[] values) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeByte(VERSION);
+            out.writeShort(values.length);
+            for (Object value : values) {
+                write(out, value);
+            }
+            out.close();
+            String token = DatatypeConverter.printBase64Binary(bytes.toByteArray());
+            return KeysetPage.Cursor.valueOf(token.replace('+', '-').replace('/', '_'));
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * @return nilai kolom sort yang disimpan cursor
+     * @throws IllegalArgumentException jika cursor tidak dibuat oleh {@link #encode(Object[])}
+     */
+    static Object[] decode(KeysetPage.Cursor cursor) {
+        try {
+            byte[] bytes = DatatypeConverter.parseBase64Binary(cursor.toString().replace('-', '+').replace('_', '/'));
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+            if (in.readByte() != VERSION)
+                throw new IllegalArgumentException("Cursor tidak valid: " + cursor);
+            Object[] values = new Object[in.readShort()];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = read(in);
+            }
+            if (in.read() != -1)
+                throw new IllegalArgumentException("Cursor tidak valid: " + cursor);
+            return values;
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Cursor tidak valid: " + cursor, e);
+        } catch (RuntimeException e) {
+            if (e instanceof IllegalArgumentException)
+                throw e;
+            throw new IllegalArgumentException("Cursor tidak valid: " + cursor, e);
+        }
+    }
+
+    private static void write(DataOutputStream out, Object value) throws IOException {
+        if (value instanceof String) {
+            out.writeByte(STRING);
+            out.writeUTF((String) value);
+        } else if (value instanceof Long) {
+            out.writeByte(LONG);
+            out.writeLong((Long) value);
+        } else if (value instanceof Integer) {
+            out.writeByte(INTEGER);
+            out.writeInt((Integer) value);
+        } else if (value instanceof Short) {
+            out.writeByte(SHORT);
+            out.writeShort((Short) value);
+        } else if (value instanceof Byte) {
+            out.writeByte(BYTE);
+            out.writeByte((Byte) value);
+        } else if (value instanceof Double) {
+            out.writeByte(DOUBLE);
+            out.writeDouble((Double) value);
+        } else if (value instanceof Float) {
+            out.writeByte(FLOAT);
+            out.writeFloat((Float) value);
+        } else if (value instanceof Boolean) {
+            out.writeByte(BOOLEAN);
+            out.writeBoolean((Boolean) value);
+        } else if (value instanceof Character) {
+            out.writeByte(CHARACTER);
+            out.writeChar((Character) value);
+        } else if (value instanceof BigDecimal) {
+            out.writeByte(BIG_DECIMAL);
+            out.writeUTF(value.toString());
+        } else if (value instanceof BigInteger) {
+            out.writeByte(BIG_INTEGER);
+            out.writeUTF(value.toString());
+        } else if (value instanceof Timestamp) {
+            out.writeByte(TIMESTAMP);
+            out.writeLong(((Timestamp) value).getTime());
+            out.writeInt(((Timestamp) value).getNanos());
+        } else if (value instanceof Time) {
+            out.writeByte(TIME);
+            out.writeLong(((Time) value).getTime());
+        } else if (value instanceof java.sql.Date) {
+            out.writeByte(SQL_DATE);
+            out.writeLong(((java.sql.Date) value).getTime());
+        } else if (value instanceof Date) {
+            out.writeByte(DATE);
+            out.writeLong(((Date) value).getTime());
+        } else if (value instanceof Enum) {
+            out.writeByte(ENUM);
+            out.writeUTF(((Enum<?>) value).getDeclaringClass().getName());
+            out.writeUTF(((Enum<?>) value).name());
+        } else {
+            throw new IllegalStateException("Tipe kolom sort keyset tidak didukung cursor: " + value.getClass().getName());
+        }
+    }
+
+    private static Object read(DataInputStream in) throws IOException {
+        byte tag = in.readByte();
+        switch (tag) {
+            case STRING:
+                return in.readUTF();
+            case LONG:
+                return in.readLong();
+            case INTEGER:
+                return in.readInt();
+            case SHORT:
+                return in.readShort();
+            case BYTE:
+                return in.readByte();
+            case DOUBLE:
+                return in.readDouble();
+            case FLOAT:
+                return in.readFloat();
+            case BOOLEAN:
+                return in.readBoolean();
+            case CHARACTER:
+                return in.readChar();
+            case BIG_DECIMAL:
+                return new BigDecimal(in.readUTF());
+            case BIG_INTEGER:
+                return new BigInteger(in.readUTF());
+            case TIMESTAMP:
+                Timestamp timestamp = new Timestamp(in.readLong());
+                timestamp.setNanos(in.readInt());
+                return timestamp;
+            case TIME:
+                return new Time(in.readLong());
+            case SQL_DATE:
+                return new java.sql.Date(in.readLong());
+            case DATE:
+                return new Date(in.readLong());
+            case ENUM:
+                return readEnum(in.readUTF(), in.readUTF());
+            default:
+                throw new IllegalArgumentException("Tipe nilai cursor tidak dikenal: " + tag);
+        }
+    }
+
+    /**
+     * Class di-load tanpa initialize dan harus enum, nama class dari client tidak bisa dipakai untuk hal lain
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Object readEnum(String className, String name) {
+        try {
+            Class<?> type = Class.forName(className, false, Thread.currentThread().getContextClassLoader());
+            if (!type.isEnum())
+                throw new IllegalArgumentException(className + " bukan enum");
+            return Enum.valueOf((Class) type, name);
+        } catch (ClassNotFoundException e) {
+            throw new IllegalArgumentException("Enum " + className + " tidak ditemukan", e);
+        }
+    }
+}
@@ -0,0 +1,227 @@
+package id.co.sambaltomat.core.dao.hibernate;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.hibernate.HibernateException;
+import org.hibernate.MappingException;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.engine.SessionImplementor;
+import org.hibernate.engine.TransactionHelper;
+import org.hibernate.id.Configurable;
+import org.hibernate.id.IdentifierGeneratorFactory;
+import org.hibernate.id.PersistentIdentifierGenerator;
+import org.hibernate.type.Type;
+import org.hibernate.util.PropertiesHelper;
+
+import java.io.Serializable;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Identifier generator hi/lo berbasis tabel, pengganti IDENTITY (auto increment) agar insert
+ * bisa dikirim sebagai JDBC batch (hibernate.jdbc.batch_size).
+ * <p/>
+ * Setiap node mengambil satu blok id (<code>block_size</code>) dari tabel <code>table</code> dalam transaksi
+ * terpisah, lalu membagikan id dari blok tersebut di memory tanpa lock (AtomicLong). Lock hanya dipakai
+ * saat blok habis dan harus mengambil blok baru. Id yang tidak terpakai saat aplikasi berhenti hilang (gap).
+ * <p/>
+ * Saat segment belum ada di tabel, nilai awal diambil dari <code>max(primary key) + 1</code> tabel entity,
+ * sehingga aman dipasang pada tabel yang sudah berisi data. Tabel blok id dibuat oleh hbm2ddl
+ * ({@link #sqlCreateStrings}) atau, jika hbm2ddl tidak aktif, dengan <code>sql/pooled_id_block.sql</code>. Contoh pemakaian:
+ * <pre>
+ *      &#64;Id
+ *      &#64;GeneratedValue(generator = "fooId")
+ *      &#64;GenericGenerator(name = "fooId", strategy = "id.co.sambaltomat.core.dao.hibernate.PooledTableIdGenerator",
+ *              parameters = &#64;Parameter(name = "block_size", value = "100"))
+ *      private Long id;
+ * </pre>
+ * Parameter:
+ * <ul>
+ * <li>table : nama tabel blok id, default pooled_id_block</li>
+ * <li>segment_value : nama segment (satu row per segment), default nama tabel entity</li>
+ * <li>block_size : jumlah id per blok, default 100</li>
+ * <li>initial_value : nilai awal jika tabel entity tidak diketahui, default 1</li>
+ * </ul>
+ */
+public class PooledTableIdGenerator extends TransactionHelper implements PersistentIdentifierGenerator, Configurable {
+    public static final String TABLE_PARAM = "table";
+    public static final String SEGMENT_VALUE_PARAM = "segment_value";
+    public static final String BLOCK_SIZE_PARAM = "block_size";
+    public static final String INITIAL_VALUE_PARAM = "initial_value";
+
+    public static final String DEFAULT_TABLE = "pooled_id_block";
+    public static final int DEFAULT_BLOCK_SIZE = 100;
+
+    private static final int MAX_ATTEMPTS = 5;
+
+    private final Log log = LogFactory.getLog(getClass());
+
+    private String tableName;
+    private String segmentValue;
+    private int blockSize;
+    private long initialValue;
+    private Class returnClass;
+
+    private String selectSql;
+    private String insertSql;
+    private String updateSql;
+    private String maxIdSql;
+
+    private final AtomicReference<Block> currentBlock = new AtomicReference<Block>(new Block(0, 0));
+
+    public void configure(Type type, Properties params, Dialect dialect) throws MappingException {
+        tableName = PropertiesHelper.getString(TABLE_PARAM, params, DEFAULT_TABLE);
+        String targetTable = params.getProperty(PersistentIdentifierGenerator.TABLE);
+        String targetColumn = params.getProperty(PersistentIdentifierGenerator.PK);
+        segmentValue = PropertiesHelper.getString(SEGMENT_VALUE_PARAM, params, targetTable);
+        if (segmentValue == null)
+            throw new MappingException("Parameter " + SEGMENT_VALUE_PARAM + " harus diisi untuk " + getClass().getName());
+        blockSize = PropertiesHelper.getInt(BLOCK_SIZE_PARAM, params, DEFAULT_BLOCK_SIZE);
+        if (blockSize <= 0)
+            throw new MappingException("Parameter " + BLOCK_SIZE_PARAM + " harus lebih besar dari 0");
+        initialValue = PropertiesHelper.getInt(INITIAL_VALUE_PARAM, params, 1);
+        returnClass = type.getReturnedClass();
+
+        selectSql = "select next_hi from " + tableName + " where sequence_name = ?" + dialect.getForUpdateString();
+        insertSql = "insert into " + tableName + " (sequence_name, next_hi) values (?, ?)";
+        updateSql = "update " + tableName + " set next_hi = ? where sequence_name = ? and next_hi = ?";
+        if (targetTable != null && targetColumn != null)
+            maxIdSql = "select max(" + targetColumn + ") from " + targetTable;
+    }
+
+    /**
+     * Ambil id berikutnya dari blok di memory, blok baru diambil dari database jika blok habis
+     */
+    public Serializable generate(SessionImplementor session, Object object) throws HibernateException {
+        while (true) {
+            Block block = currentBlock.get();
+            long value = block.next.getAndIncrement();
+            if (value < block.limit)
+                return IdentifierGeneratorFactory.createNumber(value, returnClass);
+            synchronized (currentBlock) {
+                //thread lain mungkin sudah mengambil blok baru
+                if (currentBlock.get() == block) {
+                    long start = ((Number) doWorkInNewTransaction(session)).longValue();
+                    currentBlock.set(new Block(start, start + blockSize));
+                    if (log.isDebugEnabled())
+                        log.debug("Blok id baru " + segmentValue + " : " + start + " - " + (start + blockSize - 1));
+                }
+            }
+        }
+    }
+
+    /**
+     * Reservasi satu blok id, dijalankan dalam transaksi terpisah
+     *
+     * @return id pertama dari blok
+     */
+    protected Serializable doWorkInCurrentTransaction(Connection conn, String sql) throws SQLException {
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            Long nextHi = selectNextHi(conn);
+            if (nextHi == null) {
+                long start = initialValue(conn);
+                try {
+                    executeUpdate(conn, insertSql, segmentValue, start + blockSize);
+                    return start;
+                } catch (SQLException e) {
+                    //node lain sudah insert segment yang sama, ulangi select
+                    log.debug("Insert segment " + segmentValue + " gagal, ulangi", e);
+                    continue;
+                }
+            }
+            if (executeUpdate(conn, updateSql, nextHi + blockSize, segmentValue, nextHi) == 1)
+                return nextHi;
+        }
+        throw new HibernateException("Gagal mengambil blok id untuk segment " + segmentValue + " dari tabel " + tableName);
+    }
+
+    private Long selectNextHi(Connection conn) throws SQLException {
+        PreparedStatement statement = conn.prepareStatement(selectSql);
+        try {
+            statement.setString(1, segmentValue);
+            ResultSet resultSet = statement.executeQuery();
+            try {
+                return resultSet.next() ? resultSet.getLong(1) : null;
+            } finally {
+                resultSet.close();
+            }
+        } finally {
+            statement.close();
+        }
+    }
+
+    private long initialValue(Connection conn) throws SQLException {
+        if (maxIdSql == null)
+            return initialValue;
+        PreparedStatement statement = conn.prepareStatement(maxIdSql);
+        try {
+            ResultSet resultSet = statement.executeQuery();
+            try {
+                if (resultSet.next()) {
+                    long maxId = resultSet.getLong(1);
+                    if (!resultSet.wasNull())
+                        return Math.max(maxId + 1, initialValue);
+                }
+                return initialValue;
+            } finally {
+                resultSet.close();
+            }
+        } finally {
+            statement.close();
+        }
+    }
+
+    private int executeUpdate(Connection conn, String sql, Object... values) throws SQLException {
+        PreparedStatement statement = conn.prepareStatement(sql);
+        try {
+            for (int i = 0; i < values.length; i++) {
+                statement.setObject(i + 1, values[i]);
+            }
+            return statement.executeUpdate();
+        } finally {
+            statement.close();
+        }
+    }
+
+    public String[] sqlCreateStrings(Dialect dialect) throws HibernateException {
+        return new String[]{
+                dialect.getCreateTableString() + " " + tableName + " ("
+                        + "sequence_name " + dialect.getTypeName(Types.VARCHAR, 255, 0, 0) + " not null, "
+                        + "next_hi " + dialect.getTypeName(Types.BIGINT) + " not null, "
+                        + "primary key (sequence_name))"
+        };
+    }
+
+    public String[] sqlDropStrings(Dialect dialect) throws HibernateException {
+        StringBuilder drop = new StringBuilder("drop table ");
+        if (dialect.supportsIfExistsBeforeTableName())
+            drop.append("if exists ");
+        drop.append(tableName);
+        if (dialect.supportsIfExistsAfterTableName())
+            drop.append(" if exists");
+        return new String[]{drop.toString()};
+    }
+
+    public Object generatorKey() {
+        return tableName;
+    }
+
+    /**
+     * Range id [next, limit) yang sudah direservasi di database
+     */
+    private static final class Block {
+        final AtomicLong next;
+        final long limit;
+
+        Block(long start, long limit) {
+            this.next = new AtomicLong(start);
+            this.limit = limit;
+        }
+    }
+}
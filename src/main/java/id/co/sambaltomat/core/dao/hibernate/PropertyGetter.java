@@ -0,0 +1,113 @@
+package id.co.sambaltomat.core.dao.hibernate;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.hibernate.proxy.HibernateProxy;
+
+import java.beans.BeanInfo;
+import java.beans.IntrospectionException;
+import java.beans.Introspector;
+import java.beans.PropertyDescriptor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Getter satu property yang di-resolve sekali per class (pengganti Ognl.getValue), dipakai oleh
+ * {@link JoinPathInitializationPlan} dan cursor keyset GenericDaoHibernate.
+ * Proxy Hibernate di-unwrap dulu sehingga getter yang dipakai adalah getter class entity sebenarnya.
+ */
+final class PropertyGetter {
+    private static final Log log = LogFactory.getLog(PropertyGetter.class);
+    private static final int MAX_CACHED_PATHS = 1000;
+    private static final Map<String, PropertyGetter[]> pathCache = new ConcurrentHashMap<String, PropertyGetter[]>();
+
+    private final String property;
+    private final Map<Class, Getter> getters = new ConcurrentHashMap<Class, Getter>();
+
+    PropertyGetter(String property) {
+        this.property = property;
+    }
+
+    String getProperty() {
+        return property;
+    }
+
+    /**
+     * @return nilai property, null jika parent null atau property tidak ditemukan
+     */
+    Object getValue(Object parent) {
+        if (parent == null)
+            return null;
+        if (parent instanceof HibernateProxy)
+            parent = ((HibernateProxy) parent).getHibernateLazyInitializer().getImplementation();
+        Class parentClass = parent.getClass();
+        Getter getter = getters.get(parentClass);
+        if (getter == null) {
+            getter = new Getter(findReadMethod(parentClass, property));
+            if (getter.method == null)
+                log.warn("Property '" + property + "' tidak ditemukan pada " + parentClass.getName());
+            getters.put(parentClass, getter);
+        }
+        if (getter.method == null)
+            return null;
+        try {
+            return getter.method.invoke(parent);
+        } catch (IllegalAccessException e) {
+            throw new RuntimeException(e.getMessage(), e);
+        } catch (InvocationTargetException e) {
+            throw new RuntimeException(e.getTargetException().getMessage(), e.getTargetException());
+        }
+    }
+
+    /**
+     * Nilai path bertitik (mis. <code>testModel.helloModel</code>) dari root, getter tiap segmen di-cache per path
+     *
+     * @return nilai property, null jika salah satu segmen bernilai null
+     */
+    static Object getPathValue(Object root, String path) {
+        PropertyGetter[] getters = pathCache.get(path);
+        if (getters == null) {
+            String[] properties = path.split("[.]");
+            getters = new PropertyGetter[properties.length];
+            for (int i = 0; i < properties.length; i++) {
+                getters[i] = new PropertyGetter(properties[i]);
+            }
+            if (pathCache.size() >= MAX_CACHED_PATHS)
+                pathCache.clear();
+            pathCache.put(path, getters);
+        }
+        Object value = root;
+        for (PropertyGetter getter : getters) {
+            value = getter.getValue(value);
+            if (value == null)
+                return null;
+        }
+        return value;
+    }
+
+    private static Method findReadMethod(Class beanClass, String property) {
+        try {
+            BeanInfo beanInfo = Introspector.getBeanInfo(beanClass);
+            for (PropertyDescriptor descriptor : beanInfo.getPropertyDescriptors()) {
+                if (descriptor.getName().equals(property) && descriptor.getReadMethod() != null) {
+                    Method method = descriptor.getReadMethod();
+                    method.setAccessible(true);
+                    return method;
+                }
+            }
+        } catch (IntrospectionException e) {
+            log.warn("Gagal introspeksi " + beanClass.getName(), e);
+        }
+        return null;
+    }
+
+    private static class Getter {
+        final Method method;
+
+        Getter(Method method) {
+            this.method = method;
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package id.co.sambaltomat.core.dao.hibernate;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.dialect.MySQLDialect;
+import org.hibernate.engine.SessionFactoryImplementor;
+
+/**
+ * Fetch size default untuk stream/scroll. Integer.MIN_VALUE membuat driver MySQL (Connector/J) melakukan
+ * streaming row per row, tetapi ditolak driver lain (H2, PostgreSQL, Oracle) sebagai fetch size negatif,
+ * sehingga hanya dipakai untuk dialect MySQL.
+ */
+final class StreamFetchSize {
+    static final int DEFAULT_FETCH_SIZE = 100;
+
+    private StreamFetchSize() {
+    }
+
+    /**
+     * @param configured fetch size yang di-set lewat property, null jika tidak di-set
+     * @return configured, atau Integer.MIN_VALUE untuk MySQL dan {@link #DEFAULT_FETCH_SIZE} untuk database lain
+     */
+    static int resolve(SessionFactory sessionFactory, Integer configured) {
+        if (configured != null)
+            return configured;
+        if (sessionFactory instanceof SessionFactoryImplementor
+                && ((SessionFactoryImplementor) sessionFactory).getDialect() instanceof MySQLDialect)
+            return Integer.MIN_VALUE;
+        return DEFAULT_FETCH_SIZE;
+    }
+}
@@ -0,0 +1,102 @@
+package id.co.sambaltomat.core.dao.spring;
+
+/**
+ * Deklarasi second-level cache untuk satu entity atau satu collection, dipakai oleh
+ * {@link HibernateExtensionPostProcessor#setCacheRegions(java.util.List)} sehingga entity tidak perlu
+ * diberi annotation &#64;Cache.
+ * <pre>
+ * &lt;bean class=&quot;id.co.sambaltomat.core.dao.spring.CacheRegion&quot;&gt;
+ *     &lt;property name=&quot;entityClass&quot; value=&quot;id.co.sambaltomat.model.Foo&quot;/&gt;
+ *     &lt;property name=&quot;usage&quot; value=&quot;read-write&quot;/&gt;
+ *     &lt;property name=&quot;maxElementsInMemory&quot; value=&quot;1000&quot;/&gt;
+ *     &lt;property name=&quot;timeToLiveSeconds&quot; value=&quot;300&quot;/&gt;
+ * &lt;/bean&gt;
+ * </pre>
+ * Untuk collection isi <code>collectionRole</code> (mis. <code>id.co.sambaltomat.model.Foo.bars</code>),
+ * bukan <code>entityClass</code>.
+ */
+public class CacheRegion {
+    private String entityClass;
+    private String collectionRole;
+    private String usage = "read-write";
+    private String region;
+    private int maxElementsInMemory = 1000;
+    private int timeToLiveSeconds;
+
+    /**
+     * @return nama region ehcache, default nama entity / role collection
+     */
+    public String getRegionName() {
+        if (region != null)
+            return region;
+        return entityClass != null ? entityClass : collectionRole;
+    }
+
+    /**
+     * @return nilai untuk entityCacheStrategies/collectionCacheStrategies LocalSessionFactoryBean
+     */
+    String getStrategy() {
+        return region != null ? usage + "," + region : usage;
+    }
+
+    void validate() {
+        if ((entityClass == null) == (collectionRole == null))
+            throw new IllegalArgumentException("CacheRegion harus mengisi salah satu dari entityClass atau collectionRole");
+        if (maxElementsInMemory <= 0)
+            throw new IllegalArgumentException("maxElementsInMemory " + getRegionName() + " harus lebih besar dari 0");
+    }
+
+    public String getEntityClass() {
+        return entityClass;
+    }
+
+    public void setEntityClass(String entityClass) {
+        this.entityClass = entityClass;
+    }
+
+    public String getCollectionRole() {
+        return collectionRole;
+    }
+
+    public void setCollectionRole(String collectionRole) {
+        this.collectionRole = collectionRole;
+    }
+
+    public String getUsage() {
+        return usage;
+    }
+
+    /**
+     * @param usage read-only, nonstrict-read-write, read-write atau transactional. Default read-write
+     */
+    public void setUsage(String usage) {
+        this.usage = usage;
+    }
+
+    public String getRegion() {
+        return region;
+    }
+
+    public void setRegion(String region) {
+        this.region = region;
+    }
+
+    public int getMaxElementsInMemory() {
+        return maxElementsInMemory;
+    }
+
+    public void setMaxElementsInMemory(int maxElementsInMemory) {
+        this.maxElementsInMemory = maxElementsInMemory;
+    }
+
+    public int getTimeToLiveSeconds() {
+        return timeToLiveSeconds;
+    }
+
+    /**
+     * @param timeToLiveSeconds umur entry, 0 berarti tanpa batas umur. Default 0
+     */
+    public void setTimeToLiveSeconds(int timeToLiveSeconds) {
+        this.timeToLiveSeconds = timeToLiveSeconds;
+    }
+}
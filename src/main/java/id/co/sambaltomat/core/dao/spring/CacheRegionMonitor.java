@@ -0,0 +1,41 @@
+package id.co.sambaltomat.core.dao.spring;
+
+/**
+ * MBean yang membaca statistik region ehcache setiap kali atribut dibaca (bukan snapshot)
+ */
+public class CacheRegionMonitor implements CacheRegionMonitorMBean {
+    private final String regionName;
+
+    public CacheRegionMonitor(String regionName) {
+        this.regionName = regionName;
+    }
+
+    public String getRegionName() {
+        return regionName;
+    }
+
+    public long getHitCount() {
+        CacheRegionStatistics statistics = CacheRegionStatistics.of(regionName);
+        return statistics != null ? statistics.getHitCount() : 0;
+    }
+
+    public long getMissCount() {
+        CacheRegionStatistics statistics = CacheRegionStatistics.of(regionName);
+        return statistics != null ? statistics.getMissCount() : 0;
+    }
+
+    public double getHitRatio() {
+        CacheRegionStatistics statistics = CacheRegionStatistics.of(regionName);
+        return statistics != null ? statistics.getHitRatio() : 0;
+    }
+
+    public long getEvictionCount() {
+        CacheRegionStatistics statistics = CacheRegionStatistics.of(regionName);
+        return statistics != null ? statistics.getEvictionCount() : 0;
+    }
+
+    public long getSize() {
+        CacheRegionStatistics statistics = CacheRegionStatistics.of(regionName);
+        return statistics != null ? statistics.getSize() : 0;
+    }
+}
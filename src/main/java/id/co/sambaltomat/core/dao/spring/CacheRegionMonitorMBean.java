@@ -0,0 +1,18 @@
+package id.co.sambaltomat.core.dao.spring;
+
+/**
+ * Statistik satu region second-level cache via JMX, <code>id.co.sambaltomat:type=CacheRegion,name=&lt;region&gt;</code>
+ */
+public interface CacheRegionMonitorMBean {
+    String getRegionName();
+
+    long getHitCount();
+
+    long getMissCount();
+
+    double getHitRatio();
+
+    long getEvictionCount();
+
+    long getSize();
+}
@@ -0,0 +1,70 @@
+package id.co.sambaltomat.core.dao.spring;
+
+import net.sf.ehcache.Cache;
+import net.sf.ehcache.CacheManager;
+import net.sf.ehcache.Statistics;
+
+/**
+ * Statistik satu region second-level cache (ehcache)
+ *
+ * @see HibernateExtensionPostProcessor#getCacheRegionStatistics()
+ */
+public class CacheRegionStatistics {
+    private final String regionName;
+    private final long hitCount;
+    private final long missCount;
+    private final long evictionCount;
+    private final long size;
+
+    public CacheRegionStatistics(String regionName, long hitCount, long missCount, long evictionCount, long size) {
+        this.regionName = regionName;
+        this.hitCount = hitCount;
+        this.missCount = missCount;
+        this.evictionCount = evictionCount;
+        this.size = size;
+    }
+
+    /**
+     * @return statistik saat ini dari region di CacheManager singleton, null jika region belum terdaftar
+     */
+    public static CacheRegionStatistics of(String regionName) {
+        Cache cache = CacheManager.create().getCache(regionName);
+        if (cache == null)
+            return null;
+        Statistics statistics = cache.getStatistics();
+        return new CacheRegionStatistics(regionName, statistics.getCacheHits(), statistics.getCacheMisses(),
+                statistics.getEvictionCount(), statistics.getObjectCount());
+    }
+
+    public String getRegionName() {
+        return regionName;
+    }
+
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    public long getMissCount() {
+        return missCount;
+    }
+
+    public long getEvictionCount() {
+        return evictionCount;
+    }
+
+    /**
+     * @return jumlah entry di region
+     */
+    public long getSize() {
+        return size;
+    }
+
+    public double getHitRatio() {
+        long total = hitCount + missCount;
+        return total == 0 ? 0 : (double) hitCount / total;
+    }
+
+    public String toString() {
+        return regionName + "{hit=" + hitCount + ", miss=" + missCount + ", eviction=" + evictionCount + ", size=" + size + "}";
+    }
+}
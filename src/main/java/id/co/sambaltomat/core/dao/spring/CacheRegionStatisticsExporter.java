@@ -0,0 +1,38 @@
+package id.co.sambaltomat.core.dao.spring;
+
+import id.co.sambaltomat.core.metrics.MetricsRegistry;
+import org.springframework.beans.factory.InitializingBean;
+
+/**
+ * Mendaftarkan {@link CacheRegionMonitor} untuk setiap region {@link HibernateExtensionPostProcessor#setCacheRegions}
+ * ke {@link MetricsRegistry} (JMX <code>type=CacheRegion</code>). HibernateExtensionPostProcessor sendiri adalah
+ * BeanFactoryPostProcessor sehingga tidak boleh bergantung pada bean biasa seperti MetricsRegistry.
+ * <pre>
+ *      &lt;bean class="id.co.sambaltomat.core.dao.spring.CacheRegionStatisticsExporter" lazy-init="false"&gt;
+ *          &lt;property name="hibernateExtensionPostProcessor" ref="hibernateExtensionPostProcessor"/&gt;
+ *          &lt;property name="metricsRegistry" ref="metricsRegistry"/&gt;
+ *      &lt;/bean&gt;
+ * </pre>
+ */
+public class CacheRegionStatisticsExporter implements InitializingBean {
+    public static final String MBEAN_TYPE = "CacheRegion";
+
+    private HibernateExtensionPostProcessor hibernateExtensionPostProcessor;
+    private MetricsRegistry metricsRegistry;
+
+    public void afterPropertiesSet() {
+        if (hibernateExtensionPostProcessor == null || metricsRegistry == null)
+            throw new IllegalArgumentException("hibernateExtensionPostProcessor dan metricsRegistry harus diisi");
+        for (String regionName : hibernateExtensionPostProcessor.getCacheRegionNames()) {
+            metricsRegistry.registerMBean(new CacheRegionMonitor(regionName), MBEAN_TYPE, regionName);
+        }
+    }
+
+    public void setHibernateExtensionPostProcessor(HibernateExtensionPostProcessor hibernateExtensionPostProcessor) {
+        this.hibernateExtensionPostProcessor = hibernateExtensionPostProcessor;
+    }
+
+    public void setMetricsRegistry(MetricsRegistry metricsRegistry) {
+        this.metricsRegistry = metricsRegistry;
+    }
+}
@@ -1,5 +1,7 @@
 package id.co.sambaltomat.core.dao.spring;
 
+import net.sf.ehcache.Cache;
+import net.sf.ehcache.CacheManager;
 import org.springframework.beans.MutablePropertyValues;
 import org.springframework.beans.PropertyValue;
 import org.springframework.beans.factory.NoSuchBeanDefinitionException;
@@ -41,6 +43,11 @@ import java.util.Properties;
  * new Spring configuration file and the new persistent classes will be added to the list already defined for the
  * session factory bean configured within the standard appfuse-hibernate.jar file. And all this without needing to
  * touch the original AppFuse configuration files!
+ * <p/>
+ * <p>Second-level cache per entity/collection juga bisa dideklarasikan tanpa annotation lewat property
+ * <code>cacheRegions</code> (lihat {@link CacheRegion}). Region ehcache didaftarkan ke CacheManager singleton
+ * sebelum SessionFactory dibuat, sehingga provider cache harus
+ * <code>net.sf.ehcache.hibernate.SingletonEhCacheProvider</code>.
  *
  * @author Michael Horwitz
  */
@@ -50,6 +57,7 @@ public class HibernateExtensionPostProcessor implements BeanFactoryPostProcessor
     private List annotatedClasses;
     private List configLocations;
     private Properties hibernateProperties;
+    private List<CacheRegion> cacheRegions;
 
     /**
      * Adds the annotated classes and the mapping resources to the existing Session Factory configuration.
@@ -111,6 +119,21 @@ public class HibernateExtensionPostProcessor implements BeanFactoryPostProcessor
                 Properties existingHibernateProperties = (Properties) propertyValue.getValue();
                 existingHibernateProperties.putAll(hibernateProperties);
             }
+
+            if (cacheRegions != null) {
+                Properties entityCacheStrategies = new Properties();
+                Properties collectionCacheStrategies = new Properties();
+                for (CacheRegion cacheRegion : cacheRegions) {
+                    cacheRegion.validate();
+                    if (cacheRegion.getEntityClass() != null)
+                        entityCacheStrategies.setProperty(cacheRegion.getEntityClass(), cacheRegion.getStrategy());
+                    else
+                        collectionCacheStrategies.setProperty(cacheRegion.getCollectionRole(), cacheRegion.getStrategy());
+                    registerCache(cacheRegion);
+                }
+                addProperties(propertyValues, "entityCacheStrategies", entityCacheStrategies);
+                addProperties(propertyValues, "collectionCacheStrategies", collectionCacheStrategies);
+            }
         } else {
             throw new NoSuchBeanDefinitionException("No bean named [" + sessionFactoryBeanName
                     + "] exists within the bean factory. "
@@ -118,6 +141,60 @@ public class HibernateExtensionPostProcessor implements BeanFactoryPostProcessor
         }
     }
 
+    private void addProperties(MutablePropertyValues propertyValues, String propertyName, Properties properties) {
+        if (properties.isEmpty())
+            return;
+        PropertyValue propertyValue = propertyValues.getPropertyValue(propertyName);
+        if (propertyValue == null) {
+            propertyValue = new PropertyValue(propertyName, new Properties());
+            propertyValues.addPropertyValue(propertyValue);
+        }
+        Properties existingProperties = (Properties) propertyValue.getValue();
+        existingProperties.putAll(properties);
+    }
+
+    /**
+     * Daftarkan region ke CacheManager singleton dengan ukuran dan TTL dari deklarasi,
+     * region yang sudah ada (mis. dari ehcache.xml) diganti
+     */
+    private void registerCache(CacheRegion cacheRegion) {
+        CacheManager cacheManager = CacheManager.create();
+        String regionName = cacheRegion.getRegionName();
+        if (cacheManager.cacheExists(regionName))
+            cacheManager.removeCache(regionName);
+        cacheManager.addCache(new Cache(regionName, cacheRegion.getMaxElementsInMemory(), false,
+                false, cacheRegion.getTimeToLiveSeconds(), 0));
+    }
+
+    /**
+     * Statistik region yang dideklarasikan lewat cacheRegions, ditampilkan di /metrics dan dipublikasikan ke JMX
+     * oleh {@link CacheRegionStatisticsExporter}
+     *
+     * @return satu entry per region, region yang belum terdaftar di CacheManager dilewati
+     */
+    public List<CacheRegionStatistics> getCacheRegionStatistics() {
+        List<CacheRegionStatistics> result = new ArrayList<CacheRegionStatistics>();
+        for (String regionName : getCacheRegionNames()) {
+            CacheRegionStatistics statistics = CacheRegionStatistics.of(regionName);
+            if (statistics != null)
+                result.add(statistics);
+        }
+        return result;
+    }
+
+    /**
+     * @return nama region yang dideklarasikan lewat cacheRegions
+     */
+    public List<String> getCacheRegionNames() {
+        List<String> result = new ArrayList<String>();
+        if (cacheRegions != null) {
+            for (CacheRegion cacheRegion : cacheRegions) {
+                result.add(cacheRegion.getRegionName());
+            }
+        }
+        return result;
+    }
+
     /**
      * Set the name of the SessionFactory bean. By default this post processor looks for a
      * bean of name &quot;sessionFactory&quot;
@@ -163,4 +240,13 @@ public class HibernateExtensionPostProcessor implements BeanFactoryPostProcessor
     public void setHibernateProperties(Properties hibernateProperties) {
         this.hibernateProperties = hibernateProperties;
     }
+
+    /**
+     * Second-level cache per entity/collection yang ditambahkan ke session factory.
+     *
+     * @param cacheRegions The list of cache region declarations.
+     */
+    public void setCacheRegions(List<CacheRegion> cacheRegions) {
+        this.cacheRegions = cacheRegions;
+    }
 }
@@ -0,0 +1,113 @@
+package id.co.sambaltomat.core.dao.spring;
+
+import org.hibernate.FlushMode;
+import org.hibernate.Session;
+import org.hibernate.engine.EntityEntry;
+import org.hibernate.engine.SessionImplementor;
+import org.hibernate.engine.Status;
+import org.hibernate.util.IdentityMap;
+import org.springframework.orm.hibernate3.HibernateTransactionManager;
+import org.springframework.orm.hibernate3.SessionHolder;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * HibernateTransactionManager yang selalu memakai FlushMode.MANUAL untuk transaksi read-only.
+ * <p/>
+ * HibernateTransactionManager hanya mengubah flush mode untuk session yang baru dibuka. Session yang sudah
+ * ter-bind sebelumnya (OpenSessionInViewFilter, transaksi luar) tetap dengan flush mode lamanya sehingga
+ * query pada transaksi read-only masih memicu auto-flush (dirty checking seluruh isi session).
+ * Flush mode lama disimpan di SessionHolder dan dikembalikan oleh HibernateTransactionManager setelah transaksi selesai.
+ * <p/>
+ * Dipakai bersama {@link ReadOnlyPostLoadEventListener} agar entity yang di-load pada transaksi read-only
+ * tidak menyimpan snapshot. Setiap session yang sedang menjalankan transaksi read-only dicatat
+ * (lihat {@link #isReadOnlySession(Session)}), termasuk session OpenSessionInViewFilter. Session itu tetap dipakai
+ * setelah transaksi selesai, sehingga entity yang ditandai read-only selama transaksi dikembalikan menjadi writable
+ * (snapshot diambil dari state saat itu; perubahan yang dibuat di transaksi read-only tidak akan ditulis).
+ */
+public class ReadOnlyHibernateTransactionManager extends HibernateTransactionManager {
+    private static final Map<Session, ReadOnlyScope> readOnlySessions = new ConcurrentHashMap<Session, ReadOnlyScope>();
+
+    /**
+     * @return true jika session sedang menjalankan transaksi read-only
+     */
+    public static boolean isReadOnlySession(Session session) {
+        return readOnlySessions.containsKey(session);
+    }
+
+    @Override
+    protected void doBegin(Object transaction, TransactionDefinition definition) {
+        boolean preBound = TransactionSynchronizationManager.hasResource(getSessionFactory());
+        super.doBegin(transaction, definition);
+        if (!definition.isReadOnly())
+            return;
+        SessionHolder sessionHolder = (SessionHolder) TransactionSynchronizationManager.getResource(getSessionFactory());
+        if (sessionHolder == null)
+            return;
+        Session session = sessionHolder.getSession();
+        readOnlySessions.put(session, preBound ? new ReadOnlyScope(readOnlyEntities(session)) : ReadOnlyScope.NEW_SESSION);
+        FlushMode flushMode = session.getFlushMode();
+        if (!FlushMode.MANUAL.equals(flushMode)) {
+            if (sessionHolder.getPreviousFlushMode() == null)
+                sessionHolder.setPreviousFlushMode(flushMode);
+            session.setFlushMode(FlushMode.MANUAL);
+        }
+    }
+
+    @Override
+    protected void doCleanupAfterCompletion(Object transaction) {
+        SessionHolder sessionHolder = (SessionHolder) TransactionSynchronizationManager.getResource(getSessionFactory());
+        if (sessionHolder != null) {
+            Session session = sessionHolder.getSession();
+            ReadOnlyScope scope = readOnlySessions.remove(session);
+            //session baru ditutup oleh super, tidak perlu dikembalikan
+            if (scope != null && scope.preBound && session.isOpen())
+                restoreWritable(session, scope.readOnlyBefore);
+        }
+        super.doCleanupAfterCompletion(transaction);
+    }
+
+    /**
+     * @return entity yang sudah read-only di session sebelum transaksi dimulai (ditandai aplikasi), tidak dikembalikan
+     */
+    private static Set<Object> readOnlyEntities(Session session) {
+        Set<Object> entities = Collections.newSetFromMap(new IdentityHashMap<Object, Boolean>());
+        for (Map.Entry entry : IdentityMap.concurrentEntries(((SessionImplementor) session).getPersistenceContext().getEntityEntries())) {
+            if (((EntityEntry) entry.getValue()).getStatus() == Status.READ_ONLY)
+                entities.add(entry.getKey());
+        }
+        return entities;
+    }
+
+    private static void restoreWritable(Session session, Set<Object> readOnlyBefore) {
+        for (Map.Entry entry : IdentityMap.concurrentEntries(((SessionImplementor) session).getPersistenceContext().getEntityEntries())) {
+            if (((EntityEntry) entry.getValue()).getStatus() == Status.READ_ONLY && !readOnlyBefore.contains(entry.getKey()))
+                session.setReadOnly(entry.getKey(), false);
+        }
+    }
+
+    /**
+     * Session yang sedang menjalankan transaksi read-only
+     */
+    private static class ReadOnlyScope {
+        static final ReadOnlyScope NEW_SESSION = new ReadOnlyScope(false, Collections.<Object>emptySet());
+
+        final boolean preBound;
+        final Set<Object> readOnlyBefore;
+
+        ReadOnlyScope(Set<Object> readOnlyBefore) {
+            this(true, readOnlyBefore);
+        }
+
+        private ReadOnlyScope(boolean preBound, Set<Object> readOnlyBefore) {
+            this.preBound = preBound;
+            this.readOnlyBefore = readOnlyBefore;
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package id.co.sambaltomat.core.dao.spring;
+
+import org.hibernate.Session;
+import org.hibernate.event.PostLoadEvent;
+import org.hibernate.event.def.DefaultPostLoadEventListener;
+
+/**
+ * Post-load listener yang menandai entity sebagai read-only jika di-load di dalam transaksi read-only
+ * (tx:method read-only="true"). Entity read-only tidak menyimpan snapshot loaded state dan dilewati
+ * saat dirty checking ketika flush.
+ * <p/>
+ * Berlaku untuk session yang sedang menjalankan transaksi read-only
+ * (lihat {@link ReadOnlyHibernateTransactionManager#isReadOnlySession(Session)}), termasuk session
+ * OpenSessionInViewFilter. Entity tidak dicatat oleh listener ini; untuk session yang dipakai lagi setelah
+ * transaksi selesai, ReadOnlyHibernateTransactionManager mengembalikan entity read-only di session itu menjadi writable.
+ * <p/>
+ * Didaftarkan sebagai pengganti listener "post-load" default:
+ * <pre>
+ *      &lt;property name="eventListeners"&gt;
+ *          &lt;map&gt;
+ *              &lt;entry key="post-load"&gt;
+ *                  &lt;bean class="id.co.sambaltomat.core.dao.spring.ReadOnlyPostLoadEventListener"/&gt;
+ *              &lt;/entry&gt;
+ *          &lt;/map&gt;
+ *      &lt;/property&gt;
+ * </pre>
+ */
+public class ReadOnlyPostLoadEventListener extends DefaultPostLoadEventListener {
+    private static final long serialVersionUID = -2871563372164420939L;
+
+    @Override
+    public void onPostLoad(PostLoadEvent event) {
+        super.onPostLoad(event);
+        Session session = event.getSession();
+        if (ReadOnlyHibernateTransactionManager.isReadOnlySession(session))
+            session.setReadOnly(event.getEntity(), true);
+    }
+}
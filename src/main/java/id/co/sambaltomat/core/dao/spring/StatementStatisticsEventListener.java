@@ -0,0 +1,45 @@
+package id.co.sambaltomat.core.dao.spring;
+
+import id.co.sambaltomat.core.metrics.StatementStatistics;
+import org.hibernate.HibernateException;
+import org.hibernate.event.InitializeCollectionEvent;
+import org.hibernate.event.InitializeCollectionEventListener;
+import org.hibernate.event.PostLoadEvent;
+import org.hibernate.event.PostLoadEventListener;
+
+/**
+ * Menghitung entity yang di-load dan collection yang di-initialize ke {@link StatementStatistics} yang aktif.
+ * Tidak menggantikan listener default, didaftarkan bersama listener lain dalam list:
+ * <pre>
+ *      &lt;entry key="post-load"&gt;
+ *          &lt;list&gt;
+ *              &lt;bean class="id.co.sambaltomat.core.dao.spring.ReadOnlyPostLoadEventListener"/&gt;
+ *              &lt;ref bean="statementStatisticsEventListener"/&gt;
+ *          &lt;/list&gt;
+ *      &lt;/entry&gt;
+ *      &lt;entry key="load-collection"&gt;
+ *          &lt;list&gt;
+ *              &lt;bean class="org.hibernate.event.def.DefaultInitializeCollectionEventListener"/&gt;
+ *              &lt;ref bean="statementStatisticsEventListener"/&gt;
+ *          &lt;/list&gt;
+ *      &lt;/entry&gt;
+ * </pre>
+ */
+public class StatementStatisticsEventListener implements PostLoadEventListener, InitializeCollectionEventListener {
+    private static final long serialVersionUID = 5107468842301157238L;
+
+    public void onPostLoad(PostLoadEvent event) {
+        StatementStatistics statistics = StatementStatistics.current();
+        if (statistics != null)
+            statistics.entityLoaded();
+    }
+
+    /**
+     * Event ini hanya dikirim untuk collection yang belum ter-initialize
+     */
+    public void onInitializeCollection(InitializeCollectionEvent event) throws HibernateException {
+        StatementStatistics statistics = StatementStatistics.current();
+        if (statistics != null)
+            statistics.collectionInitialized();
+    }
+}
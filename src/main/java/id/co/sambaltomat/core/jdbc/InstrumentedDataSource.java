@@ -0,0 +1,85 @@
+package id.co.sambaltomat.core.jdbc;
+
+import id.co.sambaltomat.core.metrics.LatencyHistogram;
+import org.apache.commons.dbcp.BasicDataSource;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Connection pool (commons-dbcp BasicDataSource) yang mencatat waktu tunggu borrow connection.
+ * <p/>
+ * Selain konfigurasi BasicDataSource biasa (initialSize, minIdle, maxActive, maxWait, validationQuery,
+ * poolPreparedStatements, removeAbandoned, ...) class ini menyediakan:
+ * <ul>
+ * <li>histogram waktu tunggu getConnection (termasuk membuka connection baru)</li>
+ * <li>jumlah borrow, jumlah timeout (pool habis sampai maxWait) dan jumlah gagal lainnya</li>
+ * <li>gauge connection aktif dan idle ({@link #getNumActive()}, {@link #getNumIdle()})</li>
+ * </ul>
+ * Jika timeout sering terjadi atau p99 waktu tunggu mendekati maxWait, maxActive terlalu kecil
+ * untuk jumlah request bersamaan.
+ */
+public class InstrumentedDataSource extends BasicDataSource {
+    private final LatencyHistogram borrowWaitHistogram = new LatencyHistogram();
+    private final AtomicLong borrowCount = new AtomicLong();
+    private final AtomicLong timeoutCount = new AtomicLong();
+    private final AtomicLong failureCount = new AtomicLong();
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        long start = System.nanoTime();
+        try {
+            Connection connection = super.getConnection();
+            borrowCount.incrementAndGet();
+            return connection;
+        } catch (SQLException e) {
+            //dbcp membungkus timeout pool (NoSuchElementException) dengan SQLException
+            if (e.getCause() instanceof NoSuchElementException)
+                timeoutCount.incrementAndGet();
+            else
+                failureCount.incrementAndGet();
+            throw e;
+        } finally {
+            borrowWaitHistogram.record(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * @return histogram waktu tunggu getConnection, termasuk yang gagal
+     */
+    public LatencyHistogram getBorrowWaitHistogram() {
+        return borrowWaitHistogram;
+    }
+
+    public long getBorrowCount() {
+        return borrowCount.get();
+    }
+
+    /**
+     * @return jumlah getConnection yang gagal karena pool habis sampai maxWait
+     */
+    public long getTimeoutCount() {
+        return timeoutCount.get();
+    }
+
+    /**
+     * @return jumlah getConnection yang gagal selain timeout (database tidak bisa dihubungi, validasi gagal, ...)
+     */
+    public long getFailureCount() {
+        return failureCount.get();
+    }
+
+    /**
+     * @return ringkasan kondisi pool untuk log
+     */
+    public String getPoolStatus() {
+        return "active=" + getNumActive() + "/" + getMaxActive()
+                + ", idle=" + getNumIdle()
+                + ", borrow=" + getBorrowCount()
+                + ", timeout=" + getTimeoutCount()
+                + ", failure=" + getFailureCount()
+                + ", wait[" + borrowWaitHistogram + "]";
+    }
+}
@@ -0,0 +1,278 @@
+package id.co.sambaltomat.core.jdbc;
+
+import id.co.sambaltomat.core.dao.QueryShape;
+import id.co.sambaltomat.core.metrics.StatementStatistics;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * DataSource pembungkus yang mengukur setiap statement JDBC (execute sampai ResultSet ditutup) dan
+ * menyerahkan statement lambat atau terpilih sampling ke {@link SlowQueryRecorder}, lengkap dengan
+ * tipe bind value (isinya hanya jika <code>recordBindValues</code>), jumlah row dan {@link QueryShape} method DAO asalnya. Setiap eksekusi juga dihitung ke
+ * {@link StatementStatistics} yang aktif di thread tersebut (budget statement per request).
+ * <pre>
+ *      &lt;bean id="dataSource" class="id.co.sambaltomat.core.jdbc.RecordingDataSource"&gt;
+ *          &lt;property name="targetDataSource" ref="pooledDataSource"/&gt;
+ *          &lt;property name="slowQueryRecorder" ref="slowQueryRecorder"/&gt;
+ *      &lt;/bean&gt;
+ * </pre>
+ * Connection, Statement dan ResultSet dibungkus dengan dynamic proxy; statement yang tidak
+ * tercatat tidak membuat record dan tidak menulis log. <code>slowQueryRecorder</code> boleh kosong
+ * jika yang dibutuhkan hanya penghitungan statement.
+ */
+public class RecordingDataSource extends DelegatingDataSource {
+    private static final int MAX_PARAMETER_LENGTH = 200;
+
+    private SlowQueryRecorder slowQueryRecorder;
+    private boolean recordBindValues;
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return wrap(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return wrap(super.getConnection(username, password));
+    }
+
+    private Connection wrap(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class[]{Connection.class}, new ConnectionHandler(connection));
+    }
+
+    /**
+     * Statement selesai: catat jika lambat atau terpilih sampling
+     */
+    private void finish(String sql, List<Object> parameters, QueryShape shape, long elapsedNanos, long rows) {
+        if (slowQueryRecorder == null)
+            return;
+        boolean slow = slowQueryRecorder.isSlow(elapsedNanos);
+        if (!slow && !slowQueryRecorder.isSampled())
+            return;
+        slowQueryRecorder.record(new SlowQueryRecord(System.currentTimeMillis(), Thread.currentThread().getName(),
+                sql, new ArrayList<Object>(parameters), elapsedNanos, rows,
+                shape != null ? shape.toString() : null, slow));
+    }
+
+    /**
+     * Nilai bind yang disimpan. Default hanya tipe dan panjang (<code>String(12)</code>, <code>Long</code>) agar
+     * data (password, NIK, dsb) tidak muncul di /metrics/slowQueries dan file log. Dengan recordBindValues:
+     * stream/blob diganti nama class, string panjang dipotong
+     */
+    private Object describe(Object value) {
+        if (value == null)
+            return null;
+        if (!recordBindValues) {
+            if (value instanceof String)
+                return "String(" + ((String) value).length() + ")";
+            if (value instanceof byte[])
+                return "byte[" + ((byte[]) value).length + "]";
+            return value.getClass().getSimpleName();
+        }
+        if (value instanceof Number || value instanceof Boolean || value instanceof Date)
+            return value;
+        if (value instanceof String) {
+            String string = (String) value;
+            return string.length() > MAX_PARAMETER_LENGTH ? string.substring(0, MAX_PARAMETER_LENGTH) + "..." : string;
+        }
+        if (value instanceof byte[])
+            return "byte[" + ((byte[]) value).length + "]";
+        return "<" + value.getClass().getSimpleName() + ">";
+    }
+
+    public void setSlowQueryRecorder(SlowQueryRecorder slowQueryRecorder) {
+        this.slowQueryRecorder = slowQueryRecorder;
+    }
+
+    public SlowQueryRecorder getSlowQueryRecorder() {
+        return slowQueryRecorder;
+    }
+
+    /**
+     * @param recordBindValues true untuk mencatat isi bind value (hanya untuk development), default false:
+     *                         hanya tipe dan panjang
+     */
+    public void setRecordBindValues(boolean recordBindValues) {
+        this.recordBindValues = recordBindValues;
+    }
+
+    private abstract static class DelegatingHandler implements InvocationHandler {
+        protected final Object target;
+
+        DelegatingHandler(Object target) {
+            this.target = target;
+        }
+
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.equals("equals"))
+                return proxy == args[0];
+            if (name.equals("hashCode"))
+                return System.identityHashCode(proxy);
+            return handle(proxy, method, name, args);
+        }
+
+        protected abstract Object handle(Object proxy, Method method, String name, Object[] args) throws Throwable;
+
+        protected Object invokeTarget(Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getTargetException();
+            }
+        }
+    }
+
+    private class ConnectionHandler extends DelegatingHandler {
+        ConnectionHandler(Connection target) {
+            super(target);
+        }
+
+        protected Object handle(Object proxy, Method method, String name, Object[] args) throws Throwable {
+            Object result = invokeTarget(method, args);
+            if (!(result instanceof Statement))
+                return result;
+            Class<?> type = result instanceof CallableStatement ? CallableStatement.class
+                    : result instanceof PreparedStatement ? PreparedStatement.class : Statement.class;
+            String sql = args != null && args.length > 0 && args[0] instanceof String ? (String) args[0] : null;
+            return Proxy.newProxyInstance(getClass().getClassLoader(), new Class[]{type},
+                    new StatementHandler((Statement) result, sql));
+        }
+    }
+
+    private class StatementHandler extends DelegatingHandler {
+        private final String preparedSql;
+        private final List<Object> parameters = new ArrayList<Object>();
+        private List<Object> batch;
+        private ResultSetHandler openResultSet;
+
+        StatementHandler(Statement target, String preparedSql) {
+            super(target);
+            this.preparedSql = preparedSql;
+        }
+
+        protected Object handle(Object proxy, Method method, String name, Object[] args) throws Throwable {
+            if (name.startsWith("execute"))
+                return execute(method, name, args);
+            if (preparedSql != null && name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer) {
+                setParameter((Integer) args[0], name.equals("setNull") ? null : describe(args[1]));
+            } else if (name.equals("clearParameters")) {
+                parameters.clear();
+            } else if (name.equals("addBatch")) {
+                if (batch == null)
+                    batch = new ArrayList<Object>();
+                batch.add(args != null && args.length > 0 ? args[0] : new ArrayList<Object>(parameters));
+            } else if (name.equals("clearBatch")) {
+                batch = null;
+            } else if (name.equals("close")) {
+                closeResultSet();
+            }
+            return invokeTarget(method, args);
+        }
+
+        private void setParameter(int index, Object value) {
+            while (parameters.size() < index) {
+                parameters.add(null);
+            }
+            parameters.set(index - 1, value);
+        }
+
+        private Object execute(Method method, String name, Object[] args) throws Throwable {
+            closeResultSet();
+            String sql = args != null && args.length > 0 && args[0] instanceof String ? (String) args[0] : preparedSql;
+            QueryShape shape = QueryShape.current();
+            StatementStatistics statistics = StatementStatistics.current();
+            if (statistics != null)
+                statistics.statementExecuted(sql);
+            long start = System.nanoTime();
+            Object result = invokeTarget(method, args);
+            if (result instanceof ResultSet) {
+                //salinan: parameters milik statement akan diubah oleh eksekusi berikutnya sebelum ResultSet ditutup
+                openResultSet = new ResultSetHandler((ResultSet) result, sql, new ArrayList<Object>(parameters), shape, start);
+                return Proxy.newProxyInstance(getClass().getClassLoader(), new Class[]{ResultSet.class}, openResultSet);
+            }
+            long elapsed = System.nanoTime() - start;
+            long rows = -1;
+            if (result instanceof Integer) {
+                rows = (Integer) result;
+            } else if (result instanceof int[]) {
+                rows = 0;
+                for (int count : (int[]) result) {
+                    //Statement.SUCCESS_NO_INFO (-2): driver tidak melaporkan jumlah row
+                    if (count < 0) {
+                        rows = -1;
+                        break;
+                    }
+                    rows += count;
+                }
+            }
+            if (name.equals("executeBatch")) {
+                finish(sql, batch != null ? batch : new ArrayList<Object>(), shape, elapsed, rows);
+                batch = null;
+            } else {
+                finish(sql, parameters, shape, elapsed, rows);
+            }
+            return result;
+        }
+
+        /**
+         * ResultSet yang tidak ditutup eksplisit ikut tertutup saat statement ditutup atau dieksekusi ulang
+         */
+        private void closeResultSet() {
+            if (openResultSet != null) {
+                openResultSet.complete();
+                openResultSet = null;
+            }
+        }
+    }
+
+    private class ResultSetHandler extends DelegatingHandler {
+        private final String sql;
+        private final List<Object> parameters;
+        private final QueryShape shape;
+        private final long start;
+        private long rows;
+        private boolean completed;
+
+        ResultSetHandler(ResultSet target, String sql, List<Object> parameters, QueryShape shape, long start) {
+            super(target);
+            this.sql = sql;
+            this.parameters = parameters;
+            this.shape = shape;
+            this.start = start;
+        }
+
+        protected Object handle(Object proxy, Method method, String name, Object[] args) throws Throwable {
+            if (name.equals("next")) {
+                Object result = invokeTarget(method, args);
+                if (Boolean.TRUE.equals(result))
+                    rows++;
+                return result;
+            }
+            if (name.equals("close"))
+                complete();
+            return invokeTarget(method, args);
+        }
+
+        void complete() {
+            if (completed)
+                return;
+            completed = true;
+            finish(sql, parameters, shape, System.nanoTime() - start, rows);
+        }
+    }
+}
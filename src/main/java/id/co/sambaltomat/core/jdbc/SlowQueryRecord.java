@@ -0,0 +1,97 @@
+package id.co.sambaltomat.core.jdbc;
+
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Satu statement yang dicatat oleh {@link SlowQueryRecorder}
+ */
+public class SlowQueryRecord {
+    private final long timestamp;
+    private final String threadName;
+    private final String sql;
+    private final List<Object> parameters;
+    private final long elapsedNanos;
+    private final long rows;
+    private final String shape;
+    private final boolean slow;
+
+    public SlowQueryRecord(long timestamp, String threadName, String sql, List<Object> parameters,
+                           long elapsedNanos, long rows, String shape, boolean slow) {
+        this.timestamp = timestamp;
+        this.threadName = threadName;
+        this.sql = sql;
+        this.parameters = parameters;
+        this.elapsedNanos = elapsedNanos;
+        this.rows = rows;
+        this.shape = shape;
+        this.slow = slow;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public String getThreadName() {
+        return threadName;
+    }
+
+    public String getSql() {
+        return sql;
+    }
+
+    /**
+     * @return bind value sesuai urutan parameter, berisi list per baris untuk batch
+     */
+    public List<Object> getParameters() {
+        return parameters;
+    }
+
+    /**
+     * @return waktu dari execute sampai ResultSet ditutup (termasuk fetch row)
+     */
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    public double getElapsedMillis() {
+        return elapsedNanos / 1e6;
+    }
+
+    /**
+     * @return jumlah row yang dibaca (select) atau diubah (insert/update/delete), -1 jika tidak diketahui
+     */
+    public long getRows() {
+        return rows;
+    }
+
+    /**
+     * @return {@link id.co.sambaltomat.core.dao.QueryShape} method DAO asal statement, null jika di luar DAO
+     */
+    public String getShape() {
+        return shape;
+    }
+
+    /**
+     * @return true jika melewati threshold, false jika tercatat karena sampling
+     */
+    public boolean isSlow() {
+        return slow;
+    }
+
+    /**
+     * @return satu baris tab-separated: waktu, slow/sample, elapsed, rows, thread, shape, sql, parameter
+     */
+    @Override
+    public String toString() {
+        return new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS").format(new Date(timestamp))
+                + '\t' + (slow ? "SLOW" : "SAMPLE")
+                + '\t' + String.format("%.3fms", getElapsedMillis())
+                + '\t' + rows
+                + '\t' + threadName
+                + '\t' + (shape != null ? shape : "-")
+                + '\t' + sql.replaceAll("\\s+", " ")
+                + '\t' + parameters;
+    }
+}
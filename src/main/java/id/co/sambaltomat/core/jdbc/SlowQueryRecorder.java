@@ -0,0 +1,232 @@
+package id.co.sambaltomat.core.jdbc;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Pencatat statement JDBC yang lambat, pengganti <code>hibernate.show_sql</code> / logger
+ * <code>org.hibernate.SQL</code> yang menulis setiap statement secara synchronous.
+ * <p/>
+ * Yang dicatat hanya statement dengan elapsed &gt;= <code>thresholdMillis</code> ditambah
+ * sebagian kecil (<code>sampleRate</code>) statement lain sebagai pembanding. Record disimpan di
+ * ring buffer (<code>capacity</code> record terakhir, lihat {@link #getRecent()}) dan, jika <code>file</code>
+ * diisi, dikirim ke queue terbatas yang ditulis ke file oleh satu thread background. Thread request
+ * tidak pernah menunggu I/O: jika queue penuh record tidak ditulis ke file dan dihitung di
+ * {@link #getDroppedCount()}.
+ * <pre>
+ *      &lt;bean id="slowQueryRecorder" class="id.co.sambaltomat.core.jdbc.SlowQueryRecorder" destroy-method="destroy"&gt;
+ *          &lt;property name="thresholdMillis" value="200"/&gt;
+ *          &lt;property name="sampleRate" value="0.001"/&gt;
+ *          &lt;property name="file" value="../logs/slow-query.log"/&gt;
+ *      &lt;/bean&gt;
+ * </pre>
+ *
+ * @see RecordingDataSource
+ */
+public class SlowQueryRecorder implements InitializingBean, DisposableBean {
+    private final Log log = LogFactory.getLog(getClass());
+
+    private long thresholdNanos = TimeUnit.MILLISECONDS.toNanos(500);
+    private double sampleRate = 0.001;
+    private int capacity = 1000;
+    private int queueCapacity = 10000;
+    private String file;
+
+    private AtomicReferenceArray<SlowQueryRecord> ring;
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicLong slowCount = new AtomicLong();
+    private final AtomicLong sampledCount = new AtomicLong();
+    private final AtomicLong droppedCount = new AtomicLong();
+
+    private BlockingQueue<SlowQueryRecord> queue;
+    private Thread writerThread;
+    private volatile boolean running;
+
+    private final ThreadLocal<Random> random = new ThreadLocal<Random>() {
+        @Override
+        protected Random initialValue() {
+            return new Random();
+        }
+    };
+
+    public void afterPropertiesSet() {
+        ring = new AtomicReferenceArray<SlowQueryRecord>(capacity);
+        if (file != null && file.trim().length() > 0) {
+            queue = new ArrayBlockingQueue<SlowQueryRecord>(queueCapacity);
+            running = true;
+            writerThread = new Thread(new FileSink(new File(file.trim())), "slow-query-writer");
+            writerThread.setDaemon(true);
+            writerThread.start();
+        }
+    }
+
+    /**
+     * @param elapsedNanos durasi statement
+     * @return true jika statement melewati threshold
+     */
+    public boolean isSlow(long elapsedNanos) {
+        return elapsedNanos >= thresholdNanos;
+    }
+
+    /**
+     * @return true jika statement di bawah threshold terpilih untuk dicatat
+     */
+    public boolean isSampled() {
+        return sampleRate > 0 && random.get().nextDouble() < sampleRate;
+    }
+
+    /**
+     * Simpan record ke ring buffer dan queue file, tidak pernah blocking
+     */
+    public void record(SlowQueryRecord record) {
+        if (record.isSlow())
+            slowCount.incrementAndGet();
+        else
+            sampledCount.incrementAndGet();
+        long seq = sequence.getAndIncrement();
+        ring.set((int) (seq % capacity), record);
+        if (queue != null && !queue.offer(record))
+            droppedCount.incrementAndGet();
+    }
+
+    /**
+     * @return record di ring buffer, paling lama lebih dulu
+     */
+    public List<SlowQueryRecord> getRecent() {
+        long end = sequence.get();
+        long start = Math.max(0, end - capacity);
+        List<SlowQueryRecord> records = new ArrayList<SlowQueryRecord>((int) (end - start));
+        for (long seq = start; seq < end; seq++) {
+            SlowQueryRecord record = ring.get((int) (seq % capacity));
+            if (record != null)
+                records.add(record);
+        }
+        return records;
+    }
+
+    public long getSlowCount() {
+        return slowCount.get();
+    }
+
+    public long getSampledCount() {
+        return sampledCount.get();
+    }
+
+    /**
+     * @return jumlah record yang tidak ditulis ke file karena queue penuh
+     */
+    public long getDroppedCount() {
+        return droppedCount.get();
+    }
+
+    /**
+     * Hentikan thread writer, record yang masih di queue ditulis dulu
+     */
+    public void destroy() throws InterruptedException {
+        if (writerThread == null)
+            return;
+        running = false;
+        writerThread.interrupt();
+        writerThread.join(TimeUnit.SECONDS.toMillis(5));
+        writerThread = null;
+    }
+
+    /**
+     * @param thresholdMillis statement dengan elapsed &gt;= nilai ini selalu dicatat, default 500
+     */
+    public void setThresholdMillis(long thresholdMillis) {
+        this.thresholdNanos = TimeUnit.MILLISECONDS.toNanos(thresholdMillis);
+    }
+
+    /**
+     * @param sampleRate fraksi statement di bawah threshold yang ikut dicatat (0..1), default 0.001
+     */
+    public void setSampleRate(double sampleRate) {
+        this.sampleRate = sampleRate;
+    }
+
+    /**
+     * @param capacity jumlah record terakhir yang disimpan di memory, default 1000
+     */
+    public void setCapacity(int capacity) {
+        this.capacity = capacity;
+    }
+
+    /**
+     * @param queueCapacity jumlah maksimal record yang menunggu ditulis ke file, default 10000
+     */
+    public void setQueueCapacity(int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+
+    /**
+     * @param file file tujuan (append), kosong berarti record hanya disimpan di memory
+     */
+    public void setFile(String file) {
+        this.file = file;
+    }
+
+    private class FileSink implements Runnable {
+        private final File target;
+
+        FileSink(File target) {
+            this.target = target;
+        }
+
+        public void run() {
+            Writer writer = null;
+            List<SlowQueryRecord> batch = new ArrayList<SlowQueryRecord>();
+            try {
+                if (target.getParentFile() != null)
+                    target.getParentFile().mkdirs();
+                writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(target, true), "UTF-8"));
+                while (running || !queue.isEmpty()) {
+                    SlowQueryRecord first;
+                    try {
+                        first = queue.poll(1, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        //destroy(): tulis sisa queue lalu selesai
+                        continue;
+                    }
+                    if (first == null)
+                        continue;
+                    batch.add(first);
+                    queue.drainTo(batch);
+                    for (SlowQueryRecord record : batch) {
+                        writer.write(record.toString());
+                        writer.write('\n');
+                    }
+                    batch.clear();
+                    writer.flush();
+                }
+            } catch (IOException e) {
+                log.error("Gagal menulis slow query log ke " + target, e);
+            } finally {
+                if (writer != null) {
+                    try {
+                        writer.close();
+                    } catch (IOException e) {
+                        log.warn("Gagal menutup " + target, e);
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package id.co.sambaltomat.core.metrics;
+
+/**
+ * Bean yang metric-nya dicatat dengan nama bean Spring-nya (lihat {@link MetricsInterceptor}).
+ * Bean lain dicatat dengan nama class target
+ */
+public interface InstrumentedBean {
+
+    /**
+     * @return nama bean di Spring context
+     */
+    String getBeanName();
+}
@@ -0,0 +1,125 @@
+package id.co.sambaltomat.core.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Histogram latency (nanodetik) dengan bucket log-linear seperti HdrHistogram: setiap pangkat dua dibagi
+ * 32 sub-bucket, sehingga error relatif percentile maksimal sekitar 3% untuk rentang 1 ns sampai ~18 menit.
+ * <p/>
+ * {@link #record(long)} tidak membuat object dan tidak memakai lock (AtomicLongArray), aman dipanggil
+ * dari banyak thread di jalur request. Percentile dihitung dari snapshot bucket saat dibaca.
+ */
+public class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int MAX_EXPONENT = 40;
+    private static final long MAX_VALUE = (1L << (MAX_EXPONENT + 1)) - 1;
+    private static final int BUCKET_COUNT = SUB_BUCKET_COUNT + (MAX_EXPONENT - SUB_BUCKET_BITS + 1) * SUB_BUCKET_COUNT;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+    private final AtomicLong totalCount = new AtomicLong();
+    private final AtomicLong totalNanos = new AtomicLong();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    /**
+     * @param nanos durasi dalam nanodetik, nilai negatif dianggap 0
+     */
+    public void record(long nanos) {
+        if (nanos < 0)
+            nanos = 0;
+        counts.incrementAndGet(bucketIndex(Math.min(nanos, MAX_VALUE)));
+        totalCount.incrementAndGet();
+        totalNanos.addAndGet(nanos);
+        long max;
+        while (nanos > (max = maxNanos.get())) {
+            if (maxNanos.compareAndSet(max, nanos))
+                break;
+        }
+    }
+
+    /**
+     * @param percentile 0..100, mis. 50, 99, 99.9
+     * @return perkiraan latency pada percentile tersebut dalam nanodetik, 0 jika belum ada data
+     */
+    public long getPercentile(double percentile) {
+        long total = totalCount.get();
+        if (total == 0)
+            return 0;
+        long target = Math.max(1, (long) Math.ceil(total * Math.min(percentile, 100) / 100.0));
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += counts.get(i);
+            if (seen >= target)
+                return Math.min(bucketMidpoint(i), maxNanos.get());
+        }
+        return maxNanos.get();
+    }
+
+    public long getCount() {
+        return totalCount.get();
+    }
+
+    public long getMaxNanos() {
+        return maxNanos.get();
+    }
+
+    public double getMeanNanos() {
+        long total = totalCount.get();
+        return total == 0 ? 0 : (double) totalNanos.get() / total;
+    }
+
+    /**
+     * @return percentile dalam milidetik, untuk ditampilkan
+     */
+    public double getPercentileMillis(double percentile) {
+        return (double) getPercentile(percentile) / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    /**
+     * Kosongkan histogram. Record yang berjalan bersamaan bisa ikut terhapus atau tersisa sebagian
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts.set(i, 0);
+        }
+        totalCount.set(0);
+        totalNanos.set(0);
+        maxNanos.set(0);
+    }
+
+    static int bucketIndex(long value) {
+        if (value < SUB_BUCKET_COUNT)
+            return (int) value;
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int shift = exponent - SUB_BUCKET_BITS;
+        int subBucket = (int) (value >>> shift) - SUB_BUCKET_COUNT;
+        return SUB_BUCKET_COUNT + shift * SUB_BUCKET_COUNT + subBucket;
+    }
+
+    static long bucketLowerBound(int index) {
+        if (index < SUB_BUCKET_COUNT)
+            return index;
+        int shift = (index - SUB_BUCKET_COUNT) / SUB_BUCKET_COUNT;
+        int subBucket = (index - SUB_BUCKET_COUNT) % SUB_BUCKET_COUNT;
+        return ((long) (SUB_BUCKET_COUNT + subBucket)) << shift;
+    }
+
+    private static long bucketMidpoint(int index) {
+        if (index < SUB_BUCKET_COUNT)
+            return index;
+        int shift = (index - SUB_BUCKET_COUNT) / SUB_BUCKET_COUNT;
+        return bucketLowerBound(index) + ((1L << shift) >> 1);
+    }
+
+    @Override
+    public String toString() {
+        return "count=" + getCount()
+                + ", mean=" + String.format("%.3f", getMeanNanos() / 1e6) + "ms"
+                + ", p50=" + String.format("%.3f", getPercentileMillis(50)) + "ms"
+                + ", p99=" + String.format("%.3f", getPercentileMillis(99)) + "ms"
+                + ", p999=" + String.format("%.3f", getPercentileMillis(99.9)) + "ms"
+                + ", max=" + String.format("%.3f", getMaxNanos() / 1e6) + "ms";
+    }
+}
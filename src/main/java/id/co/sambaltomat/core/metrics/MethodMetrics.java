@@ -0,0 +1,74 @@
+package id.co.sambaltomat.core.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Latency dan jumlah pemanggilan satu method pada satu bean
+ *
+ * @see MetricsInterceptor
+ */
+public class MethodMetrics implements MethodMetricsMBean {
+    private final String name;
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final AtomicLong errorCount = new AtomicLong();
+
+    public MethodMetrics(String name) {
+        this.name = name;
+    }
+
+    /**
+     * @param nanos durasi pemanggilan
+     * @param success false jika method melempar exception
+     */
+    public void record(long nanos, boolean success) {
+        latency.record(nanos);
+        if (!success)
+            errorCount.incrementAndGet();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public LatencyHistogram getLatency() {
+        return latency;
+    }
+
+    public long getCount() {
+        return latency.getCount();
+    }
+
+    public long getErrorCount() {
+        return errorCount.get();
+    }
+
+    public double getMeanMillis() {
+        return latency.getMeanNanos() / 1e6;
+    }
+
+    public double getP50Millis() {
+        return latency.getPercentileMillis(50);
+    }
+
+    public double getP99Millis() {
+        return latency.getPercentileMillis(99);
+    }
+
+    public double getP999Millis() {
+        return latency.getPercentileMillis(99.9);
+    }
+
+    public double getMaxMillis() {
+        return latency.getMaxNanos() / 1e6;
+    }
+
+    public void reset() {
+        latency.reset();
+        errorCount.set(0);
+    }
+
+    @Override
+    public String toString() {
+        return name + " " + latency + ", error=" + errorCount.get();
+    }
+}
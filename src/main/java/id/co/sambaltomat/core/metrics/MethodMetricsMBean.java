@@ -0,0 +1,25 @@
+package id.co.sambaltomat.core.metrics;
+
+/**
+ * JMX view dari {@link MethodMetrics}, nilai latency dalam milidetik
+ */
+public interface MethodMetricsMBean {
+
+    String getName();
+
+    long getCount();
+
+    long getErrorCount();
+
+    double getMeanMillis();
+
+    double getP50Millis();
+
+    double getP99Millis();
+
+    double getP999Millis();
+
+    double getMaxMillis();
+
+    void reset();
+}
@@ -0,0 +1,33 @@
+package id.co.sambaltomat.core.metrics;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+
+/**
+ * Advice AOP yang mencatat latency dan jumlah pemanggilan setiap method ke {@link MetricsRegistry}.
+ * Pasang dengan order lebih kecil dari advice transaksi agar waktu commit ikut terhitung:
+ * <pre>
+ *      &lt;aop:advisor advice-ref="metricsInterceptor"
+ *                   pointcut="execution(* *..service..*Manager.*(..))" order="1"/&gt;
+ * </pre>
+ */
+public class MetricsInterceptor implements MethodInterceptor {
+    private final MetricsRegistry metricsRegistry;
+
+    public MetricsInterceptor(MetricsRegistry metricsRegistry) {
+        this.metricsRegistry = metricsRegistry;
+    }
+
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        MethodMetrics metrics = metricsRegistry.getMethodMetrics(invocation.getThis(), invocation.getMethod());
+        long start = System.nanoTime();
+        boolean success = false;
+        try {
+            Object result = invocation.proceed();
+            success = true;
+            return result;
+        } finally {
+            metrics.record(System.nanoTime() - start, success);
+        }
+    }
+}
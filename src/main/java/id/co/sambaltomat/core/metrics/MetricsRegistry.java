@@ -0,0 +1,162 @@
+package id.co.sambaltomat.core.metrics;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.factory.DisposableBean;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Kumpulan {@link MethodMetrics} per (bean, method). Setiap metric baru didaftarkan sebagai MBean
+ * <code>id.co.sambaltomat:type=MethodMetrics,bean=&lt;bean&gt;,method=&lt;method&gt;/&lt;jumlah parameter&gt;</code>
+ * pada platform MBeanServer.
+ * <p/>
+ * Lookup metric memakai map dua level (target lalu Method) sehingga tidak membuat object baru
+ * di jalur request setelah metric pertama kali dibuat.
+ */
+public class MetricsRegistry implements DisposableBean {
+    public static final String JMX_DOMAIN = "id.co.sambaltomat";
+
+    private final Log log = LogFactory.getLog(getClass());
+
+    private final ConcurrentMap<Object, ConcurrentMap<Method, MethodMetrics>> metricsByTarget =
+            new ConcurrentHashMap<Object, ConcurrentMap<Method, MethodMetrics>>();
+    private final ConcurrentMap<String, MethodMetrics> metricsByName = new ConcurrentHashMap<String, MethodMetrics>();
+    private final List<ObjectName> registeredNames = new ArrayList<ObjectName>();
+
+    private MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+    private boolean jmxEnabled = true;
+
+    /**
+     * @param target bean yang dipanggil (bukan proxy)
+     * @param method method yang dipanggil
+     * @return metric, dibuat jika belum ada
+     */
+    public MethodMetrics getMethodMetrics(Object target, Method method) {
+        ConcurrentMap<Method, MethodMetrics> methods = metricsByTarget.get(target);
+        if (methods == null) {
+            methods = new ConcurrentHashMap<Method, MethodMetrics>();
+            ConcurrentMap<Method, MethodMetrics> existing = metricsByTarget.putIfAbsent(target, methods);
+            if (existing != null)
+                methods = existing;
+        }
+        MethodMetrics metrics = methods.get(method);
+        if (metrics == null) {
+            metrics = getMethodMetrics(beanName(target), method.getName() + "/" + method.getParameterTypes().length);
+            methods.putIfAbsent(method, metrics);
+        }
+        return metrics;
+    }
+
+    /**
+     * @param beanName nama bean
+     * @param methodName nama method
+     * @return metric, dibuat dan didaftarkan ke JMX jika belum ada
+     */
+    public MethodMetrics getMethodMetrics(String beanName, String methodName) {
+        String name = beanName + "." + methodName;
+        MethodMetrics metrics = metricsByName.get(name);
+        if (metrics == null) {
+            metrics = new MethodMetrics(name);
+            MethodMetrics existing = metricsByName.putIfAbsent(name, metrics);
+            if (existing != null)
+                return existing;
+            registerMBean(metrics, beanName, methodName);
+        }
+        return metrics;
+    }
+
+    /**
+     * @return semua metric, urut berdasarkan nama
+     */
+    public SortedMap<String, MethodMetrics> getAll() {
+        return new TreeMap<String, MethodMetrics>(metricsByName);
+    }
+
+    public void resetAll() {
+        for (MethodMetrics metrics : metricsByName.values()) {
+            metrics.reset();
+        }
+    }
+
+    private static String beanName(Object target) {
+        if (target instanceof InstrumentedBean && ((InstrumentedBean) target).getBeanName() != null)
+            return ((InstrumentedBean) target).getBeanName();
+        return target.getClass().getSimpleName();
+    }
+
+    private void registerMBean(MethodMetrics metrics, String beanName, String methodName) {
+        registerMBean(metrics, "type=MethodMetrics,bean=" + ObjectName.quote(beanName) + ",method=" + ObjectName.quote(methodName));
+    }
+
+    /**
+     * Daftarkan MBean lain (statistik cache, dsb) sebagai <code>id.co.sambaltomat:type=&lt;type&gt;,name=&lt;name&gt;</code>,
+     * dilepas bersama MBean metric saat context ditutup
+     *
+     * @param mbean object yang mengimplementasikan interface &lt;Class&gt;MBean
+     */
+    public void registerMBean(Object mbean, String type, String name) {
+        registerMBean(mbean, "type=" + type + ",name=" + ObjectName.quote(name));
+    }
+
+    private void registerMBean(Object mbean, String properties) {
+        if (!jmxEnabled)
+            return;
+        try {
+            ObjectName objectName = new ObjectName(JMX_DOMAIN + ":" + properties);
+            synchronized (registeredNames) {
+                if (!mBeanServer.isRegistered(objectName)) {
+                    mBeanServer.registerMBean(mbean, objectName);
+                    registeredNames.add(objectName);
+                }
+            }
+        } catch (JMException e) {
+            log.warn("Gagal mendaftarkan MBean " + properties, e);
+        }
+    }
+
+    /**
+     * Lepas semua MBean saat context ditutup (redeploy webapp)
+     */
+    public void destroy() {
+        synchronized (registeredNames) {
+            for (ObjectName objectName : registeredNames) {
+                try {
+                    if (mBeanServer.isRegistered(objectName))
+                        mBeanServer.unregisterMBean(objectName);
+                } catch (JMException e) {
+                    log.warn("Gagal melepas MBean " + objectName, e);
+                }
+            }
+            registeredNames.clear();
+        }
+    }
+
+    public void setMBeanServer(MBeanServer mBeanServer) {
+        this.mBeanServer = mBeanServer;
+    }
+
+    /**
+     * @param jmxEnabled false untuk tidak mendaftarkan MBean, default true
+     */
+    public void setJmxEnabled(boolean jmxEnabled) {
+        this.jmxEnabled = jmxEnabled;
+    }
+
+    /**
+     * @return jumlah metric yang terdaftar
+     */
+    public int getSize() {
+        return metricsByName.size();
+    }
+}
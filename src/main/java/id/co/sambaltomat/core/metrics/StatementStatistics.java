@@ -0,0 +1,157 @@
+package id.co.sambaltomat.core.metrics;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Jumlah statement JDBC, entity yang di-load dan collection yang di-initialize selama satu unit kerja
+ * (biasanya satu HTTP request, lihat {@link id.co.sambaltomat.core.web.StatementBudgetFilter}).
+ * Diisi oleh {@link id.co.sambaltomat.core.jdbc.RecordingDataSource} dan
+ * {@link id.co.sambaltomat.core.dao.spring.StatementStatisticsEventListener} pada thread yang sama.
+ * <p/>
+ * Select dengan SQL yang sama persis (bind value berbeda) yang berulang dalam satu unit kerja
+ * adalah tanda N+1, lihat {@link #getRepeatedSelects(int)}.
+ * <pre>
+ *      StatementStatistics statistics = StatementStatistics.begin("hello");
+ *      try {
+ *          controller.printWelcome(model);
+ *      } finally {
+ *          statistics.end();
+ *      }
+ *      statistics.assertStatementCountAtMost(2);
+ * </pre>
+ */
+public class StatementStatistics {
+    private static final ThreadLocal<StatementStatistics> CURRENT = new ThreadLocal<StatementStatistics>();
+
+    private final String name;
+    private final StatementStatistics previous;
+    private int statementCount;
+    private int entityLoadCount;
+    private int collectionInitializeCount;
+    private final Map<String, Integer> selectCountBySql = new HashMap<String, Integer>();
+
+    private StatementStatistics(String name, StatementStatistics previous) {
+        this.name = name;
+        this.previous = previous;
+    }
+
+    /**
+     * Mulai menghitung di thread ini, wajib diakhiri dengan {@link #end()} di blok finally
+     *
+     * @param name nama unit kerja untuk laporan, mis. <code>GET /hello</code>
+     */
+    public static StatementStatistics begin(String name) {
+        StatementStatistics statistics = new StatementStatistics(name, CURRENT.get());
+        CURRENT.set(statistics);
+        return statistics;
+    }
+
+    /**
+     * Berhenti menghitung, statistik sebelumnya (jika bersarang) kembali aktif
+     */
+    public void end() {
+        if (previous == null)
+            CURRENT.remove();
+        else
+            CURRENT.set(previous);
+    }
+
+    /**
+     * @return statistik yang sedang aktif di thread ini, null jika tidak ada
+     */
+    public static StatementStatistics current() {
+        return CURRENT.get();
+    }
+
+    public void statementExecuted(String sql) {
+        statementCount++;
+        if (sql != null && isSelect(sql)) {
+            Integer count = selectCountBySql.get(sql);
+            selectCountBySql.put(sql, count == null ? 1 : count + 1);
+        }
+    }
+
+    public void entityLoaded() {
+        entityLoadCount++;
+    }
+
+    public void collectionInitialized() {
+        collectionInitializeCount++;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getStatementCount() {
+        return statementCount;
+    }
+
+    public int getEntityLoadCount() {
+        return entityLoadCount;
+    }
+
+    public int getCollectionInitializeCount() {
+        return collectionInitializeCount;
+    }
+
+    /**
+     * @param minCount jumlah eksekusi minimal
+     * @return select yang dieksekusi minimal minCount kali beserta jumlahnya, terbanyak lebih dulu
+     */
+    public Map<String, Integer> getRepeatedSelects(int minCount) {
+        List<Map.Entry<String, Integer>> entries = new ArrayList<Map.Entry<String, Integer>>();
+        for (Map.Entry<String, Integer> entry : selectCountBySql.entrySet()) {
+            if (entry.getValue() >= minCount)
+                entries.add(entry);
+        }
+        Collections.sort(entries, new Comparator<Map.Entry<String, Integer>>() {
+            public int compare(Map.Entry<String, Integer> o1, Map.Entry<String, Integer> o2) {
+                return o2.getValue().compareTo(o1.getValue());
+            }
+        });
+        Map<String, Integer> repeated = new LinkedHashMap<String, Integer>();
+        for (Map.Entry<String, Integer> entry : entries) {
+            repeated.put(entry.getKey(), entry.getValue());
+        }
+        return repeated;
+    }
+
+    /**
+     * @throws AssertionError jika jumlah statement melebihi budget
+     */
+    public void assertStatementCountAtMost(int maxStatements) {
+        if (statementCount > maxStatements)
+            throw new AssertionError(name + " mengeksekusi " + statementCount + " statement, budget " + maxStatements
+                    + ". Select berulang: " + getRepeatedSelects(2));
+    }
+
+    /**
+     * @throws AssertionError jika ada select yang sama dieksekusi lebih dari maxRepetition kali (N+1)
+     */
+    public void assertNoRepeatedSelects(int maxRepetition) {
+        Map<String, Integer> repeated = getRepeatedSelects(maxRepetition + 1);
+        if (!repeated.isEmpty())
+            throw new AssertionError(name + " mengeksekusi select yang sama lebih dari " + maxRepetition + " kali: " + repeated);
+    }
+
+    private static boolean isSelect(String sql) {
+        int i = 0;
+        while (i < sql.length() && Character.isWhitespace(sql.charAt(i))) {
+            i++;
+        }
+        return sql.regionMatches(true, i, "select", 0, 6);
+    }
+
+    @Override
+    public String toString() {
+        return name + " statement=" + statementCount + ", entity=" + entityLoadCount
+                + ", collection=" + collectionInitializeCount;
+    }
+}
@@ -1,6 +1,7 @@
 package id.co.sambaltomat.core.model;
 
 import org.apache.commons.lang.builder.EqualsBuilder;
+import org.apache.commons.lang.builder.HashCodeBuilder;
 import org.apache.commons.lang.builder.ToStringBuilder;
 import org.hibernate.criterion.CriteriaSpecification;
 import org.hibernate.criterion.Criterion;
@@ -215,6 +216,21 @@ public class SearchCriteria implements Serializable
 			.isEquals();
 	}
 
+	/**
+	 * Konsisten dengan equals. Criterion dan Order Hibernate tidak meng-override hashCode,
+	 * untuk key cache lintas request pakai {@link id.co.sambaltomat.core.cache.QueryKey}
+	 * @see java.lang.Object#hashCode()
+	 */
+	public int hashCode() {
+		return new HashCodeBuilder(-1264390541, 1528366343)
+			.append(this.orderList)
+			.append(this.criterionList)
+			.append(this.subSearchCriteriaList)
+			.append(this.entityName)
+			.append(this.joinType)
+			.toHashCode();
+	}
+
 	/**
 	 * @see java.lang.Object#toString()
 	 */
@@ -1,6 +1,8 @@
 package id.co.sambaltomat.core.service;
 
 import id.co.sambaltomat.core.dao.CriterionEntry;
+import id.co.sambaltomat.core.dao.GenericDao;
+import id.co.sambaltomat.core.dao.KeysetPage;
 import id.co.sambaltomat.core.dao.OrderEntry;
 import id.co.sambaltomat.core.dao.hibernate.GenericDaoHibernate;
 import id.co.sambaltomat.core.model.SearchCriteria;
@@ -8,8 +10,10 @@ import org.hibernate.criterion.Criterion;
 import org.hibernate.criterion.Order;
 
 import java.io.Serializable;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * Generic Manager that talks to GenericDao to CRUD POJOs.
@@ -51,6 +55,41 @@ public interface GenericManager<T, PK extends Serializable> {
      */
     public T get(final PK id, final String... columnNames);
 
+    /**
+     * Select specific column names for every row matching the criteria
+     *
+     * @param searchCriteria the criteria, may be null
+     * @param columnNames argumen dinamis, sebutkan nama2 column string yang di pilih dalam SELECT
+     * @return partially populated objects
+     */
+    List<T> find(SearchCriteria searchCriteria, String... columnNames);
+
+    /**
+     * Get several objects by their identifiers with one or a few queries.
+     *
+     * @param ids the identifiers (primary keys) of the objects to get
+     * @return the objects found, keyed by identifier in the iteration order of ids
+     */
+    Map<PK, T> getMany(Collection<PK> ids);
+
+    /**
+     * Update specific columns without loading the object
+     *
+     * @param id primary key
+     * @param columnValues nama property dan nilai barunya
+     * @return number of updated rows
+     */
+    int update(PK id, Map<String, Object> columnValues);
+
+    /**
+     * Update specific columns of several objects without loading them
+     *
+     * @param ids primary keys
+     * @param columnValues nama property dan nilai barunya
+     * @return number of updated rows
+     */
+    int update(Collection<PK> ids, Map<String, Object> columnValues);
+
     /**
      * Checks for existence of an object of type T using the id arg.
      *
@@ -59,6 +98,14 @@ public interface GenericManager<T, PK extends Serializable> {
      */
     boolean exists(PK id);
 
+    /**
+     * Checks for existence of several objects of type T.
+     *
+     * @param ids the identifiers (primary keys) of the objects to check
+     * @return the identifiers that exist
+     */
+    Set<PK> existsAll(Collection<PK> ids);
+
     /**
      * Generic method to save an object - handles both update and insert.
      *
@@ -67,6 +114,14 @@ public interface GenericManager<T, PK extends Serializable> {
      */
     T save(T object);
 
+    /**
+     * Save a complete detached object without the SELECT done by merge - handles both update and insert.
+     *
+     * @param object the object to save
+     * @return the updated object
+     */
+    T saveOrUpdate(T object);
+
     /**
      * Force to use Insert instead of update.
      *
@@ -75,6 +130,22 @@ public interface GenericManager<T, PK extends Serializable> {
      */
     T forceInsert(T object);
 
+    /**
+     * Save a collection of objects using JDBC batching - handles both update and insert.
+     *
+     * @param objects the objects to save
+     * @return the updated objects
+     */
+    List<T> saveAll(Collection<T> objects);
+
+    /**
+     * Force to use Insert for a collection of objects using JDBC batching.
+     *
+     * @param objects the objects to insert
+     * @return the inserted objects
+     */
+    List<T> insertAll(Collection<T> objects);
+
     /**
      * Generic method to delete an object based on class and id
      *
@@ -82,6 +153,31 @@ public interface GenericManager<T, PK extends Serializable> {
      */
     void remove(PK id);
 
+    /**
+     * Delete several objects without loading them
+     *
+     * @param ids the identifiers (primary keys) of the objects to remove
+     * @return number of deleted rows
+     */
+    int removeAll(Collection<PK> ids);
+
+    /**
+     * Delete every object matching the criteria without loading them
+     *
+     * @param searchCriteria
+     * @return number of deleted rows
+     */
+    int deleteWhere(SearchCriteria searchCriteria);
+
+    /**
+     * Update properties of every object matching the criteria without loading them
+     *
+     * @param searchCriteria
+     * @param assignments property name and new value
+     * @return number of updated rows
+     */
+    int updateWhere(SearchCriteria searchCriteria, Map<String, Object> assignments);
+
     /**
      *
      * @param first
@@ -129,11 +225,52 @@ public interface GenericManager<T, PK extends Serializable> {
      */
     List<T> getSinglePage(int firstRow, int pageSize, List<GenericDaoHibernate.JoinPath> joinPaths, List<Criterion> params, Order[] orders);
 
+    /**
+     * Alternative getSinglePage for join paths to a collection, the page size is counted in root entities.
+     * Root primary keys are selected first, then the entities are loaded with one <code>id in (...)</code> query
+     * @param firstRow
+     * @param pageSize
+     * @param joinPaths
+     * @param params
+     * @param orders
+     * @return
+     */
+    List<T> getDistinctSinglePage(int firstRow, int pageSize, List<GenericDaoHibernate.JoinPath> joinPaths, List<Criterion> params, Order[] orders);
+
+    /**
+     * Keyset (seek) pagination, latency tetap sama di halaman berapapun
+     * @param pageSize
+     * @param joinPaths
+     * @param params
+     * @param orders
+     * @param after cursor dari halaman sebelumnya, null untuk halaman pertama
+     * @return
+     */
+    KeysetPage<T> getKeysetPage(int pageSize, List<GenericDaoHibernate.JoinPath> joinPaths, List<Criterion> params, Order[] orders, KeysetPage.Cursor after);
+
     List<T> getByPropertyCriteria(List<CriterionEntry> namedCriterionList, List<OrderEntry> orderList, int firstResult, int maxResults);
 
     List<T> searchByCriteria(SearchCriteria searchCriteria, int firstResult, int maxResults);
 
     Integer searchByCriteriaCount(SearchCriteria searchCriteria);
 
+    /**
+     * Process every row matching the criteria without loading the whole result into memory
+     * @param searchCriteria
+     * @param rowHandler
+     * @return number of processed rows
+     */
+    int stream(SearchCriteria searchCriteria, GenericDao.RowHandler<T> rowHandler);
+
+    /**
+     * Process every row matching the join path and criteria without loading the whole result into memory
+     * @param joinPaths
+     * @param params
+     * @param orders
+     * @param rowHandler
+     * @return number of processed rows
+     */
+    int scroll(List<GenericDaoHibernate.JoinPath> joinPaths, List<Criterion> params, Order[] orders, GenericDao.RowHandler<T> rowHandler);
+
     void clearCache();
 }
@@ -1,19 +1,32 @@
 package id.co.sambaltomat.core.service.impl;
 
+import id.co.sambaltomat.core.cache.NearCache;
+import id.co.sambaltomat.core.cache.QueryKey;
+import id.co.sambaltomat.core.cache.QueryResultCache;
 import id.co.sambaltomat.core.dao.CriterionEntry;
 import id.co.sambaltomat.core.dao.GenericDao;
+import id.co.sambaltomat.core.dao.KeysetPage;
 import id.co.sambaltomat.core.dao.OrderEntry;
 import id.co.sambaltomat.core.dao.hibernate.GenericDaoHibernate;
+import id.co.sambaltomat.core.metrics.InstrumentedBean;
 import id.co.sambaltomat.core.model.SearchCriteria;
 import id.co.sambaltomat.core.service.GenericManager;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.hibernate.criterion.Criterion;
 import org.hibernate.criterion.Order;
+import org.springframework.beans.factory.BeanNameAware;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * This class serves as the Base class for all other Managers - namely to hold
@@ -49,7 +62,7 @@ import java.util.Map;
  * @param <T> a type variable
  * @param <PK> the primary key for that type
  */
-public class GenericManagerImpl<T, PK extends Serializable> implements GenericManager<T, PK> {
+public class GenericManagerImpl<T, PK extends Serializable> implements GenericManager<T, PK>, BeanNameAware, InstrumentedBean {
     /**
      * Log variable for all child classes. Uses LogFactory.getLog(getClass()) from Commons Logging
      */
@@ -60,6 +73,22 @@ public class GenericManagerImpl<T, PK extends Serializable> implements GenericMa
      */
     protected GenericDao<T, PK> genericDao;
 
+    /**
+     * Cache hasil searchByCriteria, searchByCriteriaCount dan getSinglePage, optional (null = tanpa cache)
+     */
+    private QueryResultCache queryResultCache;
+
+    /**
+     * Cache get(PK) untuk key yang paling sering dibaca, berisi state entity hasil GenericDao.disassemble,
+     * optional (null = tanpa cache)
+     */
+    private NearCache<PK, Serializable> nearCache;
+
+    /**
+     * Nama bean di Spring context, dipakai sebagai nama metric
+     */
+    private String beanName;
+
     /**
      * Public constructor for creating a new GenericManagerImpl.
      *
@@ -69,6 +98,95 @@ public class GenericManagerImpl<T, PK extends Serializable> implements GenericMa
         this.genericDao = genericDao;
     }
 
+    public void setBeanName(String beanName) {
+        this.beanName = beanName;
+    }
+
+    public String getBeanName() {
+        return beanName;
+    }
+
+    /**
+     * Aktifkan cache hasil query. Hasil di-cache per entity dan dibuang setiap ada write
+     * (save, forceInsert, remove, update, ...) lewat manager untuk entity yang sama.
+     * Untuk query list yang di-cache hanya id-nya; entity di-load ulang di session pemanggil
+     * (lihat cachedList). Perubahan pada entity lain yang di-join hanya terlihat setelah TTL habis.
+     *
+     * @param queryResultCache cache, boleh dipakai bersama oleh beberapa manager
+     */
+    public void setQueryResultCache(QueryResultCache queryResultCache) {
+        this.queryResultCache = queryResultCache;
+    }
+
+    /**
+     * Aktifkan near cache untuk get(PK). Entry dibuang sebelum dan setelah setiap write lewat manager ini untuk
+     * id yang sama (save, forceInsert, remove, update, ...). Write yang tidak lewat manager ini tidak terlihat,
+     * pakai hanya untuk entity yang jarang berubah atau yang selalu ditulis lewat manager ini.
+     * <p/>
+     * Cache menyimpan state entity seperti second-level cache (relasi sebagai id, lihat {@link GenericDao#disassemble(Object)}),
+     * bukan instance entity. Setiap hit dipasang kembali ke session pemanggil sebagai entity managed
+     * (lihat {@link GenericDao#assemble(Serializable, Serializable)}), sama seperti miss: relasi lazy tetap bisa
+     * di-load dan perubahan ikut di-flush. Tidak ada deserialize maupun query ke database saat hit.
+     *
+     * @param nearCache cache khusus manager ini
+     */
+    public void setNearCache(NearCache<PK, Serializable> nearCache) {
+        this.nearCache = nearCache;
+    }
+
+    private String cacheRegion() {
+        return genericDao.getPersistentClass().getName();
+    }
+
+    /**
+     * Buang hasil cache entity ini (query cache dan near cache), dipanggil sebelum write dan diulang setelah
+     * transaksi selesai agar hasil query yang membaca data belum ter-commit (atau yang di-rollback) tidak
+     * tertinggal di cache
+     *
+     * @param ids id entity yang berubah, null jika tidak diketahui (semua entry near cache dibuang)
+     */
+    protected void invalidateCaches(final Collection<PK> ids) {
+        if (queryResultCache == null && nearCache == null)
+            return;
+        invalidateCachesNow(ids);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                @Override
+                public void afterCompletion(int status) {
+                    invalidateCachesNow(ids);
+                }
+            });
+        }
+    }
+
+    private void invalidateCaches(PK id) {
+        invalidateCaches(Collections.singletonList(id));
+    }
+
+    private void invalidateCachesNow(Collection<PK> ids) {
+        if (queryResultCache != null)
+            queryResultCache.invalidate(cacheRegion());
+        if (nearCache != null) {
+            if (ids == null) {
+                nearCache.invalidateAll();
+            } else {
+                for (PK id : ids) {
+                    nearCache.invalidate(id);
+                }
+            }
+        }
+    }
+
+    private List<PK> idsOf(Collection<T> objects) {
+        List<PK> ids = new ArrayList<PK>(objects.size());
+        for (T object : objects) {
+            PK id = genericDao.getId(object);
+            if (id != null)
+                ids.add(id);
+        }
+        return ids;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -80,7 +198,19 @@ public class GenericManagerImpl<T, PK extends Serializable> implements GenericMa
      * {@inheritDoc}
      */
     public T get(PK id) {
-        return genericDao.get(id);
+        if (nearCache == null)
+            return genericDao.get(id);
+        Serializable cached = nearCache.get(id);
+        if (cached != null) {
+            T object = genericDao.assemble(id, cached);
+            if (object != null)
+                return object;
+        }
+        long stamp = nearCache.stamp();
+        T object = genericDao.get(id);
+        //yang disimpan hanya state, instance managed tetap milik session pemanggil
+        nearCache.put(id, genericDao.disassemble(object), stamp);
+        return object;
     }
 
     /**
@@ -94,6 +224,41 @@ public class GenericManagerImpl<T, PK extends Serializable> implements GenericMa
     {
         return genericDao.get(id, columnNames);
     }
+
+    /**
+     * Select specific column names for every row matching the criteria
+     *
+     * @param searchCriteria the criteria, may be null
+     * @param columnNames argumen dinamis, sebutkan nama2 column string yang di pilih dalam SELECT
+     * @return partially populated objects
+     */
+    public List<T> find(SearchCriteria searchCriteria, String... columnNames)
+    {
+        return genericDao.find(searchCriteria, columnNames);
+    }
+    /**
+     * {@inheritDoc}
+     */
+    public Map<PK, T> getMany(Collection<PK> ids) {
+        return genericDao.getMany(ids);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public int update(PK id, Map<String, Object> columnValues) {
+        invalidateCaches(id);
+        return genericDao.update(id, columnValues);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public int update(Collection<PK> ids, Map<String, Object> columnValues) {
+        invalidateCaches(ids);
+        return genericDao.update(ids, columnValues);
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -101,27 +266,85 @@ public class GenericManagerImpl<T, PK extends Serializable> implements GenericMa
         return genericDao.exists(id);
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    public Set<PK> existsAll(Collection<PK> ids) {
+        return genericDao.existsAll(ids);
+    }
+
     /**
      * {@inheritDoc}
      */
     public T save(T object) {
+        invalidateCaches(genericDao.getId(object));
         return genericDao.save(object);
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    public T saveOrUpdate(T object) {
+        invalidateCaches(genericDao.getId(object));
+        return genericDao.saveOrUpdate(object);
+    }
+
     /**
      * {@inheritDoc}
      */
     public T forceInsert(T object) {
+        invalidateCaches(genericDao.getId(object));
         return genericDao.forceInsert(object);
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    public List<T> saveAll(Collection<T> objects) {
+        invalidateCaches(idsOf(objects));
+        return genericDao.saveAll(objects);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public List<T> insertAll(Collection<T> objects) {
+        invalidateCaches(idsOf(objects));
+        return genericDao.insertAll(objects);
+    }
+
     /**
      * {@inheritDoc}
      */
     public void remove(PK id) {
+        invalidateCaches(id);
         genericDao.remove(id);
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    public int removeAll(Collection<PK> ids) {
+        invalidateCaches(ids);
+        return genericDao.removeAll(ids);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public int deleteWhere(SearchCriteria searchCriteria) {
+        invalidateCaches((Collection<PK>) null);
+        return genericDao.deleteWhere(searchCriteria);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public int updateWhere(SearchCriteria searchCriteria, Map<String, Object> assignments) {
+        invalidateCaches((Collection<PK>) null);
+        return genericDao.updateWhere(searchCriteria, assignments);
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -138,29 +361,112 @@ public class GenericManagerImpl<T, PK extends Serializable> implements GenericMa
         return genericDao.getRowCount(params, joinPaths);
     }
 
-    public List<T> getSinglePage(int firstRow, int pageSize, List<Criterion> params, Order[] orders) {
-        return genericDao.getSinglePage(firstRow, pageSize, params, orders);
+    public List<T> getSinglePage(final int firstRow, final int pageSize, final List<Criterion> params, final Order[] orders) {
+        QueryResultCache.Loader<List<T>> loader = new QueryResultCache.Loader<List<T>>() {
+            public List<T> load() {
+                return genericDao.getSinglePage(firstRow, pageSize, params, orders);
+            }
+        };
+        if (queryResultCache == null)
+            return loader.load();
+        return cachedList(new QueryKey("getSinglePage").add(firstRow).add(pageSize).addCriteria(params).addOrders(orders), loader);
+    }
+    public List<T> getSinglePage(final int firstRow, final int pageSize, final List<GenericDaoHibernate.JoinPath> joinPaths, final List<Criterion> params, final Order[] orders)
+    {
+        QueryResultCache.Loader<List<T>> loader = new QueryResultCache.Loader<List<T>>() {
+            public List<T> load() {
+                return genericDao.getSinglePage(firstRow, pageSize, joinPaths, params, orders);
+            }
+        };
+        if (queryResultCache == null)
+            return loader.load();
+        return cachedList(new QueryKey("getSinglePage").add(firstRow).add(pageSize).addJoinPaths(joinPaths).addCriteria(params).addOrders(orders), loader);
+    }
+
+    /**
+     * Query cache hanya menyimpan id hasil query. Saat hit, entity di-load di session pemanggil lewat getMany
+     * (first-level cache, second-level cache, lalu satu query <code>in (...)</code>), sehingga tidak ada
+     * instance entity yang dipakai bersama antar thread. Jika ada id yang sudah tidak ada, query dijalankan ulang.
+     */
+    private List<T> cachedList(QueryKey key, final QueryResultCache.Loader<List<T>> loader) {
+        if (!key.isCacheable())
+            return loader.load();
+        final AtomicReference<List<T>> loaded = new AtomicReference<List<T>>();
+        List<PK> ids = queryResultCache.get(cacheRegion(), key.toString(), new QueryResultCache.Loader<List<PK>>() {
+            public List<PK> load() {
+                List<T> rows = loader.load();
+                loaded.set(rows);
+                return Collections.unmodifiableList(idsOf(rows));
+            }
+        });
+        if (loaded.get() != null)
+            return loaded.get();
+        Map<PK, T> entities = genericDao.getMany(ids);
+        List<T> rows = new ArrayList<T>(ids.size());
+        for (PK id : ids) {
+            T entity = entities.get(id);
+            if (entity == null)
+                return loader.load();
+            rows.add(entity);
+        }
+        return rows;
+    }
+
+    public List<T> getDistinctSinglePage(int firstRow, int pageSize, List<GenericDaoHibernate.JoinPath> joinPaths, List<Criterion> params, Order[] orders)
+    {
+        return genericDao.getDistinctSinglePage(firstRow, pageSize, joinPaths, params, orders);
     }
-    public List<T> getSinglePage(int firstRow, int pageSize, List<GenericDaoHibernate.JoinPath> joinPaths, List<Criterion> params, Order[] orders)
+
+    public KeysetPage<T> getKeysetPage(int pageSize, List<GenericDaoHibernate.JoinPath> joinPaths, List<Criterion> params, Order[] orders, KeysetPage.Cursor after)
     {
-        return genericDao.getSinglePage(firstRow, pageSize, joinPaths, params, orders);
+        return genericDao.getKeysetPage(pageSize, joinPaths, params, orders, after);
     }
 
     public List<T> getByPropertyCriteria(List<CriterionEntry> namedCriterionList,  List<OrderEntry> orderList, int firstResult, int maxResults){
         return genericDao.searchByPropertyCriteria(namedCriterionList,orderList,firstResult,maxResults);
     }
 
-    public List<T> searchByCriteria(SearchCriteria searchCriteria, int firstResult, int maxResults){
-        return genericDao.searchByCriteria(searchCriteria, firstResult, maxResults);
+    public List<T> searchByCriteria(final SearchCriteria searchCriteria, final int firstResult, final int maxResults){
+        QueryResultCache.Loader<List<T>> loader = new QueryResultCache.Loader<List<T>>() {
+            public List<T> load() {
+                return genericDao.searchByCriteria(searchCriteria, firstResult, maxResults);
+            }
+        };
+        if (queryResultCache == null)
+            return loader.load();
+        return cachedList(new QueryKey("searchByCriteria").add(searchCriteria).add(firstResult).add(maxResults), loader);
     }
 
     /**
      * {@inheritDoc}
      */
-	public Integer searchByCriteriaCount(SearchCriteria searchCriteria){
-		return genericDao.searchByCriteriaCount(searchCriteria);
+	public Integer searchByCriteriaCount(final SearchCriteria searchCriteria){
+		if (queryResultCache == null)
+			return genericDao.searchByCriteriaCount(searchCriteria);
+		QueryKey key = new QueryKey("searchByCriteriaCount").add(searchCriteria);
+		if (!key.isCacheable())
+			return genericDao.searchByCriteriaCount(searchCriteria);
+		return queryResultCache.get(cacheRegion(), key.toString(), new QueryResultCache.Loader<Integer>() {
+			public Integer load() {
+				return genericDao.searchByCriteriaCount(searchCriteria);
+			}
+		});
 	}
 
+    /**
+     * {@inheritDoc}
+     */
+    public int stream(SearchCriteria searchCriteria, GenericDao.RowHandler<T> rowHandler) {
+        return genericDao.stream(searchCriteria, rowHandler);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public int scroll(List<GenericDaoHibernate.JoinPath> joinPaths, List<Criterion> params, Order[] orders, GenericDao.RowHandler<T> rowHandler) {
+        return genericDao.scroll(joinPaths, params, orders, rowHandler);
+    }
+
     public void clearCache(){
         genericDao.clearCache();
     }
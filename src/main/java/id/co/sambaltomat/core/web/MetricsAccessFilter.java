@@ -0,0 +1,73 @@
+package id.co.sambaltomat.core.web;
+
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Membatasi akses ke <code>/metrics*</code> ({@link id.co.sambaltomat.controller.MetricsController}) karena
+ * isinya (SQL, nama method, kondisi pool) tidak boleh terbuka untuk umum. Jika <code>enabled</code> false
+ * semua request dijawab 404, jika alamat client tidak ada di <code>allowedAddresses</code> dijawab 403.
+ * Default hanya dari localhost.
+ * <pre>
+ *      &lt;filter&gt;
+ *          &lt;filter-name&gt;metricsAccessFilter&lt;/filter-name&gt;
+ *          &lt;filter-class&gt;id.co.sambaltomat.core.web.MetricsAccessFilter&lt;/filter-class&gt;
+ *          &lt;init-param&gt;
+ *              &lt;param-name&gt;allowedAddresses&lt;/param-name&gt;
+ *              &lt;param-value&gt;127.0.0.1,0:0:0:0:0:0:0:1,10.0.0.5&lt;/param-value&gt;
+ *          &lt;/init-param&gt;
+ *      &lt;/filter&gt;
+ *      &lt;filter-mapping&gt;
+ *          &lt;filter-name&gt;metricsAccessFilter&lt;/filter-name&gt;
+ *          &lt;url-pattern&gt;/metrics/*&lt;/url-pattern&gt;
+ *      &lt;/filter-mapping&gt;
+ * </pre>
+ * Alamat yang dicek adalah <code>request.getRemoteAddr()</code>; di belakang reverse proxy alamat ini adalah
+ * alamat proxy, sehingga akses harus dibatasi juga di proxy.
+ */
+public class MetricsAccessFilter extends OncePerRequestFilter {
+    private boolean enabled = true;
+    private Set<String> allowedAddresses = new HashSet<String>(Arrays.asList("127.0.0.1", "0:0:0:0:0:0:0:1", "::1"));
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        if (!enabled) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        if (!allowedAddresses.contains(request.getRemoteAddr())) {
+            logger.warn("Akses " + request.getRequestURI() + " dari " + request.getRemoteAddr() + " ditolak");
+            response.sendError(HttpServletResponse.SC_FORBIDDEN);
+            return;
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    /**
+     * @param enabled false untuk mematikan semua endpoint metrics, default true
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * @param allowedAddresses alamat IP client yang diizinkan, dipisah koma
+     */
+    public void setAllowedAddresses(String allowedAddresses) {
+        Set<String> addresses = new HashSet<String>();
+        for (String address : allowedAddresses.split(",")) {
+            if (address.trim().length() > 0)
+                addresses.add(address.trim());
+        }
+        this.allowedAddresses = addresses;
+    }
+}
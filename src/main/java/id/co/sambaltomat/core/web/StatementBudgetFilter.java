@@ -0,0 +1,115 @@
+package id.co.sambaltomat.core.web;
+
+import id.co.sambaltomat.core.metrics.StatementStatistics;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Menghitung statement JDBC, entity yang di-load dan collection yang di-initialize per HTTP request,
+ * termasuk lazy load saat render view di dalam OpenSessionInViewFilter. Request yang melebihi
+ * <code>maxStatements</code> atau mengeksekusi select yang sama minimal <code>repeatedSelectThreshold</code>
+ * kali (N+1) di-log dengan level WARN dan dihitung di {@link StatementBudgetReport} (/metrics/statementBudget).
+ * <pre>
+ *      &lt;filter&gt;
+ *          &lt;filter-name&gt;statementBudgetFilter&lt;/filter-name&gt;
+ *          &lt;filter-class&gt;id.co.sambaltomat.core.web.StatementBudgetFilter&lt;/filter-class&gt;
+ *          &lt;init-param&gt;
+ *              &lt;param-name&gt;maxStatements&lt;/param-name&gt;
+ *              &lt;param-value&gt;20&lt;/param-value&gt;
+ *          &lt;/init-param&gt;
+ *      &lt;/filter&gt;
+ * </pre>
+ * Statement dihitung oleh {@link id.co.sambaltomat.core.jdbc.RecordingDataSource}, entity dan collection oleh
+ * {@link id.co.sambaltomat.core.dao.spring.StatementStatisticsEventListener}.
+ * <p/>
+ * Statistik request tersedia di request attribute {@link #STATISTICS_ATTRIBUTE}, sehingga test bisa memeriksa budget
+ * (mock servlet dari spring-test, lihat StatementBudgetFilterTest):
+ * <pre>
+ *      MockHttpServletRequest request = new MockHttpServletRequest("GET", "/hello");
+ *      request.setServletPath("/hello");
+ *      filter.doFilter(request, new MockHttpServletResponse(), chain);
+ *      StatementStatistics statistics = (StatementStatistics) request.getAttribute(StatementBudgetFilter.STATISTICS_ATTRIBUTE);
+ *      statistics.assertStatementCountAtMost(2);
+ *      statistics.assertNoRepeatedSelects(1);
+ * </pre>
+ */
+public class StatementBudgetFilter extends OncePerRequestFilter {
+    public static final String STATISTICS_ATTRIBUTE = StatementBudgetFilter.class.getName() + ".STATISTICS";
+    public static final String REPORT_ATTRIBUTE = StatementBudgetFilter.class.getName() + ".REPORT";
+
+    private int maxStatements = 20;
+    private int repeatedSelectThreshold = 5;
+    private int maxEndpoints = 500;
+
+    /**
+     * Dibuat di initFilterBean, null jika filter dipakai tanpa init (mis. MockMvc.addFilters)
+     */
+    private StatementBudgetReport report;
+
+    @Override
+    protected void initFilterBean() throws ServletException {
+        report = new StatementBudgetReport(maxEndpoints);
+        getServletContext().setAttribute(REPORT_ATTRIBUTE, report);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        StatementStatistics statistics = StatementStatistics.begin(endpointName(request));
+        request.setAttribute(STATISTICS_ATTRIBUTE, statistics);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            statistics.end();
+            check(statistics);
+        }
+    }
+
+    private void check(StatementStatistics statistics) {
+        Map<String, Integer> repeatedSelects = statistics.getRepeatedSelects(repeatedSelectThreshold);
+        boolean overBudget = statistics.getStatementCount() > maxStatements;
+        if (overBudget)
+            logger.warn(statistics + " melebihi budget " + maxStatements + " statement");
+        if (!repeatedSelects.isEmpty())
+            logger.warn(statistics + " kemungkinan N+1, select berulang: " + repeatedSelects);
+        if (report != null)
+            report.record(statistics, overBudget || !repeatedSelects.isEmpty(), repeatedSelects);
+    }
+
+    /**
+     * @return <code>METHOD /path</code> tanpa context path dan query string
+     */
+    private static String endpointName(HttpServletRequest request) {
+        String path = request.getServletPath();
+        if (request.getPathInfo() != null)
+            path += request.getPathInfo();
+        return request.getMethod() + " " + path;
+    }
+
+    /**
+     * @param maxStatements jumlah statement maksimal per request sebelum di-log, default 20
+     */
+    public void setMaxStatements(int maxStatements) {
+        this.maxStatements = maxStatements;
+    }
+
+    /**
+     * @param repeatedSelectThreshold jumlah eksekusi select yang sama yang dianggap N+1, default 5
+     */
+    public void setRepeatedSelectThreshold(int repeatedSelectThreshold) {
+        this.repeatedSelectThreshold = repeatedSelectThreshold;
+    }
+
+    /**
+     * @param maxEndpoints jumlah endpoint maksimal di report, default 500
+     */
+    public void setMaxEndpoints(int maxEndpoints) {
+        this.maxEndpoints = maxEndpoints;
+    }
+}
@@ -0,0 +1,125 @@
+package id.co.sambaltomat.core.web;
+
+import id.co.sambaltomat.core.metrics.StatementStatistics;
+
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Ringkasan {@link StatementStatistics} per endpoint dari {@link StatementBudgetFilter}: jumlah request,
+ * jumlah pelanggaran budget, nilai terbesar dan contoh select berulang (N+1) terakhir.
+ * Disimpan sebagai attribute ServletContext {@link StatementBudgetFilter#REPORT_ATTRIBUTE}.
+ */
+public class StatementBudgetReport {
+    private final int maxEndpoints;
+    private final ConcurrentMap<String, EndpointStatistics> endpoints = new ConcurrentHashMap<String, EndpointStatistics>();
+
+    /**
+     * @param maxEndpoints batas jumlah endpoint yang dicatat (URL dengan id di path bisa tidak terbatas)
+     */
+    public StatementBudgetReport(int maxEndpoints) {
+        this.maxEndpoints = maxEndpoints;
+    }
+
+    void record(StatementStatistics statistics, boolean violation, Map<String, Integer> repeatedSelects) {
+        EndpointStatistics endpoint = endpoints.get(statistics.getName());
+        if (endpoint == null) {
+            if (endpoints.size() >= maxEndpoints)
+                return;
+            endpoint = new EndpointStatistics();
+            EndpointStatistics existing = endpoints.putIfAbsent(statistics.getName(), endpoint);
+            if (existing != null)
+                endpoint = existing;
+        }
+        endpoint.record(statistics, violation, repeatedSelects);
+    }
+
+    /**
+     * @return statistik per endpoint (<code>METHOD /path</code>), urut berdasarkan nama
+     */
+    public SortedMap<String, EndpointStatistics> getEndpoints() {
+        return new TreeMap<String, EndpointStatistics>(endpoints);
+    }
+
+    public void reset() {
+        endpoints.clear();
+    }
+
+    public static class EndpointStatistics {
+        private final AtomicLong requestCount = new AtomicLong();
+        private final AtomicLong violationCount = new AtomicLong();
+        private final AtomicLong statementCount = new AtomicLong();
+        private final AtomicLong maxStatementCount = new AtomicLong();
+        private final AtomicLong maxEntityLoadCount = new AtomicLong();
+        private final AtomicLong maxCollectionInitializeCount = new AtomicLong();
+        private volatile Map<String, Integer> lastRepeatedSelects;
+
+        void record(StatementStatistics statistics, boolean violation, Map<String, Integer> repeatedSelects) {
+            requestCount.incrementAndGet();
+            if (violation)
+                violationCount.incrementAndGet();
+            statementCount.addAndGet(statistics.getStatementCount());
+            updateMax(maxStatementCount, statistics.getStatementCount());
+            updateMax(maxEntityLoadCount, statistics.getEntityLoadCount());
+            updateMax(maxCollectionInitializeCount, statistics.getCollectionInitializeCount());
+            if (!repeatedSelects.isEmpty())
+                lastRepeatedSelects = repeatedSelects;
+        }
+
+        private static void updateMax(AtomicLong max, long value) {
+            long current;
+            while (value > (current = max.get())) {
+                if (max.compareAndSet(current, value))
+                    break;
+            }
+        }
+
+        public long getRequestCount() {
+            return requestCount.get();
+        }
+
+        /**
+         * @return jumlah request yang melebihi budget statement atau mengandung select berulang
+         */
+        public long getViolationCount() {
+            return violationCount.get();
+        }
+
+        public double getMeanStatementCount() {
+            long requests = requestCount.get();
+            return requests == 0 ? 0 : (double) statementCount.get() / requests;
+        }
+
+        public long getMaxStatementCount() {
+            return maxStatementCount.get();
+        }
+
+        public long getMaxEntityLoadCount() {
+            return maxEntityLoadCount.get();
+        }
+
+        public long getMaxCollectionInitializeCount() {
+            return maxCollectionInitializeCount.get();
+        }
+
+        /**
+         * @return select berulang dari pelanggaran N+1 terakhir, null jika belum pernah
+         */
+        public Map<String, Integer> getLastRepeatedSelects() {
+            return lastRepeatedSelects;
+        }
+
+        @Override
+        public String toString() {
+            return "request=" + getRequestCount()
+                    + ", violation=" + getViolationCount()
+                    + ", statement(mean/max)=" + String.format("%.1f", getMeanStatementCount()) + "/" + getMaxStatementCount()
+                    + ", entity(max)=" + getMaxEntityLoadCount()
+                    + ", collection(max)=" + getMaxCollectionInitializeCount();
+        }
+    }
+}
@@ -1,6 +1,10 @@
 package id.co.sambaltomat.model;
 
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+
 import javax.persistence.*;
+import java.io.Serializable;
 
 /**
  * Created with IntelliJ IDEA.
@@ -12,10 +16,13 @@ import javax.persistence.*;
 
 @Entity
 @Table(name="TestModelTabel")
-public class TestModel {
+public class TestModel implements Serializable {
+    private static final long serialVersionUID = 3948575061740367720L;
 
     @Id
-    @GeneratedValue
+    @GeneratedValue(generator = "testModelId")
+    @GenericGenerator(name = "testModelId", strategy = "id.co.sambaltomat.core.dao.hibernate.PooledTableIdGenerator",
+            parameters = @Parameter(name = "block_size", value = "100"))
     @Column(name = "ID")
     private Long id;
 
@@ -0,0 +1,10 @@
+-- Tabel blok id untuk PooledTableIdGenerator (id.co.sambaltomat.core.dao.hibernate.PooledTableIdGenerator).
+-- Wajib dibuat sebelum deploy karena hibernate.hbm2ddl.auto tidak aktif.
+-- Row per segment (default nama tabel entity) diisi otomatis oleh generator dengan max(primary key) + 1,
+-- sehingga tidak perlu seed untuk tabel yang sudah berisi data.
+-- InnoDB diperlukan untuk select ... for update saat mengambil blok baru.
+CREATE TABLE IF NOT EXISTS pooled_id_block (
+    sequence_name VARCHAR(255) NOT NULL,
+    next_hi       BIGINT       NOT NULL,
+    PRIMARY KEY (sequence_name)
+) ENGINE = InnoDB;
@@ -0,0 +1,237 @@
+package id.co.sambaltomat.core.dao.hibernate;
+
+import id.co.sambaltomat.core.dao.KeysetPage;
+import id.co.sambaltomat.core.model.SearchCriteria;
+import junit.framework.TestCase;
+import org.hibernate.SessionFactory;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.criterion.Order;
+import org.hibernate.criterion.Restrictions;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.orm.hibernate3.HibernateTransactionManager;
+import org.springframework.orm.hibernate3.annotation.AnnotationSessionFactoryBean;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallbackWithoutResult;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Properties;
+
+/**
+ * exists, existsAll dan getMany tidak boleh menganggap entity yang sudah didelete masih ada,
+ * baik dari session yang sama maupun dari second-level cache read-write (entry berisi lock setelah delete).
+ * deleteWhere dan updateWhere dijalankan sebagai satu statement dan membersihkan cache.
+ * State hasil disassemble dipasang kembali sebagai entity managed tanpa query.
+ * Cursor keyset bisa dikirim sebagai token string dan dipakai kembali.
+ */
+public class GenericDaoHibernateTest extends TestCase {
+    private static final Long DELETED_ID = 1L;
+    private static final Long KEPT_ID = 2L;
+
+    private AnnotationSessionFactoryBean sessionFactoryBean;
+    private SessionFactory sessionFactory;
+    private GenericDaoHibernate<CachedItem, Long> dao;
+    private TransactionTemplate transaction;
+
+    @Override
+    protected void setUp() throws Exception {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:genericDaoTest;DB_CLOSE_DELAY=-1", "sa", "");
+        dataSource.setDriverClassName("org.h2.Driver");
+
+        Properties properties = new Properties();
+        properties.setProperty("hibernate.dialect", "org.hibernate.dialect.H2Dialect");
+        properties.setProperty("hibernate.hbm2ddl.auto", "create-drop");
+        properties.setProperty("hibernate.cache.use_second_level_cache", "true");
+        properties.setProperty("hibernate.cache.use_query_cache", "false");
+        properties.setProperty("hibernate.cache.provider_class", "org.hibernate.cache.HashtableCacheProvider");
+        properties.setProperty("hibernate.generate_statistics", "true");
+
+        sessionFactoryBean = new AnnotationSessionFactoryBean();
+        sessionFactoryBean.setDataSource(dataSource);
+        sessionFactoryBean.setAnnotatedClasses(new Class[]{CachedItem.class});
+        sessionFactoryBean.setHibernateProperties(properties);
+        sessionFactoryBean.afterPropertiesSet();
+        sessionFactory = (SessionFactory) sessionFactoryBean.getObject();
+
+        dao = new GenericDaoHibernate<CachedItem, Long>(CachedItem.class);
+        dao.setSessionFactory(sessionFactory);
+        dao.afterPropertiesSet();
+
+        transaction = new TransactionTemplate(new HibernateTransactionManager(sessionFactory));
+        transaction.execute(new TransactionCallbackWithoutResult() {
+            protected void doInTransactionWithoutResult(TransactionStatus status) {
+                dao.forceInsert(new CachedItem(DELETED_ID, "deleted"));
+                dao.forceInsert(new CachedItem(KEPT_ID, "kept"));
+            }
+        });
+        //isi second-level cache
+        transaction.execute(new TransactionCallbackWithoutResult() {
+            protected void doInTransactionWithoutResult(TransactionStatus status) {
+                dao.get(DELETED_ID);
+                dao.get(KEPT_ID);
+            }
+        });
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        sessionFactoryBean.destroy();
+    }
+
+    public void testDeletedRowIsAbsentAfterCommit() {
+        transaction.execute(new TransactionCallbackWithoutResult() {
+            protected void doInTransactionWithoutResult(TransactionStatus status) {
+                assertTrue(dao.exists(DELETED_ID));
+                dao.remove(DELETED_ID);
+            }
+        });
+
+        transaction.execute(new TransactionCallbackWithoutResult() {
+            protected void doInTransactionWithoutResult(TransactionStatus status) {
+                assertFalse(dao.exists(DELETED_ID));
+                assertTrue(dao.exists(KEPT_ID));
+                assertEquals(Collections.singleton(KEPT_ID), dao.existsAll(Arrays.asList(DELETED_ID, KEPT_ID)));
+                assertEquals(Collections.singleton(KEPT_ID), dao.getMany(Arrays.asList(DELETED_ID, KEPT_ID)).keySet());
+            }
+        });
+    }
+
+    public void testDeletedRowIsAbsentInSameSession() {
+        transaction.execute(new TransactionCallbackWithoutResult() {
+            protected void doInTransactionWithoutResult(TransactionStatus status) {
+                dao.remove(DELETED_ID);
+                assertFalse(dao.exists(DELETED_ID));
+                assertEquals(Collections.singleton(KEPT_ID), dao.existsAll(Arrays.asList(DELETED_ID, KEPT_ID)));
+            }
+        });
+    }
+
+    public void testDeleteWhereRunsOneStatementAndEvictsCache() {
+        final SearchCriteria searchCriteria = new SearchCriteria(null).addCriterion(Restrictions.eq("name", "deleted"));
+        sessionFactory.getStatistics().clear();
+        transaction.execute(new TransactionCallbackWithoutResult() {
+            protected void doInTransactionWithoutResult(TransactionStatus status) {
+                CachedItem loaded = dao.get(DELETED_ID);
+                assertEquals(1, dao.deleteWhere(searchCriteria));
+                assertFalse(sessionFactory.getCurrentSession().contains(loaded));
+            }
+        });
+        //id tidak di-select terpisah, hanya satu statement delete
+        assertEquals(0, sessionFactory.getStatistics().getQueryExecutionCount());
+
+        transaction.execute(new TransactionCallbackWithoutResult() {
+            protected void doInTransactionWithoutResult(TransactionStatus status) {
+                assertFalse(dao.exists(DELETED_ID));
+                assertTrue(dao.exists(KEPT_ID));
+            }
+        });
+    }
+
+    public void testUpdateWhereIsVisibleThroughCache() {
+        final SearchCriteria searchCriteria = new SearchCriteria(null).addCriterion(Restrictions.eq("name", "kept"));
+        transaction.execute(new TransactionCallbackWithoutResult() {
+            protected void doInTransactionWithoutResult(TransactionStatus status) {
+                assertEquals(1, dao.updateWhere(searchCriteria, Collections.<String, Object>singletonMap("name", "updated")));
+            }
+        });
+
+        transaction.execute(new TransactionCallbackWithoutResult() {
+            protected void doInTransactionWithoutResult(TransactionStatus status) {
+                assertEquals("updated", dao.get(KEPT_ID).getName());
+                assertEquals("deleted", dao.get(DELETED_ID).getName());
+            }
+        });
+    }
+
+    public void testAssembledStateIsManagedWithoutQuery() {
+        final Serializable[] state = new Serializable[1];
+        transaction.execute(new TransactionCallbackWithoutResult() {
+            protected void doInTransactionWithoutResult(TransactionStatus status) {
+                state[0] = dao.disassemble(dao.get(KEPT_ID));
+            }
+        });
+        assertNotNull(state[0]);
+
+        sessionFactory.getStatistics().clear();
+        transaction.execute(new TransactionCallbackWithoutResult() {
+            protected void doInTransactionWithoutResult(TransactionStatus status) {
+                CachedItem item = dao.assemble(KEPT_ID, state[0]);
+                assertTrue(sessionFactory.getCurrentSession().contains(item));
+                assertSame(item, dao.get(KEPT_ID));
+                item.setName("assembled");
+            }
+        });
+        assertEquals(0, sessionFactory.getStatistics().getEntityLoadCount());
+        assertEquals(1, sessionFactory.getStatistics().getEntityUpdateCount());
+
+        transaction.execute(new TransactionCallbackWithoutResult() {
+            protected void doInTransactionWithoutResult(TransactionStatus status) {
+                assertEquals("assembled", dao.get(KEPT_ID).getName());
+            }
+        });
+    }
+
+    public void testKeysetCursorRoundTripsThroughToken() {
+        transaction.execute(new TransactionCallbackWithoutResult() {
+            protected void doInTransactionWithoutResult(TransactionStatus status) {
+                Order[] orders = {Order.desc("name")};
+                KeysetPage<CachedItem> page = dao.getKeysetPage(1, null, null, orders, null);
+                assertEquals(KEPT_ID, page.getRows().get(0).getId());
+                assertTrue(page.hasNext());
+
+                //token dikirim ke client lalu diterima kembali
+                String token = page.getNextCursor().toString();
+                page = dao.getKeysetPage(1, null, null, orders, KeysetPage.Cursor.valueOf(token));
+                assertEquals(DELETED_ID, page.getRows().get(0).getId());
+                assertFalse(page.hasNext());
+
+                try {
+                    dao.getKeysetPage(1, null, null, orders, KeysetPage.Cursor.valueOf("bukan-cursor"));
+                    fail("token yang tidak valid harus ditolak");
+                } catch (IllegalArgumentException expected) {
+                }
+            }
+        });
+    }
+
+    @Entity
+    @Table(name = "CACHED_ITEM")
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+    public static class CachedItem implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        @Id
+        @Column(name = "ID")
+        private Long id;
+
+        @Column(name = "NAME")
+        private String name;
+
+        public CachedItem() {
+        }
+
+        CachedItem(Long id, String name) {
+            this.id = id;
+            this.name = name;
+        }
+
+        public Long getId() {
+            return id;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+    }
+}
@@ -0,0 +1,222 @@
+package id.co.sambaltomat.core.dao.spring;
+
+import junit.framework.TestCase;
+import org.hibernate.FlushMode;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.engine.SessionImplementor;
+import org.hibernate.engine.Status;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.orm.hibernate3.SessionFactoryUtils;
+import org.springframework.orm.hibernate3.SessionHolder;
+import org.springframework.orm.hibernate3.annotation.AnnotationSessionFactoryBean;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionCallbackWithoutResult;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+import java.util.Collections;
+import java.util.Properties;
+
+/**
+ * Perubahan entity di transaksi read-only tidak boleh menghasilkan UPDATE, termasuk pada session
+ * OpenSessionInViewFilter, dan session itu tetap bisa dipakai menulis setelah transaksi read-only selesai.
+ */
+public class ReadOnlyPostLoadEventListenerTest extends TestCase {
+    private static final Long ID = 1L;
+
+    private AnnotationSessionFactoryBean sessionFactoryBean;
+    private SessionFactory sessionFactory;
+    private TransactionTemplate readOnlyTransaction;
+    private TransactionTemplate readWriteTransaction;
+
+    @Override
+    protected void setUp() throws Exception {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:readOnlyTest;DB_CLOSE_DELAY=-1", "sa", "");
+        dataSource.setDriverClassName("org.h2.Driver");
+
+        Properties properties = new Properties();
+        properties.setProperty("hibernate.dialect", "org.hibernate.dialect.H2Dialect");
+        properties.setProperty("hibernate.hbm2ddl.auto", "create-drop");
+        properties.setProperty("hibernate.generate_statistics", "true");
+        properties.setProperty("hibernate.cache.use_second_level_cache", "false");
+
+        sessionFactoryBean = new AnnotationSessionFactoryBean();
+        sessionFactoryBean.setDataSource(dataSource);
+        sessionFactoryBean.setAnnotatedClasses(new Class[]{ReadOnlyItem.class});
+        sessionFactoryBean.setHibernateProperties(properties);
+        sessionFactoryBean.setEventListeners(Collections.singletonMap("post-load", new ReadOnlyPostLoadEventListener()));
+        sessionFactoryBean.afterPropertiesSet();
+        sessionFactory = (SessionFactory) sessionFactoryBean.getObject();
+
+        ReadOnlyHibernateTransactionManager transactionManager = new ReadOnlyHibernateTransactionManager();
+        transactionManager.setSessionFactory(sessionFactory);
+        transactionManager.afterPropertiesSet();
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+        readWriteTransaction = new TransactionTemplate(transactionManager);
+
+        readWriteTransaction.execute(new TransactionCallbackWithoutResult() {
+            protected void doInTransactionWithoutResult(TransactionStatus status) {
+                currentSession().save(new ReadOnlyItem(ID, "original"));
+            }
+        });
+        sessionFactory.getStatistics().clear();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        sessionFactoryBean.destroy();
+    }
+
+    public void testReadOnlyTransactionIssuesNoUpdate() {
+        readOnlyTransaction.execute(new TransactionCallbackWithoutResult() {
+            protected void doInTransactionWithoutResult(TransactionStatus status) {
+                ReadOnlyItem item = (ReadOnlyItem) currentSession().get(ReadOnlyItem.class, ID);
+                item.setName("modified");
+                //flush eksplisit tetap tidak menulis entity read-only
+                currentSession().flush();
+            }
+        });
+
+        assertEquals(0, sessionFactory.getStatistics().getEntityUpdateCount());
+        assertEquals("original", loadName());
+    }
+
+    public void testReadWriteTransactionIssuesUpdate() {
+        readWriteTransaction.execute(new TransactionCallbackWithoutResult() {
+            protected void doInTransactionWithoutResult(TransactionStatus status) {
+                ((ReadOnlyItem) currentSession().get(ReadOnlyItem.class, ID)).setName("modified");
+            }
+        });
+
+        assertEquals(1, sessionFactory.getStatistics().getEntityUpdateCount());
+        assertEquals("modified", loadName());
+    }
+
+    public void testReadOnlySessionIsNotTrackedAfterCompletion() {
+        Session session = (Session) readOnlyTransaction.execute(new TransactionCallback() {
+            public Object doInTransaction(TransactionStatus status) {
+                Session session = currentSession();
+                assertTrue(ReadOnlyHibernateTransactionManager.isReadOnlySession(session));
+                session.get(ReadOnlyItem.class, ID);
+                return session;
+            }
+        });
+
+        assertFalse(ReadOnlyHibernateTransactionManager.isReadOnlySession(session));
+        assertFalse(session.isOpen());
+    }
+
+    /**
+     * Session OpenSessionInViewFilter: entity yang di-load di transaksi read-only ditandai read-only selama transaksi,
+     * lalu dikembalikan writable untuk transaksi tulis berikutnya pada session yang sama
+     */
+    public void testPreBoundSessionIsReadOnlyDuringTransaction() {
+        final Session session = SessionFactoryUtils.getSession(sessionFactory, true);
+        session.setFlushMode(FlushMode.MANUAL);
+        TransactionSynchronizationManager.bindResource(sessionFactory, new SessionHolder(session));
+        try {
+            final ReadOnlyItem item = (ReadOnlyItem) readOnlyTransaction.execute(new TransactionCallback() {
+                public Object doInTransaction(TransactionStatus status) {
+                    assertTrue(ReadOnlyHibernateTransactionManager.isReadOnlySession(currentSession()));
+                    assertEquals(FlushMode.MANUAL, currentSession().getFlushMode());
+                    ReadOnlyItem item = (ReadOnlyItem) currentSession().get(ReadOnlyItem.class, ID);
+                    assertEquals(Status.READ_ONLY, status(session, item));
+                    item.setName("ignored");
+                    currentSession().flush();
+                    return item;
+                }
+            });
+            assertEquals(0, sessionFactory.getStatistics().getEntityUpdateCount());
+            assertFalse(ReadOnlyHibernateTransactionManager.isReadOnlySession(session));
+            assertEquals(Status.MANAGED, status(session, item));
+            assertEquals(FlushMode.MANUAL, session.getFlushMode());
+
+            readWriteTransaction.execute(new TransactionCallbackWithoutResult() {
+                protected void doInTransactionWithoutResult(TransactionStatus status) {
+                    item.setName("modified");
+                }
+            });
+            assertEquals(1, sessionFactory.getStatistics().getEntityUpdateCount());
+        } finally {
+            TransactionSynchronizationManager.unbindResource(sessionFactory);
+            SessionFactoryUtils.closeSession(session);
+        }
+        assertEquals("modified", loadName());
+    }
+
+    /**
+     * Entity yang sudah ditandai read-only oleh aplikasi sebelum transaksi tidak ikut dikembalikan writable
+     */
+    public void testPreBoundSessionKeepsEntitiesMarkedBefore() {
+        final Session session = SessionFactoryUtils.getSession(sessionFactory, true);
+        session.setFlushMode(FlushMode.MANUAL);
+        TransactionSynchronizationManager.bindResource(sessionFactory, new SessionHolder(session));
+        try {
+            ReadOnlyItem item = (ReadOnlyItem) session.get(ReadOnlyItem.class, ID);
+            session.setReadOnly(item, true);
+            readOnlyTransaction.execute(new TransactionCallbackWithoutResult() {
+                protected void doInTransactionWithoutResult(TransactionStatus status) {
+                    currentSession().get(ReadOnlyItem.class, ID);
+                }
+            });
+            assertEquals(Status.READ_ONLY, status(session, item));
+        } finally {
+            TransactionSynchronizationManager.unbindResource(sessionFactory);
+            SessionFactoryUtils.closeSession(session);
+        }
+    }
+
+    private static Status status(Session session, Object entity) {
+        return ((SessionImplementor) session).getPersistenceContext().getEntry(entity).getStatus();
+    }
+
+    private Session currentSession() {
+        return sessionFactory.getCurrentSession();
+    }
+
+    private String loadName() {
+        return (String) readOnlyTransaction.execute(new TransactionCallback() {
+            public Object doInTransaction(TransactionStatus status) {
+                return ((ReadOnlyItem) currentSession().get(ReadOnlyItem.class, ID)).getName();
+            }
+        });
+    }
+
+    @Entity
+    @Table(name = "READ_ONLY_ITEM")
+    public static class ReadOnlyItem {
+        @Id
+        @Column(name = "ID")
+        private Long id;
+
+        @Column(name = "NAME")
+        private String name;
+
+        public ReadOnlyItem() {
+        }
+
+        ReadOnlyItem(Long id, String name) {
+            this.id = id;
+            this.name = name;
+        }
+
+        public Long getId() {
+            return id;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+    }
+}
@@ -0,0 +1,216 @@
+package id.co.sambaltomat.core.web;
+
+import id.co.sambaltomat.core.dao.spring.StatementStatisticsEventListener;
+import id.co.sambaltomat.core.jdbc.RecordingDataSource;
+import id.co.sambaltomat.core.metrics.StatementStatistics;
+import junit.framework.AssertionFailedError;
+import junit.framework.TestCase;
+import org.hibernate.SessionFactory;
+import org.hibernate.criterion.Order;
+import org.hibernate.event.def.DefaultInitializeCollectionEventListener;
+import org.hibernate.event.def.DefaultPostLoadEventListener;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.mock.web.MockFilterConfig;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockServletContext;
+import org.springframework.orm.hibernate3.HibernateTransactionManager;
+import org.springframework.orm.hibernate3.annotation.AnnotationSessionFactoryBean;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallbackWithoutResult;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.FetchType;
+import javax.persistence.Id;
+import javax.persistence.JoinColumn;
+import javax.persistence.ManyToOne;
+import javax.persistence.Table;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Budget statement per request dihitung lewat RecordingDataSource ke database H2, dan select relasi lazy
+ * yang diulang per row (N+1) terdeteksi serta tercatat di StatementBudgetReport.
+ */
+public class StatementBudgetFilterTest extends TestCase {
+    private static final int ORDERS = 5;
+
+    private AnnotationSessionFactoryBean sessionFactoryBean;
+    private SessionFactory sessionFactory;
+    private TransactionTemplate transaction;
+    private MockServletContext servletContext;
+    private StatementBudgetFilter filter;
+
+    @Override
+    protected void setUp() throws Exception {
+        DriverManagerDataSource targetDataSource = new DriverManagerDataSource("jdbc:h2:mem:statementBudgetTest;DB_CLOSE_DELAY=-1", "sa", "");
+        targetDataSource.setDriverClassName("org.h2.Driver");
+        RecordingDataSource dataSource = new RecordingDataSource();
+        dataSource.setTargetDataSource(targetDataSource);
+
+        Properties properties = new Properties();
+        properties.setProperty("hibernate.dialect", "org.hibernate.dialect.H2Dialect");
+        properties.setProperty("hibernate.hbm2ddl.auto", "create-drop");
+        properties.setProperty("hibernate.cache.use_second_level_cache", "false");
+
+        StatementStatisticsEventListener statisticsListener = new StatementStatisticsEventListener();
+        Map<String, Object> eventListeners = new HashMap<String, Object>();
+        eventListeners.put("post-load", Arrays.asList(new DefaultPostLoadEventListener(), statisticsListener));
+        eventListeners.put("load-collection", Arrays.asList(new DefaultInitializeCollectionEventListener(), statisticsListener));
+
+        sessionFactoryBean = new AnnotationSessionFactoryBean();
+        sessionFactoryBean.setDataSource(dataSource);
+        sessionFactoryBean.setAnnotatedClasses(new Class[]{BudgetCustomer.class, BudgetOrder.class});
+        sessionFactoryBean.setHibernateProperties(properties);
+        sessionFactoryBean.setEventListeners(eventListeners);
+        sessionFactoryBean.afterPropertiesSet();
+        sessionFactory = (SessionFactory) sessionFactoryBean.getObject();
+
+        transaction = new TransactionTemplate(new HibernateTransactionManager(sessionFactory));
+        transaction.execute(new TransactionCallbackWithoutResult() {
+            protected void doInTransactionWithoutResult(TransactionStatus status) {
+                for (long id = 1; id <= ORDERS; id++) {
+                    BudgetCustomer customer = new BudgetCustomer(id, "customer-" + id);
+                    sessionFactory.getCurrentSession().save(customer);
+                    sessionFactory.getCurrentSession().save(new BudgetOrder(id, customer));
+                }
+            }
+        });
+
+        servletContext = new MockServletContext();
+        filter = new StatementBudgetFilter();
+        filter.init(new MockFilterConfig(servletContext, "statementBudgetFilter"));
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        filter.destroy();
+        sessionFactoryBean.destroy();
+    }
+
+    public void testRequestWithinBudget() throws Exception {
+        StatementStatistics statistics = perform("/order", new TransactionCallbackWithoutResult() {
+            protected void doInTransactionWithoutResult(TransactionStatus status) {
+                sessionFactory.getCurrentSession().get(BudgetOrder.class, 1L);
+            }
+        });
+
+        statistics.assertStatementCountAtMost(1);
+        statistics.assertNoRepeatedSelects(1);
+        assertEquals(1, statistics.getEntityLoadCount());
+        assertEquals(0, report().getEndpoints().get("GET /order").getViolationCount());
+    }
+
+    public void testLazyLoadPerRowIsDetectedAsNPlusOne() throws Exception {
+        StatementStatistics statistics = perform("/orders", new TransactionCallbackWithoutResult() {
+            @SuppressWarnings("unchecked")
+            protected void doInTransactionWithoutResult(TransactionStatus status) {
+                List<BudgetOrder> orders = sessionFactory.getCurrentSession().createCriteria(BudgetOrder.class)
+                        .addOrder(Order.asc("id")).list();
+                for (BudgetOrder order : orders) {
+                    order.getCustomer().getName();
+                }
+            }
+        });
+
+        //satu select order, satu select customer per row
+        assertEquals(1 + ORDERS, statistics.getStatementCount());
+        assertEquals(2 * ORDERS, statistics.getEntityLoadCount());
+        Map<String, Integer> repeatedSelects = statistics.getRepeatedSelects(ORDERS);
+        assertEquals(1, repeatedSelects.size());
+        assertEquals(Integer.valueOf(ORDERS), repeatedSelects.values().iterator().next());
+        try {
+            statistics.assertStatementCountAtMost(2);
+            throw new AssertionFailedError("budget 2 statement seharusnya terlampaui");
+        } catch (AssertionError expected) {
+        }
+        try {
+            statistics.assertNoRepeatedSelects(1);
+            throw new AssertionFailedError("N+1 seharusnya terdeteksi");
+        } catch (AssertionError expected) {
+        }
+        assertEquals(1, report().getEndpoints().get("GET /orders").getViolationCount());
+    }
+
+    /**
+     * Jalankan request melewati filter, servlet menjalankan callback di dalam transaksi
+     */
+    private StatementStatistics perform(String path, final TransactionCallbackWithoutResult servlet) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest(servletContext, "GET", path);
+        request.setServletPath(path);
+        filter.doFilter(request, new MockHttpServletResponse(), new FilterChain() {
+            public void doFilter(ServletRequest request, ServletResponse response) {
+                transaction.execute(servlet);
+            }
+        });
+        assertNull(StatementStatistics.current());
+        return (StatementStatistics) request.getAttribute(StatementBudgetFilter.STATISTICS_ATTRIBUTE);
+    }
+
+    private StatementBudgetReport report() {
+        return (StatementBudgetReport) servletContext.getAttribute(StatementBudgetFilter.REPORT_ATTRIBUTE);
+    }
+
+    @Entity
+    @Table(name = "BUDGET_CUSTOMER")
+    public static class BudgetCustomer {
+        @Id
+        @Column(name = "ID")
+        private Long id;
+
+        @Column(name = "NAME")
+        private String name;
+
+        public BudgetCustomer() {
+        }
+
+        BudgetCustomer(Long id, String name) {
+            this.id = id;
+            this.name = name;
+        }
+
+        public Long getId() {
+            return id;
+        }
+
+        public String getName() {
+            return name;
+        }
+    }
+
+    @Entity
+    @Table(name = "BUDGET_ORDER")
+    public static class BudgetOrder {
+        @Id
+        @Column(name = "ID")
+        private Long id;
+
+        @ManyToOne(fetch = FetchType.LAZY)
+        @JoinColumn(name = "CUSTOMER_ID")
+        private BudgetCustomer customer;
+
+        public BudgetOrder() {
+        }
+
+        BudgetOrder(Long id, BudgetCustomer customer) {
+            this.id = id;
+            this.customer = customer;
+        }
+
+        public Long getId() {
+            return id;
+        }
+
+        public BudgetCustomer getCustomer() {
+            return customer;
+        }
+    }
+}